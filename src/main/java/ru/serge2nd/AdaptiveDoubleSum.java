@@ -0,0 +1,172 @@
+package ru.serge2nd;
+
+import ru.serge2nd.DoubleSum.CompensatingSumOp;
+import ru.serge2nd.DoubleSum.StdOp;
+
+import static java.lang.Double.isFinite;
+import static java.lang.Math.abs;
+import static java.lang.Math.min;
+import static ru.serge2nd.DoubleAlgs.EXACT_BINS;
+import static ru.serge2nd.DoubleAlgs.distill;
+import static ru.serge2nd.DoubleAlgs.exactSum;
+import static ru.serge2nd.DoubleAlgs.exactValue;
+import static ru.serge2nd.DoubleAlgs.roundedSum;
+
+/**
+ * Accumulating a sum of <code>double</code> values with the compensation order chosen on the fly.
+ * The sum starts with the given order of the Kahan–Babuška family (see {@link DoubleAlgs#iterativeKBSum(double[], double, int)})
+ * and tracks the running condition estimate {@code sum(|x|) / |sum(x)|}.
+ * When the error bound of the current order {@code (n * u)^(order + 1) * sum(|x|)} exceeds {@code tolerance * |sum(x)|}
+ * (the sum cancels), the order is increased, and the exact summation ({@link StdOp#EXACT}) follows the maximum order.
+ * A single add carries the state after it over on the escalation, the block of a bulk add that exceeded the bound
+ * is added again to the state before the block, so the error made before is kept and no state is copied per add.
+ * The escalations are reported to the {@link Listener}. No escalations happen after a non-finite value
+ * or while a compensated sum is zero (its terms keep the errors of the adds, so the values cancel out exactly),
+ * the plain sum may lose the low parts before it cancels, so it escalates.
+ */
+public class AdaptiveDoubleSum {
+    /** The order reported for the exact summation. */
+    public static final int EXACT = DoubleSum.EXACT_ORDER;
+    /** The default relative tolerance (about 9 ulps). */
+    public static final double DEFAULT_TOLERANCE = 0x1p-49;
+
+    /** The listener of the escalations. */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called after the sum escalates its compensation order.
+         * @param sum the escalated sum
+         * @param from previous order
+         * @param to new order or {@link #EXACT}
+         */
+        void escalated(AdaptiveDoubleSum sum, int from, int to);
+    }
+
+    static final double U     = 0x1p-53;
+    static final int    BLOCK = 1 << 10;
+
+    private final int maxOrder;
+    private final double tolerance;
+    private final Listener listener;
+    private CompensatingSumOp op;
+    private double[] sum;
+    private final double[] kept;
+    private int order, escalations;
+    private long n;
+    private double absSum;
+    private double[] partials;
+
+    public AdaptiveDoubleSum() {
+        this(1, 2, DEFAULT_TOLERANCE, null);
+    }
+    /**
+     * @param startOrder compensation order to start with (0 is the plain summation)
+     * @param maxOrder maximum compensation order before the exact summation
+     * @param tolerance relative error to keep
+     * @param listener listener of the escalations or {@code null}
+     * @throws IllegalArgumentException if the orders are negative or unordered or the tolerance is not positive
+     */
+    public AdaptiveDoubleSum(int startOrder, int maxOrder, double tolerance, Listener listener) {
+        if (startOrder < 0 || maxOrder < startOrder || maxOrder >= EXACT) throw new IllegalArgumentException("invalid orders: " + startOrder + ", " + maxOrder);
+        if (!(tolerance > 0)) throw new IllegalArgumentException("non-positive tolerance: " + tolerance);
+        this.maxOrder  = maxOrder;
+        this.tolerance = tolerance;
+        this.listener  = listener;
+        this.order     = startOrder;
+        this.op        = opOf(startOrder);
+        this.sum       = new double[startOrder + 1];
+        this.kept      = new double[maxOrder + 1];
+    }
+
+    public AdaptiveDoubleSum add(double x) {
+        absSum += abs(x); n++;
+        if (order == EXACT) { op.add(sum, x); return this; }
+
+        op.add(sum, x);
+        while (order != EXACT && exceeds()) escalate(sum);
+        return this;
+    }
+    /** Adds the values from the range {@code [from, to)} of {@code xs} via the bulk kernels, checking the condition after each block of {@value #BLOCK} values. */
+    public AdaptiveDoubleSum addAll(double[] xs, int from, int to) {
+        for (int i = from; i < to;) {
+            int end = order != EXACT ? (int)min(to, (long)i + BLOCK) : to;
+            double a = 0.0;
+            for (int j = i; j < end; j++) a += abs(xs[j]);
+            absSum += a; n += end - i;
+
+            if (order != EXACT) keep();
+            op.addAll(sum, xs, i, end);
+            while (order != EXACT && exceeds()) { escalate(kept); op.addAll(sum, xs, i, end); }
+            i = end;
+        }
+        return this;
+    }
+
+    /** Get the current compensation order or {@link #EXACT}. */
+    public int order()        { return order; }
+    /** Get the number of the escalations happened. */
+    public int escalations()  { return escalations; }
+    /** Get the number of the added values. */
+    public long count()       { return n; }
+    /** Get the running condition estimate {@code sum(|x|) / |sum(x)|}. */
+    public double condition() { return absSum / abs(get()); }
+
+    /** Get the raw result (perhaps with very basic compensation). */
+    public double raw() { return op.term(sum, 0); }
+    /** Get the fast but not too precise result. */
+    public double get() {
+        double s = op.term(sum, 0);
+        for (int i = 1; i < sum.length; i++) s += sum[i];
+        return isFinite(sum[0]) ? s : sum[0];
+    }
+    /** Get the correctly rounded sum of the terms, see {@link DoubleSum#fine()}. */
+    public double fine() {
+        if (sum.length == 1) return sum[0];
+        double[] partials = this.partials != null && this.partials.length >= sum.length ? this.partials : (this.partials = new double[sum.length]);
+        if (order == EXACT) return exactValue(sum, partials);
+        int k = distill(sum, 0, sum.length, partials);
+        return k < 0 ? get() : roundedSum(partials, k);
+    }
+    /** Creates a {@link DoubleSum} of the current op with a copy of the state. */
+    public DoubleSum toDoubleSum() {
+        return new DoubleSum(op, sum.clone());
+    }
+
+    private void keep() { System.arraycopy(sum, 0, kept, 0, sum.length); }
+
+    private boolean exceeds() {
+        double s = sum.length > 1 ? sum[0] + sum[1] : sum[0];
+        if (s == 0.0 && order > 0 || !isFinite(s) || !isFinite(absSum)) return false;
+
+        double nu = n * U, bound = nu;
+        for (int i = 0; i < order; i++) bound *= nu;
+        return absSum * bound > tolerance * abs(s);
+    }
+
+    /** Moves the given state of the current order (the current or the kept one) to the next order. */
+    private void escalate(double[] state) {
+        int from = order;
+        if (order < maxOrder) {
+            sum = new double[++order + 1];
+            System.arraycopy(state, 0, sum, 0, order);
+        } else {
+            order = EXACT;
+            sum = new double[EXACT_BINS];
+            for (int i = 0; i <= maxOrder; i++) exactSum(sum, state[i]);
+        }
+        op = opOf(order);
+        escalations++;
+        if (order != EXACT) keep();
+        if (listener != null) listener.escalated(this, from, order);
+    }
+
+    static CompensatingSumOp opOf(int order) {
+        switch (order) {
+            case 0    : return StdOp.PLAIN;
+            case 1    : return StdOp.NEUMAIER;
+            case 2    : return StdOp.KLEIN;
+            case EXACT: return StdOp.EXACT;
+            default   : return StdOp.ITERATIVE_KB;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package ru.serge2nd;
+
+import java.nio.ByteBuffer;
+import java.util.function.DoubleConsumer;
+
+import static java.lang.Math.sqrt;
+import static ru.serge2nd.DoubleAlgs.neumaierSum;
+
+/**
+ * Accumulating the count, sum, mean and central moments (up to the 4th) of <code>double</code> values in one pass.
+ * The moments are updated in the Welford style (see the links below), each of the sum, the mean and the moments
+ * is kept as a compensating sum of {@link DoubleAlgs#neumaierSum(double[], double)},
+ * so the differences from the mean are precise even for a series of nearly the same values.
+ * The accumulators can be merged, so they are suitable for parallel streams and shards.
+ * @see <a href="https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance">Algorithms for calculating variance</a>
+ * @see <a href="https://doi.org/10.2172/1028931">
+ *     Pébay (2008). "Formulas for Robust, One-Pass Parallel Computation of Covariances and Arbitrary-Order Statistical Moments". Sandia Report SAND2008-6212</a>
+ */
+public class CompensatedStatistics implements DoubleConsumer {
+    /** The number of bytes {@link #writeTo(ByteBuffer)} writes. */
+    public static final int BYTES = Long.BYTES + 10 * Double.BYTES;
+
+    private long n;
+    private final double[] sum  = new double[2];
+    private final double[] mean = new double[2];
+    private final double[] m2   = new double[2];
+    private final double[] m3   = new double[2];
+    private final double[] m4   = new double[2];
+
+    public static CompensatedStatistics of(double... xs) {
+        return new CompensatedStatistics().addAll(xs, 0, xs.length);
+    }
+
+    @Override
+    public void accept(double x) {
+        long n1 = n++;
+        double delta   = x - mean[0] - mean[1];
+        double deltaN  = delta / n, deltaN2 = deltaN * deltaN;
+        double term1   = delta * deltaN * n1;
+        double m2 = get(this.m2), m3 = get(this.m3);
+
+        neumaierSum(sum, x);
+        neumaierSum(mean, deltaN);
+        neumaierSum(this.m4, term1 * deltaN2 * ((double)n * n - 3.0 * n + 3.0) + 6.0 * deltaN2 * m2 - 4.0 * deltaN * m3);
+        neumaierSum(this.m3, term1 * deltaN * (n - 2.0) - 3.0 * deltaN * m2);
+        neumaierSum(this.m2, term1);
+    }
+    public CompensatedStatistics add(double x) {
+        accept(x); return this;
+    }
+    /** Adds the values from the range {@code [from, to)} of {@code xs}. */
+    public CompensatedStatistics addAll(double[] xs, int from, int to) {
+        for (int i = from; i < to; i++) accept(xs[i]); return this;
+    }
+
+    /** Adds the values accumulated by another instance (the pairwise update of the moments). */
+    public CompensatedStatistics merge(CompensatedStatistics other) {
+        if (other.n == 0) return this;
+        if (this.n == 0) { copy(other); return this; }
+
+        double na = n, nb = other.n, nn = na + nb;
+        double delta = (other.mean[0] - mean[0]) + (other.mean[1] - mean[1]), delta2 = delta * delta;
+        double m2a = get(m2), m2b = get(other.m2), m3a = get(m3), m3b = get(other.m3);
+
+        neumaierSum(neumaierSum(sum, other.sum[0]), other.sum[1]);
+        neumaierSum(mean, delta * nb / nn);
+        neumaierSum(neumaierSum(m4, other.m4[0]), other.m4[1]);
+        neumaierSum(m4, delta2 * delta2 * na * nb * (na * na - na * nb + nb * nb) / (nn * nn * nn)
+                      + 6.0 * delta2 * (na * na * m2b + nb * nb * m2a) / (nn * nn)
+                      + 4.0 * delta * (na * m3b - nb * m3a) / nn);
+        neumaierSum(neumaierSum(m3, other.m3[0]), other.m3[1]);
+        neumaierSum(m3, delta2 * delta * na * nb * (na - nb) / (nn * nn) + 3.0 * delta * (na * m2b - nb * m2a) / nn);
+        neumaierSum(neumaierSum(m2, other.m2[0]), other.m2[1]);
+        neumaierSum(m2, delta2 * na * nb / nn);
+
+        n += other.n;
+        return this;
+    }
+
+    public long count()   { return n; }
+    public double sum()   { return get(sum); }
+    /** Get the mean or {@code NaN} if no values. */
+    public double mean()  { return n > 0 ? get(mean) : Double.NaN; }
+    /** Get the sample (unbiased) variance or {@code NaN} if less than two values. */
+    public double variance()           { return n > 1 ? get(m2) / (n - 1) : Double.NaN; }
+    /** Get the population variance or {@code NaN} if no values. */
+    public double populationVariance() { return n > 0 ? get(m2) / n : Double.NaN; }
+    /** Get the square root of the sample variance. */
+    public double standardDeviation()  { return sqrt(variance()); }
+    /** Get the population skewness (the 3rd standardized moment) or {@code NaN} if the variance is zero. */
+    public double skewness() {
+        double m2 = get(this.m2);
+        return m2 > 0 ? sqrt(n) * get(m3) / (m2 * sqrt(m2)) : Double.NaN;
+    }
+    /** Get the population excess kurtosis (the 4th standardized moment minus 3) or {@code NaN} if the variance is zero. */
+    public double kurtosis() {
+        double m2 = get(this.m2);
+        return m2 > 0 ? n * get(m4) / (m2 * m2) - 3.0 : Double.NaN;
+    }
+
+    /** Writes the count followed by the terms of the sum, the mean and the moments, the position of the buffer is advanced. */
+    public ByteBuffer writeTo(ByteBuffer buf) {
+        return put(put(put(put(put(buf.putLong(n), sum), mean), m2), m3), m4);
+    }
+    /**
+     * Reads the statistics written by {@link #writeTo(ByteBuffer)}, the position of the buffer is advanced.
+     * @throws IllegalArgumentException if the count is negative
+     */
+    public static CompensatedStatistics readFrom(ByteBuffer buf) {
+        CompensatedStatistics s = new CompensatedStatistics();
+        if ((s.n = buf.getLong()) < 0) throw new IllegalArgumentException("negative count: " + s.n);
+        get(buf, s.sum); get(buf, s.mean); get(buf, s.m2); get(buf, s.m3); get(buf, s.m4);
+        return s;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{count=" + n + ", sum=" + sum() + ", mean=" + mean() + ", variance=" + variance() + "}";
+    }
+
+    private void copy(CompensatedStatistics other) {
+        n = other.n;
+        System.arraycopy(other.sum , 0, sum , 0, 2);
+        System.arraycopy(other.mean, 0, mean, 0, 2);
+        System.arraycopy(other.m2  , 0, m2  , 0, 2);
+        System.arraycopy(other.m3  , 0, m3  , 0, 2);
+        System.arraycopy(other.m4  , 0, m4  , 0, 2);
+    }
+
+    static ByteBuffer put(ByteBuffer buf, double[] sum) { return buf.putDouble(sum[0]).putDouble(sum[1]); }
+    static void get(ByteBuffer buf, double[] sum)       { sum[0] = buf.getDouble(); sum[1] = buf.getDouble(); }
+
+    static double get(double[] sum) { return sum[0] + sum[1]; }
+
+    /**
+     * Accumulating the statistics of two series and the co-moment of the pairs of their values,
+     * giving the covariance and the correlation in one pass.
+     */
+    public static class Pairs {
+        /** The number of bytes {@link #writeTo(ByteBuffer)} writes. */
+        public static final int BYTES = 2 * CompensatedStatistics.BYTES + 2 * Double.BYTES;
+
+        private final CompensatedStatistics x = new CompensatedStatistics();
+        private final CompensatedStatistics y = new CompensatedStatistics();
+        private final double[] c = new double[2];
+
+        public static Pairs of(double[] xs, double[] ys) {
+            if (xs.length != ys.length) throw new IllegalArgumentException("different lengths: " + xs.length + ", " + ys.length);
+            Pairs p = new Pairs();
+            for (int i = 0; i < xs.length; i++) p.accept(xs[i], ys[i]);
+            return p;
+        }
+
+        public void accept(double x, double y) {
+            double dx = x - this.x.mean[0] - this.x.mean[1];
+            this.x.accept(x);
+            this.y.accept(y);
+            neumaierSum(c, dx * (y - this.y.mean[0] - this.y.mean[1]));
+        }
+        public Pairs add(double x, double y) {
+            accept(x, y); return this;
+        }
+
+        /** Adds the pairs accumulated by another instance. */
+        public Pairs merge(Pairs other) {
+            double na = x.n, nb = other.x.n, nn = na + nb;
+            if (nb == 0) return this;
+            double dx = (other.x.mean[0] - x.mean[0]) + (other.x.mean[1] - x.mean[1]);
+            double dy = (other.y.mean[0] - y.mean[0]) + (other.y.mean[1] - y.mean[1]);
+
+            neumaierSum(neumaierSum(c, other.c[0]), other.c[1]);
+            neumaierSum(c, dx * dy * na * nb / nn);
+            x.merge(other.x);
+            y.merge(other.y);
+            return this;
+        }
+
+        /** Writes the statistics of the two series followed by the terms of the co-moment, the position of the buffer is advanced. */
+        public ByteBuffer writeTo(ByteBuffer buf) {
+            return put(y.writeTo(x.writeTo(buf)), c);
+        }
+        /**
+         * Reads the pairs written by {@link #writeTo(ByteBuffer)}, the position of the buffer is advanced.
+         * @throws IllegalArgumentException if the counts are negative or differ
+         */
+        public static Pairs readFrom(ByteBuffer buf) {
+            Pairs p = new Pairs();
+            p.x.copy(CompensatedStatistics.readFrom(buf));
+            p.y.copy(CompensatedStatistics.readFrom(buf));
+            if (p.x.n != p.y.n) throw new IllegalArgumentException("different counts: " + p.x.n + ", " + p.y.n);
+            get(buf, p.c);
+            return p;
+        }
+
+        public CompensatedStatistics x() { return x; }
+        public CompensatedStatistics y() { return y; }
+        public long count()              { return x.n; }
+        /** Get the sample (unbiased) covariance or {@code NaN} if less than two pairs. */
+        public double covariance()           { return x.n > 1 ? get(c) / (x.n - 1) : Double.NaN; }
+        /** Get the population covariance or {@code NaN} if no pairs. */
+        public double populationCovariance() { return x.n > 0 ? get(c) / x.n : Double.NaN; }
+        /** Get the Pearson correlation coefficient. */
+        public double correlation()          { return get(c) / sqrt(get(x.m2) * get(y.m2)); }
+    }
+}
@@ -0,0 +1,159 @@
+package ru.serge2nd;
+
+import ru.serge2nd.DoubleSum.CompensatingSumOp;
+import ru.serge2nd.DoubleSum.StdOp;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+import static ru.serge2nd.DoubleAlgs.distill;
+import static ru.serge2nd.DoubleAlgs.roundedSum;
+
+/**
+ * Accumulating a sum of <code>double</code> values with compensation by many threads.
+ * Each thread adds to its own cell holding a compensating sum (see {@link DoubleSum}), so the updates take no locks and no CAS
+ * and the write throughput scales with the number of threads. The owner publishes the terms of the cell after each update
+ * with ordered writes guarded by a sequence number (a seqlock), the readers retry a cell caught in the middle of an update.
+ * The published state of a cell is padded to keep it off the cache lines of the neighbour cells.
+ * <br>
+ * The cell of a terminated thread is taken by the next thread coming to the sum, so the number of cells
+ * does not exceed the greatest number of the adding threads alive at the same time.
+ * A read concurrent with the updates is not an atomic snapshot of all cells.
+ */
+public class ConcurrentDoubleSum {
+    private final CompensatingSumOp op;
+    private final int order;
+    private final ThreadLocal<Cell> local = new ThreadLocal<>();
+    private volatile Cell[] cells = new Cell[0];
+    private volatile int epoch;
+
+    public ConcurrentDoubleSum() {
+        this(StdOp.KAHAN, 1);
+    }
+    public ConcurrentDoubleSum(CompensatingSumOp op, int compensationOrder) {
+        if (op == null || compensationOrder < 0) throw new IllegalArgumentException("null op or negative compensation order");
+        this.op = op;
+        this.order = compensationOrder;
+    }
+
+    public ConcurrentDoubleSum add(double x) {
+        Cell c = cell();
+        op.add(c.sum(epoch), x);
+        c.publish();
+        return this;
+    }
+    /** Adds the values from the range {@code [from, to)} of {@code xs} to the cell of the thread via {@link CompensatingSumOp#addAll(double[], double[], int, int)}. */
+    public ConcurrentDoubleSum addAll(double[] xs, int from, int to) {
+        Cell c = cell();
+        op.addAll(c.sum(epoch), xs, from, to);
+        c.publish();
+        return this;
+    }
+
+    /**
+     * Get the correctly rounded sum of the terms of all cells (the combine is error-free),
+     * see {@link CompensatingSumOp#term(double[], int)} and {@link DoubleAlgs#distill(double[], int, int, double[])}.
+     * If a term is not finite, returns the sum of the raw results of the cells.
+     * The cells of {@link StdOp#EXACT} are merged instead, see {@link DoubleSum#fine()}.
+     */
+    public double fine() {
+        if (op == StdOp.EXACT) return toDoubleSum().fine();
+        Cell[] cs = cells;
+        int len = order + 1, epoch = this.epoch;
+        double[] terms = new double[cs.length * len], sum = new double[len];
+        for (int i = 0; i < cs.length; i++) {
+            cs[i].copyTo(sum, epoch);
+            for (int j = 0; j < len; j++) terms[i * len + j] = op.term(sum, j);
+        }
+
+        double[] partials = new double[terms.length];
+        int n = distill(terms, 0, terms.length, partials);
+        if (n >= 0) return roundedSum(partials, n);
+
+        double s = 0.0;
+        for (int i = 0; i < terms.length; i += len) s += terms[i];
+        return s;
+    }
+    /** Merges the cells into a new {@link DoubleSum} via {@link CompensatingSumOp#merge(double[], double[])} in the cells order. */
+    public DoubleSum toDoubleSum() {
+        Cell[] cs = cells;
+        int epoch = this.epoch;
+        double[] sum = new double[order + 1], other = new double[order + 1];
+        for (Cell c : cs) op.merge(sum, c.copyTo(other, epoch));
+        return new DoubleSum(op, sum);
+    }
+    /**
+     * Resets the sum to zero: the cells of the previous epoch are read as zeros and cleared by their owners on the next update,
+     * so the updates concurrent with the reset may be lost or kept.
+     */
+    public synchronized void reset() { epoch++; }
+
+    private Cell cell() {
+        Cell c = local.get();
+        return c != null ? c : register();
+    }
+
+    private synchronized Cell register() {
+        Cell[] cs = cells;
+        Cell c = null;
+        for (Cell d : cs) if (!d.owner.isAlive()) { c = d; break; } // the termination of the owner happens before
+        if (c == null) {
+            Cell[] grown = copyOf(cs, cs.length + 1);
+            grown[cs.length] = c = new Cell(order);
+            cells = grown;
+        }
+        c.owner = Thread.currentThread();
+        local.set(c);
+        return c;
+    }
+
+    static final class Cell {
+        /** The number of longs padding the published state on each side (two cache lines for the adjacent line prefetch). */
+        static final int PAD = 16;
+        static final int SEQ = PAD, EPOCH = PAD + 1, TERMS = PAD + 2;
+
+        /** The working terms, touched by the owner only. */
+        final double[] sum;
+        /** The published sequence number (odd while updating), epoch and terms. */
+        final AtomicLongArray state;
+        Thread owner; // guarded by the lock of the sum
+        private long seq;
+        private int epoch;
+
+        Cell(int order) {
+            sum = new double[order + 1];
+            state = new AtomicLongArray(TERMS + sum.length + PAD);
+        }
+
+        /** Get the working terms (cleared first if the sum was reset), for the owner only. */
+        double[] sum(int epoch) {
+            if (this.epoch != epoch) { fill(sum, 0.0); this.epoch = epoch; }
+            return sum;
+        }
+        /** Publishes the working terms, for the owner only. */
+        void publish() {
+            AtomicLongArray st = state;
+            st.lazySet(SEQ, ++seq);
+            st.lazySet(EPOCH, epoch);
+            for (int i = 0; i < sum.length; i++) st.lazySet(TERMS + i, doubleToRawLongBits(sum[i]));
+            st.lazySet(SEQ, ++seq);
+        }
+
+        /** Reads the published terms or zeros if they are of another epoch. */
+        double[] copyTo(double[] dest, int epoch) {
+            AtomicLongArray st = state;
+            for (;;) {
+                long seq = st.get(SEQ);
+                if ((seq & 1L) == 0L) {
+                    boolean current = st.get(EPOCH) == epoch;
+                    for (int i = 0; i < dest.length; i++) dest[i] = current ? longBitsToDouble(st.get(TERMS + i)) : 0.0;
+                    if (st.get(SEQ) == seq) return dest;
+                }
+                Thread.yield();
+            }
+        }
+    }
+}
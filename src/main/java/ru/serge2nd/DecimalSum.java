@@ -0,0 +1,76 @@
+package ru.serge2nd;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+/**
+ * Accumulating a sum of fixed-point decimals of the given scale exactly, the values are added as unscaled longs
+ * (e.g. cents for the scale of 2) into a {@link LongSum}, so no overflow and no allocations happen on the adds.
+ * The result is converted to {@link BigDecimal} only on demand.
+ */
+public class DecimalSum {
+    /** The number of bytes {@link #writeTo(ByteBuffer)} writes. */
+    public static final int BYTES = Integer.BYTES + LongSum.BYTES;
+
+    private final int scale;
+    private final LongSum units = new LongSum();
+
+    /** Creates the sum of the unscaled values of the given scale. */
+    public static DecimalSum of(int scale, long... unscaled) {
+        return new DecimalSum(scale).addAllUnscaled(unscaled, 0, unscaled.length);
+    }
+
+    /** @param scale number of the decimal digits after the point (may be negative as of {@link BigDecimal#scale()}) */
+    public DecimalSum(int scale) { this.scale = scale; }
+
+    /** Adds the value {@code unscaled * 10^-scale}. */
+    public DecimalSum addUnscaled(long unscaled) {
+        units.add(unscaled); return this;
+    }
+    /** Adds the unscaled values from the range {@code [from, to)} of {@code xs} via {@link LongSum#addAll(long[], int, int)}. */
+    public DecimalSum addAllUnscaled(long[] xs, int from, int to) {
+        units.addAll(xs, from, to); return this;
+    }
+    /**
+     * Adds the value exactly.
+     * @throws ArithmeticException if the value has more digits after the point than the scale or its unscaled value does not fit a <code>long</code>
+     */
+    public DecimalSum add(BigDecimal x) {
+        units.add(x.setScale(scale).unscaledValue().longValueExact()); return this;
+    }
+    /**
+     * Adds the sum accumulated by another instance.
+     * @throws IllegalArgumentException if the scales differ
+     */
+    public DecimalSum merge(DecimalSum other) {
+        if (other.scale != scale) throw new IllegalArgumentException("different scales: " + scale + ", " + other.scale);
+        units.merge(other.units); return this;
+    }
+
+    public int scale() { return scale; }
+    /** Get the sum of the unscaled values. */
+    public LongSum unscaled() { return units; }
+    /** Get the exact sum. */
+    public BigDecimal toBigDecimal() { return new BigDecimal(units.toBigInteger(), scale); }
+
+    /** Writes the scale followed by the sum of the unscaled values, the position of the buffer is advanced. */
+    public ByteBuffer writeTo(ByteBuffer buf) { return units.writeTo(buf.putInt(scale)); }
+    /** Reads the sum written by {@link #writeTo(ByteBuffer)}, the position of the buffer is advanced. */
+    public static DecimalSum readFrom(ByteBuffer buf) {
+        DecimalSum s = new DecimalSum(buf.getInt());
+        s.units.add128(buf.getLong(), buf.getLong());
+        return s;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DecimalSum)) return false;
+        DecimalSum s = (DecimalSum)o;
+        return scale == s.scale && units.equals(s.units);
+    }
+    @Override
+    public int hashCode() { return 31 * units.hashCode() + scale; }
+    @Override
+    public String toString() { return toBigDecimal().toPlainString(); }
+}
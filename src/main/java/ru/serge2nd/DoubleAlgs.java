@@ -1,12 +1,37 @@
 package ru.serge2nd;
 
+import ru.serge2nd.DoubleSum.CompensatingSumOp;
+import ru.serge2nd.DoubleSum.StdOp;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.MAX_EXPONENT;
+import static java.lang.Double.MIN_NORMAL;
+import static java.lang.Double.isFinite;
+import static java.lang.Math.IEEEremainder;
 import static java.lang.Math.abs;
+import static java.lang.Math.getExponent;
+import static java.lang.Math.min;
+import static java.lang.Math.scalb;
+import static java.lang.Math.sqrt;
 import static java.lang.invoke.MethodHandles.lookup;
 import static ru.serge2nd.ObjectAssist.errNotInstantiable;
 
 public class DoubleAlgs {
     private DoubleAlgs() { throw errNotInstantiable(lookup()); }
 
+    /**
+     * The system property to turn off ({@code false}) the Vector API kernels used by
+     * {@link #plainSum(double[], double[], int, int)}, {@link #kahanSum(double[], double[], int, int)}
+     * and {@link #neumaierSum(double[], double[], int, int)} on Java 21+ with the {@code jdk.incubator.vector} module.
+     */
+    public static final String P_VECTORIZED = "doubleAlgsVectorized";
+
     /**
      * Just increments {@code sum[0]} by {@code x}.
      * @param sum at least 1-element array (only 1st element is to change)
@@ -63,4 +88,745 @@ public class DoubleAlgs {
             : (x - aSum) + sum[i]; // recover sum part
         sum[i] = aSum; return c;
     }
+
+    //region Bulk summation kernels
+
+    /**
+     * Same as {@link #plainSum(double[], double[], int, int) plainSum(new double[1], xs, from, to)[0]}.
+     */
+    public static double plainSum(double[] xs, int from, int to) { return plainSum(new double[1], xs, from, to)[0]; }
+
+    /**
+     * Returns {@code sum[0] - sum[1]} (the second element is the negated compensation) of
+     * {@link #kahanSum(double[], double[], int, int) kahanSum(new double[2], xs, from, to)}.
+     */
+    public static double kahanSum(double[] xs, int from, int to) {
+        double[] sum = kahanSum(new double[2], xs, from, to);
+        return sum[0] - sum[1];
+    }
+
+    /**
+     * Returns the total of {@link #neumaierSum(double[], double[], int, int) neumaierSum(new double[2], xs, from, to)}.
+     */
+    public static double neumaierSum(double[] xs, int from, int to) {
+        double[] sum = neumaierSum(new double[2], xs, from, to);
+        return sum[0] + sum[1];
+    }
+
+    /**
+     * Returns the total of {@link #kleinSum(double[], double[], int, int) kleinSum(new double[3], xs, from, to)}.
+     */
+    public static double kleinSum(double[] xs, int from, int to) {
+        double[] sum = kleinSum(new double[3], xs, from, to);
+        return sum[0] + (sum[1] + sum[2]);
+    }
+
+    /**
+     * Returns the total of {@link #iterativeKBSum(double[], double[], int, int, int) iterativeKBSum(new double[order + 1], xs, from, to, order)}.
+     */
+    public static double iterativeKBSum(double[] xs, int from, int to, int order) {
+        double[] sum = iterativeKBSum(new double[order + 1], xs, from, to, order);
+        double s = sum[order];
+        for (int i = order - 1; i >= 0; i--) s += sum[i];
+        return s;
+    }
+
+    /**
+     * Adds the values from the range {@code [from, to)} of {@code xs} to {@code sum[0]}
+     * using {@value #WIDE_LANES} independent accumulators.
+     * The value {@code xs[from + k]} goes to the lane {@code k % }{@value #WIDE_LANES} (the rest values after the last
+     * full row of the lanes are added after the lanes), that layout is shared with the SIMD kernels,
+     * so the result is the same bits whether they are used or not.
+     * @param sum at least 1-element array (only 1st element is to change)
+     * @param xs values to add
+     * @param from start index (inclusive)
+     * @param to end index (exclusive)
+     * @return the first arg
+     */
+    public static double[] plainSum(double[] sum, double[] xs, int from, int to) {
+        return SIMD && to - from >= SIMD_THRESHOLD ? SimdSums.plainSum(sum, xs, from, to) : plainLanes(sum, xs, from, to);
+    }
+    /** The scalar kernel of {@link #plainSum(double[], double[], int, int)}. */
+    static double[] plainLanes(double[] sum, double[] xs, int from, int to) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0, s4 = 0.0, s5 = 0.0, s6 = 0.0, s7 = 0.0,
+               s8 = 0.0, s9 = 0.0, s10 = 0.0, s11 = 0.0, s12 = 0.0, s13 = 0.0, s14 = 0.0, s15 = 0.0;
+        int i = from;
+        for (int n = to - WIDE_LANES + 1; i < n; i += WIDE_LANES) {
+            s0 += xs[i];         s1 += xs[i + 1];     s2 += xs[i + 2];     s3 += xs[i + 3];
+            s4 += xs[i + 4];     s5 += xs[i + 5];     s6 += xs[i + 6];     s7 += xs[i + 7];
+            s8 += xs[i + 8];     s9 += xs[i + 9];     s10 += xs[i + 10];   s11 += xs[i + 11];
+            s12 += xs[i + 12];   s13 += xs[i + 13];   s14 += xs[i + 14];   s15 += xs[i + 15];
+        }
+        double total = 0.0 + s0 + s1 + s2 + s3 + s4 + s5 + s6 + s7
+                         + s8 + s9 + s10 + s11 + s12 + s13 + s14 + s15; // in the lanes order
+        for (int k = i; k < to; k++) total += xs[k];
+
+        sum[0] += total;
+        return sum;
+    }
+
+    /**
+     * Performs the <i>Kahan summation</i> of the values from the range {@code [from, to)} of {@code xs}.
+     * The running sums and compensations of {@value #WIDE_LANES} independent lanes (laid out as of {@link #plainSum(double[], double[], int, int)})
+     * are kept in locals and folded into {@code sum} via {@link #kahanSum(double[], double)} at the end, followed by the rest values.
+     * @param sum at least 2-element array (only 1st and 2nd element are to change)
+     * @param xs values to add
+     * @param from start index (inclusive)
+     * @param to end index (exclusive)
+     * @return the first arg
+     */
+    public static double[] kahanSum(double[] sum, double[] xs, int from, int to) {
+        return SIMD && to - from >= SIMD_THRESHOLD ? SimdSums.kahanSum(sum, xs, from, to) : kahanLanes(sum, xs, from, to);
+    }
+    /** The scalar kernel of {@link #kahanSum(double[], double[], int, int)}. */
+    static double[] kahanLanes(double[] sum, double[] xs, int from, int to) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0, s4 = 0.0, s5 = 0.0, s6 = 0.0, s7 = 0.0,
+               s8 = 0.0, s9 = 0.0, s10 = 0.0, s11 = 0.0, s12 = 0.0, s13 = 0.0, s14 = 0.0, s15 = 0.0;
+        double c0 = 0.0, c1 = 0.0, c2 = 0.0, c3 = 0.0, c4 = 0.0, c5 = 0.0, c6 = 0.0, c7 = 0.0,
+               c8 = 0.0, c9 = 0.0, c10 = 0.0, c11 = 0.0, c12 = 0.0, c13 = 0.0, c14 = 0.0, c15 = 0.0;
+        int i = from;
+        for (int n = to - WIDE_LANES + 1; i < n; i += WIDE_LANES) {
+            double x0 = xs[i] - c0, t0 = s0 + x0; c0 = (t0 - s0) - x0; s0 = t0;
+            double x1 = xs[i + 1] - c1, t1 = s1 + x1; c1 = (t1 - s1) - x1; s1 = t1;
+            double x2 = xs[i + 2] - c2, t2 = s2 + x2; c2 = (t2 - s2) - x2; s2 = t2;
+            double x3 = xs[i + 3] - c3, t3 = s3 + x3; c3 = (t3 - s3) - x3; s3 = t3;
+            double x4 = xs[i + 4] - c4, t4 = s4 + x4; c4 = (t4 - s4) - x4; s4 = t4;
+            double x5 = xs[i + 5] - c5, t5 = s5 + x5; c5 = (t5 - s5) - x5; s5 = t5;
+            double x6 = xs[i + 6] - c6, t6 = s6 + x6; c6 = (t6 - s6) - x6; s6 = t6;
+            double x7 = xs[i + 7] - c7, t7 = s7 + x7; c7 = (t7 - s7) - x7; s7 = t7;
+            double x8 = xs[i + 8] - c8, t8 = s8 + x8; c8 = (t8 - s8) - x8; s8 = t8;
+            double x9 = xs[i + 9] - c9, t9 = s9 + x9; c9 = (t9 - s9) - x9; s9 = t9;
+            double x10 = xs[i + 10] - c10, t10 = s10 + x10; c10 = (t10 - s10) - x10; s10 = t10;
+            double x11 = xs[i + 11] - c11, t11 = s11 + x11; c11 = (t11 - s11) - x11; s11 = t11;
+            double x12 = xs[i + 12] - c12, t12 = s12 + x12; c12 = (t12 - s12) - x12; s12 = t12;
+            double x13 = xs[i + 13] - c13, t13 = s13 + x13; c13 = (t13 - s13) - x13; s13 = t13;
+            double x14 = xs[i + 14] - c14, t14 = s14 + x14; c14 = (t14 - s14) - x14; s14 = t14;
+            double x15 = xs[i + 15] - c15, t15 = s15 + x15; c15 = (t15 - s15) - x15; s15 = t15;
+        }
+        double total = 0.0 + s0 + s1 + s2 + s3 + s4 + s5 + s6 + s7
+                         + s8 + s9 + s10 + s11 + s12 + s13 + s14 + s15; // in the lanes order
+        for (int k = i; k < to; k++) total += xs[k];
+
+        if (!isFinite(total)) return plainSum(sum, total); // no compensation for non-finite
+        kahanSum(sum, s0); kahanSum(sum, s1); kahanSum(sum, s2); kahanSum(sum, s3);
+        kahanSum(sum, s4); kahanSum(sum, s5); kahanSum(sum, s6); kahanSum(sum, s7);
+        kahanSum(sum, s8); kahanSum(sum, s9); kahanSum(sum, s10); kahanSum(sum, s11);
+        kahanSum(sum, s12); kahanSum(sum, s13); kahanSum(sum, s14); kahanSum(sum, s15);
+        kahanSum(sum, -c0); kahanSum(sum, -c1); kahanSum(sum, -c2); kahanSum(sum, -c3);
+        kahanSum(sum, -c4); kahanSum(sum, -c5); kahanSum(sum, -c6); kahanSum(sum, -c7);
+        kahanSum(sum, -c8); kahanSum(sum, -c9); kahanSum(sum, -c10); kahanSum(sum, -c11);
+        kahanSum(sum, -c12); kahanSum(sum, -c13); kahanSum(sum, -c14); kahanSum(sum, -c15);
+        for (; i < to; i++) kahanSum(sum, xs[i]);
+        return sum;
+    }
+
+    /**
+     * Same as {@link #iterativeKBSum(double[], double[], int, int, int) iterativeKBSum(sum, xs, from, to, 1)},
+     * the lanes are laid out as of {@link #plainSum(double[], double[], int, int)}.
+     */
+    public static double[] neumaierSum(double[] sum, double[] xs, int from, int to) {
+        return SIMD && to - from >= SIMD_THRESHOLD ? SimdSums.neumaierSum(sum, xs, from, to) : neumaierLanes(sum, xs, from, to);
+    }
+    /** The scalar kernel of {@link #neumaierSum(double[], double[], int, int)}. */
+    static double[] neumaierLanes(double[] sum, double[] xs, int from, int to) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0, s4 = 0.0, s5 = 0.0, s6 = 0.0, s7 = 0.0,
+               s8 = 0.0, s9 = 0.0, s10 = 0.0, s11 = 0.0, s12 = 0.0, s13 = 0.0, s14 = 0.0, s15 = 0.0;
+        double c0 = 0.0, c1 = 0.0, c2 = 0.0, c3 = 0.0, c4 = 0.0, c5 = 0.0, c6 = 0.0, c7 = 0.0,
+               c8 = 0.0, c9 = 0.0, c10 = 0.0, c11 = 0.0, c12 = 0.0, c13 = 0.0, c14 = 0.0, c15 = 0.0;
+        int i = from;
+        for (int n = to - WIDE_LANES + 1; i < n; i += WIDE_LANES) {
+            double x0 = xs[i], t0 = s0 + x0; c0 += abs(s0) >= abs(x0) ? (s0 - t0) + x0 : (x0 - t0) + s0; s0 = t0;
+            double x1 = xs[i + 1], t1 = s1 + x1; c1 += abs(s1) >= abs(x1) ? (s1 - t1) + x1 : (x1 - t1) + s1; s1 = t1;
+            double x2 = xs[i + 2], t2 = s2 + x2; c2 += abs(s2) >= abs(x2) ? (s2 - t2) + x2 : (x2 - t2) + s2; s2 = t2;
+            double x3 = xs[i + 3], t3 = s3 + x3; c3 += abs(s3) >= abs(x3) ? (s3 - t3) + x3 : (x3 - t3) + s3; s3 = t3;
+            double x4 = xs[i + 4], t4 = s4 + x4; c4 += abs(s4) >= abs(x4) ? (s4 - t4) + x4 : (x4 - t4) + s4; s4 = t4;
+            double x5 = xs[i + 5], t5 = s5 + x5; c5 += abs(s5) >= abs(x5) ? (s5 - t5) + x5 : (x5 - t5) + s5; s5 = t5;
+            double x6 = xs[i + 6], t6 = s6 + x6; c6 += abs(s6) >= abs(x6) ? (s6 - t6) + x6 : (x6 - t6) + s6; s6 = t6;
+            double x7 = xs[i + 7], t7 = s7 + x7; c7 += abs(s7) >= abs(x7) ? (s7 - t7) + x7 : (x7 - t7) + s7; s7 = t7;
+            double x8 = xs[i + 8], t8 = s8 + x8; c8 += abs(s8) >= abs(x8) ? (s8 - t8) + x8 : (x8 - t8) + s8; s8 = t8;
+            double x9 = xs[i + 9], t9 = s9 + x9; c9 += abs(s9) >= abs(x9) ? (s9 - t9) + x9 : (x9 - t9) + s9; s9 = t9;
+            double x10 = xs[i + 10], t10 = s10 + x10; c10 += abs(s10) >= abs(x10) ? (s10 - t10) + x10 : (x10 - t10) + s10; s10 = t10;
+            double x11 = xs[i + 11], t11 = s11 + x11; c11 += abs(s11) >= abs(x11) ? (s11 - t11) + x11 : (x11 - t11) + s11; s11 = t11;
+            double x12 = xs[i + 12], t12 = s12 + x12; c12 += abs(s12) >= abs(x12) ? (s12 - t12) + x12 : (x12 - t12) + s12; s12 = t12;
+            double x13 = xs[i + 13], t13 = s13 + x13; c13 += abs(s13) >= abs(x13) ? (s13 - t13) + x13 : (x13 - t13) + s13; s13 = t13;
+            double x14 = xs[i + 14], t14 = s14 + x14; c14 += abs(s14) >= abs(x14) ? (s14 - t14) + x14 : (x14 - t14) + s14; s14 = t14;
+            double x15 = xs[i + 15], t15 = s15 + x15; c15 += abs(s15) >= abs(x15) ? (s15 - t15) + x15 : (x15 - t15) + s15; s15 = t15;
+        }
+        double total = 0.0 + s0 + s1 + s2 + s3 + s4 + s5 + s6 + s7
+                         + s8 + s9 + s10 + s11 + s12 + s13 + s14 + s15; // in the lanes order
+        for (int k = i; k < to; k++) total += xs[k];
+
+        if (!isFinite(total)) return plainSum(sum, total); // no compensation for non-finite
+        neumaierSum(sum, s0); neumaierSum(sum, s1); neumaierSum(sum, s2); neumaierSum(sum, s3);
+        neumaierSum(sum, s4); neumaierSum(sum, s5); neumaierSum(sum, s6); neumaierSum(sum, s7);
+        neumaierSum(sum, s8); neumaierSum(sum, s9); neumaierSum(sum, s10); neumaierSum(sum, s11);
+        neumaierSum(sum, s12); neumaierSum(sum, s13); neumaierSum(sum, s14); neumaierSum(sum, s15);
+        neumaierSum(sum, c0); neumaierSum(sum, c1); neumaierSum(sum, c2); neumaierSum(sum, c3);
+        neumaierSum(sum, c4); neumaierSum(sum, c5); neumaierSum(sum, c6); neumaierSum(sum, c7);
+        neumaierSum(sum, c8); neumaierSum(sum, c9); neumaierSum(sum, c10); neumaierSum(sum, c11);
+        neumaierSum(sum, c12); neumaierSum(sum, c13); neumaierSum(sum, c14); neumaierSum(sum, c15);
+        for (; i < to; i++) neumaierSum(sum, xs[i]);
+        return sum;
+    }
+
+    /**
+     * Same as {@link #iterativeKBSum(double[], double[], int, int, int) iterativeKBSum(sum, xs, from, to, 2)}
+     */
+    public static double[] kleinSum(double[] sum, double[] xs, int from, int to) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        double c0 = 0.0, c1 = 0.0, c2 = 0.0, c3 = 0.0;
+        double cc0 = 0.0, cc1 = 0.0, cc2 = 0.0, cc3 = 0.0;
+        int i = from;
+        for (int n = to - LANES + 1; i < n; i += LANES) {
+            double x0 = xs[i], x1 = xs[i + 1], x2 = xs[i + 2], x3 = xs[i + 3];
+            double t0 = s0 + x0, t1 = s1 + x1, t2 = s2 + x2, t3 = s3 + x3;
+            x0 = abs(s0) >= abs(x0) ? (s0 - t0) + x0 : (x0 - t0) + s0;
+            x1 = abs(s1) >= abs(x1) ? (s1 - t1) + x1 : (x1 - t1) + s1;
+            x2 = abs(s2) >= abs(x2) ? (s2 - t2) + x2 : (x2 - t2) + s2;
+            x3 = abs(s3) >= abs(x3) ? (s3 - t3) + x3 : (x3 - t3) + s3;
+            s0 = t0; s1 = t1; s2 = t2; s3 = t3;
+            t0 = c0 + x0; t1 = c1 + x1; t2 = c2 + x2; t3 = c3 + x3;
+            cc0 += abs(c0) >= abs(x0) ? (c0 - t0) + x0 : (x0 - t0) + c0;
+            cc1 += abs(c1) >= abs(x1) ? (c1 - t1) + x1 : (x1 - t1) + c1;
+            cc2 += abs(c2) >= abs(x2) ? (c2 - t2) + x2 : (x2 - t2) + c2;
+            cc3 += abs(c3) >= abs(x3) ? (c3 - t3) + x3 : (x3 - t3) + c3;
+            c0 = t0; c1 = t1; c2 = t2; c3 = t3;
+        }
+        for (; i < to; i++) {
+            double x0 = xs[i], t0 = s0 + x0;
+            x0 = abs(s0) >= abs(x0) ? (s0 - t0) + x0 : (x0 - t0) + s0;
+            s0 = t0; t0 = c0 + x0;
+            cc0 += abs(c0) >= abs(x0) ? (c0 - t0) + x0 : (x0 - t0) + c0;
+            c0 = t0;
+        }
+
+        if (!isFinite(s0 + s1 + s2 + s3)) return plainSum(sum, (s0 + s1) + (s2 + s3)); // no compensation for non-finite
+        kleinSum(sum, s0); kleinSum(sum, s1); kleinSum(sum, s2); kleinSum(sum, s3);
+        kleinSum(sum, c0); kleinSum(sum, c1); kleinSum(sum, c2); kleinSum(sum, c3);
+        kleinSum(sum, cc0); kleinSum(sum, cc1); kleinSum(sum, cc2); kleinSum(sum, cc3);
+        return sum;
+    }
+
+    /**
+     * Adds the values from the range {@code [from, to)} of {@code xs} to the compensating sum.
+     * The orders up to 2 are delegated to the specialized kernels keeping the state in locals,
+     * the higher orders are summed by {@link #iterativeKBSum(double[], double, int)} value by value.
+     * @param sum array holding at least {@code order + 1} values (only these first values will be changed)
+     * @param xs values to add
+     * @param from start index (inclusive)
+     * @param to end index (exclusive)
+     * @param order compensation order (number of compensating values)
+     * @return the first arg
+     */
+    public static double[] iterativeKBSum(double[] sum, double[] xs, int from, int to, int order) {
+        switch (order) {
+            case 0: return plainSum(sum, xs, from, to);
+            case 1: return neumaierSum(sum, xs, from, to);
+            case 2: return kleinSum(sum, xs, from, to);
+        }
+        for (int i = from; i < to; i++)
+            iterativeKBSum(sum, xs[i], order);
+        return sum;
+    }
+
+    /** The number of independent accumulators used by the bulk summation kernels. */
+    public static final int LANES = 4;
+    /**
+     * The number of independent accumulators of the plain, Kahan and Neumaier bulk kernels,
+     * the same for the scalar and the SIMD kernels.
+     */
+    public static final int WIDE_LANES = 16;
+    /** Whether the SIMD kernels are available (see {@link #P_VECTORIZED}). */
+    static final boolean SIMD           = SimdSums.enabled();
+    /** The minimum number of values to pass to the SIMD kernels if they are available. */
+    static final int     SIMD_THRESHOLD = 64;
+    //endregion
+
+    //region Parallel summation
+
+    /**
+     * Same as {@link #parallelSum(double[], int, int, CompensatingSumOp, int) parallelSum(xs, 0, xs.length, op, order)}.
+     */
+    public static DoubleSum parallelSum(double[] xs, CompensatingSumOp op, int order) {
+        return parallelSum(xs, 0, xs.length, op, order);
+    }
+
+    /**
+     * Sums the values from the range {@code [from, to)} of {@code xs} in the {@link ForkJoinPool}
+     * (the common pool unless called within another pool).
+     * The range is halved till the blocks of at most {@value #PARALLEL_BLOCK} values,
+     * each block is summed via {@link CompensatingSumOp#addAll(double[], double[], int, int)}
+     * and the states of the halves are combined via {@link CompensatingSumOp#merge(double[], double[])}.
+     * As the reduction tree depends on the range length only,
+     * the result is the same for any parallelism or scheduling.
+     * @param xs values to add
+     * @param from start index (inclusive)
+     * @param to end index (exclusive)
+     * @param op compensating operation
+     * @param order compensation order (number of compensating values)
+     * @return the sum holding the combined state
+     */
+    public static DoubleSum parallelSum(double[] xs, int from, int to, CompensatingSumOp op, int order) {
+        if (op == null || order < 0) throw new IllegalArgumentException("null op or negative compensation order");
+        if (op instanceof StdOp && !((StdOp)op).supports(order)) throw new IllegalArgumentException("compensation order " + order + " not supported by " + op);
+        return new DoubleSum(op, new ParallelSum(xs, from, to, op, order).invoke());
+    }
+
+    /** The maximum number of values summed sequentially by {@link #parallelSum(double[], int, int, CompensatingSumOp, int)}. */
+    public static final int PARALLEL_BLOCK = 1 << 13;
+
+    static final class ParallelSum extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        final double[] xs; final int from, to;
+        final CompensatingSumOp op; final int order;
+        ParallelSum(double[] xs, int from, int to, CompensatingSumOp op, int order) {
+            this.xs = xs; this.from = from; this.to = to;
+            this.op = op; this.order = order;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= PARALLEL_BLOCK)
+                return op.addAll(new double[order + 1], xs, from, to);
+
+            int mid = (from + to) >>> 1;
+            ParallelSum left = new ParallelSum(xs, from, mid, op, order);
+            left.fork();
+            double[] right = new ParallelSum(xs, mid, to, op, order).compute();
+            return op.merge(left.join(), right);
+        }
+    }
+    //endregion
+
+    //region Prefix sums
+
+    /**
+     * Writes the running sums of {@code in} to {@code out}: {@code out[i]} is the total of
+     * {@link #iterativeKBSum(double[], double, int) iterativeKBSum(sum, in[j], order)} for all {@code j <= i},
+     * so the compensation is carried through the scan. No allocations except the state of {@code order + 1} values.
+     * @param in values to add
+     * @param out destination of at least {@code in.length} length, may be {@code in}
+     * @param order compensation order (0 is the plain running sum)
+     * @return {@code out}
+     */
+    public static double[] prefixSum(double[] in, double[] out, int order) {
+        checkPrefixSum(in, out, order);
+        scan(in, out, 0, in.length, new double[order + 1], order);
+        return out;
+    }
+
+    /**
+     * Does the same as {@link #prefixSum(double[], double[], int)} in the {@link ForkJoinPool} (the common pool unless called within another pool).
+     * The array is split into the blocks of {@value #PARALLEL_BLOCK} values, the first pass sums the blocks via
+     * {@link #iterativeKBSum(double[], double[], int, int, int)}, the states are scanned into the block offsets
+     * (merging the terms as of {@link CompensatingSumOp#merge(double[], double[])}),
+     * and the second pass scans each block starting from the compensated state of its offset.
+     * As the blocks depend on the array length only, the result is the same for any parallelism.
+     * It may differ from the sequential one in the last bit.
+     * @see #prefixSum(double[], double[], int)
+     */
+    public static double[] parallelPrefixSum(double[] in, double[] out, int order) {
+        checkPrefixSum(in, out, order);
+        int n = in.length, blocks = (n + PARALLEL_BLOCK - 1) / PARALLEL_BLOCK;
+        if (blocks <= 2) return prefixSum(in, out, order);
+
+        double[][] states = new double[blocks][];
+        new Blocks(0, blocks, b -> states[b] = iterativeKBSum(new double[order + 1], in, b * PARALLEL_BLOCK, (int)min(n, (b + 1L) * PARALLEL_BLOCK), order)).invoke();
+
+        double[] running = new double[order + 1];
+        for (int b = 0; b < blocks; b++) {
+            double[] state = states[b];
+            states[b] = running.clone();
+            for (int i = order; i >= 0; i--) iterativeKBSum(running, state[i], order);
+        }
+
+        new Blocks(0, blocks, b -> scan(in, out, b * PARALLEL_BLOCK, (int)min(n, (b + 1L) * PARALLEL_BLOCK), states[b], order)).invoke();
+        return out;
+    }
+
+    static void scan(double[] in, double[] out, int from, int to, double[] sum, int order) {
+        if (order == 0) {
+            double s = sum[0];
+            for (int i = from; i < to; i++) out[i] = s += in[i];
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            iterativeKBSum(sum, in[i], order);
+            double s = sum[order];
+            for (int j = order - 1; j >= 0; j--) s += sum[j];
+            out[i] = s;
+        }
+    }
+
+    static void checkPrefixSum(double[] in, double[] out, int order) {
+        if (order < 0) throw new IllegalArgumentException("negative compensation order");
+        if (out.length < in.length) throw new IllegalArgumentException("output shorter than input: " + out.length + " < " + in.length);
+    }
+
+    /** Runs the body for each block of the range {@code [from, to)}. */
+    static final class Blocks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final int from, to; final IntConsumer body;
+        Blocks(int from, int to, IntConsumer body) { this.from = from; this.to = to; this.body = body; }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) { body.accept(from); return; }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Blocks(from, mid, body), new Blocks(mid, to, body));
+        }
+    }
+    //endregion
+
+    //region Dot products
+
+    /**
+     * Same as {@link #dot(double[], double[], int, int) dot(a, b, 0, a.length)}.
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public static double dot(double[] a, double[] b) {
+        if (a.length != b.length) throw new IllegalArgumentException("different lengths: " + a.length + ", " + b.length);
+        return dot(a, b, 0, a.length);
+    }
+
+    /**
+     * Computes the dot product of the ranges {@code [from, to)} of {@code a} and {@code b}
+     * as if in twice the working precision and rounds it to double (the <i>Dot2</i> algorithm).
+     * The products are split error-free via {@link TwoProduct} and accumulated with <i>TwoSum</i>
+     * in {@value #LANES} independent lanes, the lanes are folded error-free at the end.
+     * @param a first vector
+     * @param b second vector
+     * @param from start index (inclusive)
+     * @param to end index (exclusive)
+     * @return the dot product, the naive one if an intermediate value is not finite
+     * @see <a href="https://doi.org/10.1137/030601818">
+     *     Ogita, Rump, Oishi (2005). "Accurate Sum and Dot Product". SIAM Journal on Scientific Computing. 26 (6): 1955–1988</a>
+     */
+    public static double dot(double[] a, double[] b, int from, int to) {
+        return dot2(new double[2], a, from, b, from, to - from)[0];
+    }
+    /**
+     * The unrounded {@link #dot(double[], double[], int, int)} of {@code n} values from {@code ai} of {@code a} and {@code bi} of {@code b}
+     * as the double-double number {@code dd[0] + dd[1]} (the naive result and zero if an intermediate value is not finite).
+     */
+    static double[] dot2(double[] dd, double[] a, int ai, double[] b, int bi, int n) {
+        double p0 = 0.0, p1 = 0.0, p2 = 0.0, p3 = 0.0;
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = 0;
+        for (int m = n - LANES + 1; i < m; i += LANES) {
+            double x0 = a[ai + i], x1 = a[ai + i + 1], x2 = a[ai + i + 2], x3 = a[ai + i + 3];
+            double y0 = b[bi + i], y1 = b[bi + i + 1], y2 = b[bi + i + 2], y3 = b[bi + i + 3];
+            double h0 = x0 * y0, h1 = x1 * y1, h2 = x2 * y2, h3 = x3 * y3;
+            double r0 = TwoProduct.err(x0, y0, h0), r1 = TwoProduct.err(x1, y1, h1);
+            double r2 = TwoProduct.err(x2, y2, h2), r3 = TwoProduct.err(x3, y3, h3);
+            double t0 = p0 + h0, t1 = p1 + h1, t2 = p2 + h2, t3 = p3 + h3;
+            double e0 = t0 - p0, e1 = t1 - p1, e2 = t2 - p2, e3 = t3 - p3;
+            s0 += ((p0 - (t0 - e0)) + (h0 - e0)) + r0; s1 += ((p1 - (t1 - e1)) + (h1 - e1)) + r1;
+            s2 += ((p2 - (t2 - e2)) + (h2 - e2)) + r2; s3 += ((p3 - (t3 - e3)) + (h3 - e3)) + r3;
+            p0 = t0; p1 = t1; p2 = t2; p3 = t3;
+        }
+        for (; i < n; i++) {
+            double x0 = a[ai + i], y0 = b[bi + i], h0 = x0 * y0, r0 = TwoProduct.err(x0, y0, h0);
+            double t0 = p0 + h0, e0 = t0 - p0;
+            s0 += ((p0 - (t0 - e0)) + (h0 - e0)) + r0; p0 = t0;
+        }
+        return foldLanes(dd, p0, p1, p2, p3, s0 + s1 + s2 + s3);
+    }
+
+    /**
+     * Same as {@link #sumOfSquares(double[], int, int) sumOfSquares(xs, 0, xs.length)}.
+     */
+    public static double sumOfSquares(double[] xs) { return sumOfSquares(xs, 0, xs.length); }
+
+    /**
+     * Computes the sum of squares of the values from the range {@code [from, to)} of {@code xs}
+     * the same way as {@link #dot(double[], double[], int, int)}.
+     */
+    public static double sumOfSquares(double[] xs, int from, int to) {
+        double p0 = 0.0, p1 = 0.0, p2 = 0.0, p3 = 0.0;
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = from;
+        for (int n = to - LANES + 1; i < n; i += LANES) {
+            double x0 = xs[i], x1 = xs[i + 1], x2 = xs[i + 2], x3 = xs[i + 3];
+            double h0 = x0 * x0, h1 = x1 * x1, h2 = x2 * x2, h3 = x3 * x3;
+            double r0 = TwoProduct.err(x0, x0, h0), r1 = TwoProduct.err(x1, x1, h1);
+            double r2 = TwoProduct.err(x2, x2, h2), r3 = TwoProduct.err(x3, x3, h3);
+            double t0 = p0 + h0, t1 = p1 + h1, t2 = p2 + h2, t3 = p3 + h3;
+            double e0 = t0 - p0, e1 = t1 - p1, e2 = t2 - p2, e3 = t3 - p3;
+            s0 += ((p0 - (t0 - e0)) + (h0 - e0)) + r0; s1 += ((p1 - (t1 - e1)) + (h1 - e1)) + r1;
+            s2 += ((p2 - (t2 - e2)) + (h2 - e2)) + r2; s3 += ((p3 - (t3 - e3)) + (h3 - e3)) + r3;
+            p0 = t0; p1 = t1; p2 = t2; p3 = t3;
+        }
+        for (; i < to; i++) {
+            double x0 = xs[i], h0 = x0 * x0, r0 = TwoProduct.err(x0, x0, h0);
+            double t0 = p0 + h0, e0 = t0 - p0;
+            s0 += ((p0 - (t0 - e0)) + (h0 - e0)) + r0; p0 = t0;
+        }
+        return foldLanes(new double[2], p0, p1, p2, p3, s0 + s1 + s2 + s3)[0];
+    }
+
+    /**
+     * Same as {@link #norm2(double[], int, int) norm2(xs, 0, xs.length)}.
+     */
+    public static double norm2(double[] xs) { return norm2(xs, 0, xs.length); }
+
+    /**
+     * Computes the Euclidean norm of the values from the range {@code [from, to)} of {@code xs}
+     * as the square root of {@link #sumOfSquares(double[], int, int)}.
+     * If the sum of squares overflows or falls into subnormals, the values are scaled by a power of two first.
+     */
+    public static double norm2(double[] xs, int from, int to) {
+        double ss = sumOfSquares(xs, from, to);
+        if (ss >= MIN_NORMAL * 0x1p52 && ss < Double.POSITIVE_INFINITY) return sqrt(ss);
+
+        double max = 0.0;
+        for (int i = from; i < to; i++) max = Math.max(max, abs(xs[i]));
+        if (max == 0.0 || !isFinite(max)) return ss != ss ? ss : max; // zero, infinity or NaN
+
+        int scale = getExponent(max);
+        double[] scaled = new double[to - from];
+        for (int i = from; i < to; i++) scaled[i - from] = scalb(xs[i], -scale);
+        return scalb(sqrt(sumOfSquares(scaled, 0, scaled.length)), scale);
+    }
+
+    /**
+     * Folds the lanes of {@link #dot(double[], double[], int, int)} via <i>TwoSum</i> adding the errors to {@code s},
+     * then splits the total and {@code s} via <i>TwoSum</i> into {@code dd}.
+     */
+    static double[] foldLanes(double[] dd, double p0, double p1, double p2, double p3, double s) {
+        double p = p0 + p1, e = p - p0;
+        s += (p0 - (p - e)) + (p1 - e);
+        double t = p + p2; e = t - p;
+        s += (p - (t - e)) + (p2 - e);
+        p = t + p3; e = p - t;
+        s += (t - (p - e)) + (p3 - e);
+
+        double r = p + s;
+        if (!isFinite(r)) { dd[0] = p; dd[1] = 0.0; return dd; } // no compensation for non-finite, p is the naive total
+        e = r - p;
+        dd[0] = r; dd[1] = (p - (r - e)) + (s - e);
+        return dd;
+    }
+    //endregion
+
+    //region Double-double summation
+
+    /**
+     * Adds {@code x} to the double-double number {@code sum[0] + sum[1]} via <i>TwoSum</i> and renormalizes the pair,
+     * so {@code sum[1]} is always within a half ulp of {@code sum[0]} (about 106 bits of precision in total).
+     * A non-finite result is kept in {@code sum[0]} with the zero {@code sum[1]}.
+     * @param sum at least 2-element array (only 1st and 2nd element are to change)
+     * @param x value to add
+     * @return the first arg
+     * @see DoubleDouble
+     */
+    public static double[] doubleDoubleSum(double[] sum, double x) {
+        double hi = sum[0], s = hi + x, b = s - hi;
+        double e = (hi - (s - b)) + (x - b) + sum[1];
+        if (!isFinite(s)) { sum[0] = s; sum[1] = 0.0; return sum; }
+        sum[0] = s + e; sum[1] = e - (sum[0] - s);
+        return sum;
+    }
+
+    /**
+     * Returns {@code sum[0] + sum[1]} of {@link #doubleDoubleSum(double[], double[], int, int) doubleDoubleSum(new double[2], xs, from, to)}.
+     */
+    public static double doubleDoubleSum(double[] xs, int from, int to) {
+        double[] sum = doubleDoubleSum(new double[2], xs, from, to);
+        return sum[0] + sum[1];
+    }
+
+    /**
+     * Adds the values from the range {@code [from, to)} of {@code xs} to the double-double number {@code sum[0] + sum[1]}.
+     * The double-double sums of {@value #LANES} independent lanes are kept in locals
+     * and folded into {@code sum} via {@link #doubleDoubleSum(double[], double)} at the end.
+     * @param sum at least 2-element array (only 1st and 2nd element are to change)
+     * @param xs values to add
+     * @param from start index (inclusive)
+     * @param to end index (exclusive)
+     * @return the first arg
+     */
+    public static double[] doubleDoubleSum(double[] sum, double[] xs, int from, int to) {
+        double h0 = 0.0, h1 = 0.0, h2 = 0.0, h3 = 0.0;
+        double l0 = 0.0, l1 = 0.0, l2 = 0.0, l3 = 0.0;
+        int i = from;
+        for (int n = to - LANES + 1; i < n; i += LANES) {
+            double x0 = xs[i], x1 = xs[i + 1], x2 = xs[i + 2], x3 = xs[i + 3];
+            double s0 = h0 + x0, s1 = h1 + x1, s2 = h2 + x2, s3 = h3 + x3;
+            double b0 = s0 - h0, b1 = s1 - h1, b2 = s2 - h2, b3 = s3 - h3;
+            l0 += (h0 - (s0 - b0)) + (x0 - b0); l1 += (h1 - (s1 - b1)) + (x1 - b1);
+            l2 += (h2 - (s2 - b2)) + (x2 - b2); l3 += (h3 - (s3 - b3)) + (x3 - b3);
+            h0 = s0 + l0; h1 = s1 + l1; h2 = s2 + l2; h3 = s3 + l3;
+            l0 -= h0 - s0; l1 -= h1 - s1; l2 -= h2 - s2; l3 -= h3 - s3;
+        }
+        for (; i < to; i++) {
+            double x0 = xs[i], s0 = h0 + x0, b0 = s0 - h0;
+            l0 += (h0 - (s0 - b0)) + (x0 - b0);
+            h0 = s0 + l0; l0 -= h0 - s0;
+        }
+
+        if (!isFinite(h0 + h1 + h2 + h3)) return plainSum(sum, plainSum(xs, from, to)); // the lanes lose infinities, no compensation for non-finite
+        doubleDoubleSum(sum, h0); doubleDoubleSum(sum, h1); doubleDoubleSum(sum, h2); doubleDoubleSum(sum, h3);
+        doubleDoubleSum(sum, l0); doubleDoubleSum(sum, l1); doubleDoubleSum(sum, l2); doubleDoubleSum(sum, l3);
+        return sum;
+    }
+    //endregion
+
+    //region Exact summation
+
+    /**
+     * Adds {@code x} to the <i>superaccumulator</i> exactly.
+     * The accumulator consists of {@value #EXACT_BINS} bins each covering {@value #BIN_WIDTH} bits of the whole
+     * exponent range of <code>double</code>, the highest bin comes first. Each bin holds a double being a multiple of its lowest bit,
+     * so the mantissa of {@code x} is split into up to 3 bins without rounding.
+     * A bin going to lose exactness carries its high part to the next bin, that happens once per ~2<sup>20</sup> adds.
+     * The highest bin is kept scaled by 2<sup>-64</sup>, so the intermediate sums beyond {@link Double#MAX_VALUE} do not overflow
+     * (it stays exact up to 2<sup>1059</sup>, i.e. ~2<sup>35</sup> values of the maximum magnitude).
+     * The exact sum of the bins is correctly rounded by {@link #exactValue(double[], double[])}.
+     * Infinities and NaNs are added to the highest bin as is.
+     * @param sum array of at least {@value #EXACT_BINS} elements
+     * @param x value to add
+     * @return the first arg
+     * @see <a href="https://arxiv.org/abs/1505.05571">Neal (2015). "Fast exact summation using small and large superaccumulators"</a>
+     */
+    public static double[] exactSum(double[] sum, double x) {
+        long bits = doubleToRawLongBits(x);
+        int p = (int)(bits >>> 52) & 0x7ff; // biased exponent
+        if (p == 0x7ff) { sum[0] += x; return sum; }
+
+        long m = bits & 0xfffffffffffffL;
+        if (p != 0) { m |= 1L << 52; p--; } // p is now the position of the lowest bit counting from 2^-1074
+        if (m == 0) return sum;
+
+        int k = p / BIN_WIDTH, shift = p % BIN_WIDTH;
+        double sign = bits < 0 ? -1.0 : 1.0;
+        addBin(sum, k    , sign * ((m << shift) & BIN_MASK) * BIN_UNITS[k]);
+        addBin(sum, k + 1, sign * ((m >>> (BIN_WIDTH - shift)) & BIN_MASK) * BIN_UNITS[k + 1]);
+        if (shift != 0)
+            addBin(sum, k + 2, sign * (m >>> (2 * BIN_WIDTH - shift)) * BIN_UNITS[k + 2]);
+        return sum;
+    }
+
+    static void addBin(double[] sum, int k, double x) {
+        if (k == EXACT_BINS - 1) { sum[0] += x * TOP_SCALE; return; }
+        if (abs(sum[EXACT_BINS - 1 - k] += x) >= CARRY_LIMITS[k])
+            for (int i = EXACT_BINS - 1 - k; i > 0 && abs(sum[i]) >= CARRY_LIMITS[k]; i--, k++) {
+                double b = sum[i], r = IEEEremainder(b, BIN_UNITS[k + 1]);
+                sum[i] = r;
+                if (i > 1) sum[i - 1] += b - r; else sum[0] += (b - r) * TOP_SCALE;
+            }
+    }
+
+    /**
+     * Adds another superaccumulator (see {@link #exactSum(double[], double)}) bin by bin exactly.
+     * @return the first arg
+     */
+    public static double[] exactMerge(double[] sum, double[] other) {
+        sum[0] += other[0];
+        for (int i = 1; i < EXACT_BINS; i++)
+            if (other[i] != 0.0) addBin(sum, EXACT_BINS - 1 - i, other[i]);
+        return sum;
+    }
+
+    /**
+     * Get the exact sum of the superaccumulator (see {@link #exactSum(double[], double)}) correctly rounded
+     * (infinite if it overflows) or the plain sum of the bins if a bin is not finite.
+     * The sums beyond the range of <code>double</code> in the highest bin are rounded via {@link BigDecimal}.
+     * @param sum the superaccumulator
+     * @param partials scratch array of at least {@value #EXACT_BINS} elements
+     */
+    public static double exactValue(double[] sum, double[] partials) {
+        double top = sum[0] * TOP_UNSCALE;
+        if (!isFinite(sum[0])) {
+            for (int i = 1; i < EXACT_BINS; i++) top += sum[i];
+            return top;
+        }
+
+        partials[0] = top;
+        System.arraycopy(sum, 1, partials, 1, EXACT_BINS - 1);
+        int n = isFinite(top) ? distill(partials, 0, EXACT_BINS, partials) : -1;
+        if (n >= 0) return roundedSum(partials, n);
+
+        BigDecimal s = new BigDecimal(sum[0]).multiply(new BigDecimal(TOP_UNSCALE));
+        for (int i = 1; i < EXACT_BINS; i++) s = s.add(new BigDecimal(sum[i]));
+        return s.doubleValue();
+    }
+
+    /** The number of the bins of the superaccumulator used by {@link #exactSum(double[], double)}. */
+    public static final int EXACT_BINS = 66;
+    /** The number of bits covered by a bin of the superaccumulator. */
+    public static final int BIN_WIDTH  = 32;
+
+    static final long     BIN_MASK     = (1L << BIN_WIDTH) - 1;
+    static final double[] BIN_UNITS    = new double[EXACT_BINS];
+    static final double[] CARRY_LIMITS = new double[EXACT_BINS];
+    /** The scale of the highest bin (and back). */
+    static final double   TOP_SCALE    = 0x1p-64, TOP_UNSCALE = 0x1p64;
+    static {
+        for (int k = 0; k < EXACT_BINS; k++) {
+            BIN_UNITS[k]    = scalb(1.0, BIN_WIDTH * k - 1074);
+            CARRY_LIMITS[k] = scalb(1.0, min(BIN_WIDTH * k - 1074 + 52, MAX_EXPONENT - 1)); // two bins below the limit add up finitely
+        }
+    }
+    //endregion
+
+    //region Error-free renormalization
+
+    /**
+     * Transforms the values from the range {@code [from, to)} of {@code xs} into the non-overlapping partials
+     * of the same exact sum via <i>TwoSum</i> (Shewchuk's grow-expansion).
+     * The partials are written in order of increasing magnitude.
+     * The partials may be written over the values in place ({@code partials == xs} and {@code from == 0}).
+     * @param xs values to transform (not changed unless they are the partials)
+     * @param from start index (inclusive)
+     * @param to end index (exclusive)
+     * @param partials destination array of at least {@code to - from} length
+     * @return the number of the written partials or -1 if a value is not finite or the sum overflows
+     * @see <a href="https://doi.org/10.1007/PL00009321">
+     *     Shewchuk (1997). "Adaptive Precision Floating-Point Arithmetic and Fast Robust Geometric Predicates". Discrete &amp; Computational Geometry. 18 (3): 305–363</a>
+     */
+    public static int distill(double[] xs, int from, int to, double[] partials) {
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            int k = 0;
+            for (int j = 0; j < n; j++) {
+                double y = partials[j], hi = x + y;
+                double lo = abs(x) >= abs(y)
+                    ? y - (hi - x)
+                    : x - (hi - y);
+                if (lo != 0.0) partials[k++] = lo;
+                x = hi;
+            }
+            if (!isFinite(x)) return -1;
+            partials[k] = x; n = k + 1;
+        }
+        return n;
+    }
+
+    /**
+     * Correctly rounds (to nearest, ties to even) the exact sum of the partials produced by {@link #distill(double[], int, int, double[])}.
+     * @param partials non-overlapping values in order of increasing magnitude
+     * @param n number of the partials
+     * @return the exact sum rounded to the nearest double
+     */
+    public static double roundedSum(double[] partials, int n) {
+        if (n == 0) return 0.0;
+        double hi = partials[--n], lo = 0.0;
+        while (n > 0) {
+            double x = hi, y = partials[--n];
+            hi = x + y;
+            lo = y - (hi - x);
+            if (lo != 0.0) break;
+        }
+        // the rest partials decide the rounding if the sum is exactly halfway
+        if (n > 0 && (lo < 0.0 && partials[n - 1] < 0.0 || lo > 0.0 && partials[n - 1] > 0.0)) {
+            double y = lo * 2, x = hi + y;
+            if (y == x - hi) hi = x;
+        }
+        return hi;
+    }
+    //endregion
 }
@@ -0,0 +1,218 @@
+package ru.serge2nd;
+
+import ru.serge2nd.DoubleSum.CompensatingSumOp;
+import ru.serge2nd.DoubleSum.StdOp;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+import static java.lang.Math.min;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import static ru.serge2nd.DoubleAlgs.PARALLEL_BLOCK;
+import static ru.serge2nd.DoubleAlgs.doubleDoubleSum;
+import static ru.serge2nd.ObjectAssist.errNotInstantiable;
+
+/**
+ * The summation, statistics and dot products of {@link DoubleAlgs} over the remaining values of buffers and over files of doubles.
+ * A file is mapped via {@link FileChannel#map(FileChannel.MapMode, long, long)} in segments of {@value #SEGMENT_BYTES} bytes,
+ * so files over 2 GB are supported and no values are kept on the heap.
+ * <br>
+ * The values are processed in the {@link ForkJoinPool} by the same reduction tree as of
+ * {@link DoubleAlgs#parallelSum(double[], int, int, CompensatingSumOp, int)}: the bulk kernels run over the blocks of at most {@value DoubleAlgs#PARALLEL_BLOCK} values
+ * (in place in the arrays of heap buffers, copied into a temporary array otherwise) and the states of the blocks are merged in the fixed order,
+ * so the results are the same for any parallelism and the sums are the same as for a <code>double[]</code> of the values.
+ * The positions and the limits of the given buffers are not changed.
+ */
+public class DoubleBufferAlgs {
+    private DoubleBufferAlgs() { throw errNotInstantiable(lookup()); }
+
+    /** The size of the mapped segments of a file (a multiple of {@link Double#BYTES}). */
+    public static final int SEGMENT_BYTES = 1 << 30;
+
+    //region Summation
+
+    /**
+     * Sums the remaining values of {@code xs}, the result is the same as of
+     * {@link DoubleAlgs#parallelSum(double[], CompensatingSumOp, int)} for an array of the values.
+     * @param xs values to add
+     * @param op compensating operation
+     * @param order compensation order (number of compensating values)
+     * @return the sum holding the combined state
+     */
+    public static DoubleSum sum(DoubleBuffer xs, CompensatingSumOp op, int order) {
+        return sum(new Segments(xs), op, order);
+    }
+    /** Same as {@link #sum(DoubleBuffer, CompensatingSumOp, int) sum(bytes.asDoubleBuffer(), op, order)}, the byte order of the buffer is used. */
+    public static DoubleSum sum(ByteBuffer bytes, CompensatingSumOp op, int order) {
+        return sum(bytes.asDoubleBuffer(), op, order);
+    }
+    /**
+     * Sums the little-endian doubles of the file.
+     * @see #sum(DoubleBuffer, CompensatingSumOp, int)
+     * @throws IllegalArgumentException if the file size is not a multiple of {@link Double#BYTES}
+     */
+    public static DoubleSum sum(Path file, CompensatingSumOp op, int order) throws IOException {
+        return sum(map(file, LITTLE_ENDIAN, SEGMENT_BYTES), op, order);
+    }
+
+    static DoubleSum sum(Segments xs, CompensatingSumOp op, int order) {
+        if (op == null || order < 0) throw new IllegalArgumentException("null op or negative compensation order");
+        if (op instanceof StdOp && !((StdOp)op).supports(order)) throw new IllegalArgumentException("compensation order " + order + " not supported by " + op);
+        return new DoubleSum(op, new Fold<>(xs, null, 0, xs.length,
+                (a, ai, b, bi, n) -> op.addAll(new double[order + 1], a, ai, ai + n),
+                op::merge).invoke());
+    }
+    //endregion
+
+    //region Statistics
+
+    /** Accumulates the statistics of the remaining values of {@code xs}, see {@link CompensatedStatistics#merge(CompensatedStatistics)}. */
+    public static CompensatedStatistics statistics(DoubleBuffer xs) {
+        return statistics(new Segments(xs));
+    }
+    /** Same as {@link #statistics(DoubleBuffer) statistics(bytes.asDoubleBuffer())}, the byte order of the buffer is used. */
+    public static CompensatedStatistics statistics(ByteBuffer bytes) {
+        return statistics(bytes.asDoubleBuffer());
+    }
+    /**
+     * Accumulates the statistics of the little-endian doubles of the file.
+     * @throws IllegalArgumentException if the file size is not a multiple of {@link Double#BYTES}
+     */
+    public static CompensatedStatistics statistics(Path file) throws IOException {
+        return statistics(map(file, LITTLE_ENDIAN, SEGMENT_BYTES));
+    }
+
+    static CompensatedStatistics statistics(Segments xs) {
+        return new Fold<>(xs, null, 0, xs.length,
+                (a, ai, b, bi, n) -> new CompensatedStatistics().addAll(a, ai, ai + n),
+                CompensatedStatistics::merge).invoke();
+    }
+    //endregion
+
+    //region Dot products
+
+    /**
+     * Calculates the dot product of the remaining values of the buffers,
+     * the blocks are multiplied via {@link DoubleAlgs#dot(double[], double[], int, int)} and their unrounded results are added
+     * as double-double numbers via {@link DoubleAlgs#doubleDoubleSum(double[], double)}.
+     * @throws IllegalArgumentException if the buffers have different numbers of the remaining values
+     */
+    public static double dot(DoubleBuffer a, DoubleBuffer b) {
+        return dot(new Segments(a), new Segments(b));
+    }
+    /** Same as {@link #dot(DoubleBuffer, DoubleBuffer) dot(a.asDoubleBuffer(), b.asDoubleBuffer())}, the byte orders of the buffers are used. */
+    public static double dot(ByteBuffer a, ByteBuffer b) {
+        return dot(a.asDoubleBuffer(), b.asDoubleBuffer());
+    }
+    /**
+     * Calculates the dot product of the little-endian doubles of the files.
+     * @throws IllegalArgumentException if the files have different sizes or a size is not a multiple of {@link Double#BYTES}
+     */
+    public static double dot(Path a, Path b) throws IOException {
+        return dot(map(a, LITTLE_ENDIAN, SEGMENT_BYTES), map(b, LITTLE_ENDIAN, SEGMENT_BYTES));
+    }
+
+    static double dot(Segments a, Segments b) {
+        if (a.length != b.length) throw new IllegalArgumentException("different lengths: " + a.length + ", " + b.length);
+        double[] sum = new Fold<>(a, b, 0, a.length,
+                (xs, xi, ys, yi, n) -> DoubleAlgs.dot2(new double[2], xs, xi, ys, yi, n),
+                (l, r) -> doubleDoubleSum(doubleDoubleSum(l, r[0]), r[1])).invoke();
+        return sum[0] + sum[1];
+    }
+    //endregion
+
+    /**
+     * Maps the file of doubles in segments of {@code segmentBytes} (a multiple of {@link Double#BYTES}).
+     * The mappings stay valid after the channel is closed.
+     */
+    static Segments map(Path file, ByteOrder order, int segmentBytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, READ)) {
+            long size = ch.size();
+            if (size % Double.BYTES != 0) throw new IllegalArgumentException("the file size is not a multiple of " + Double.BYTES + ": " + file);
+
+            DoubleBuffer[] segs = new DoubleBuffer[(int)((size + segmentBytes - 1) / segmentBytes)];
+            for (int k = 0; k < segs.length; k++) {
+                long pos = (long)k * segmentBytes;
+                segs[k] = ch.map(READ_ONLY, pos, min(segmentBytes, size - pos)).order(order).asDoubleBuffer();
+            }
+            return new Segments(segs, segmentBytes / Double.BYTES, size / Double.BYTES);
+        }
+    }
+
+    /** The values of the buffers of the same size (except the last one) addressed by <code>long</code> indices. */
+    static final class Segments {
+        final DoubleBuffer[] segs; final int seg; final long length;
+        Segments(DoubleBuffer xs) {
+            this(new DoubleBuffer[] {xs.slice()}, Integer.MAX_VALUE, xs.remaining());
+        }
+        Segments(DoubleBuffer[] segs, int seg, long length) {
+            this.segs = segs; this.seg = seg; this.length = length;
+        }
+
+        /** Gets the backing array of the segment holding all the {@code n} values from {@code from} if it has one, otherwise {@code null}. */
+        double[] array(long from, int n) {
+            DoubleBuffer b = segs[(int)(from / seg)];
+            return b.hasArray() && from % seg + n <= b.remaining() ? b.array() : null; // the segments stay at position 0
+        }
+        /** Gets the index of the value {@code from} in the {@link #array(long, int) backing array}. */
+        int offset(long from) {
+            return segs[(int)(from / seg)].arrayOffset() + (int)(from % seg);
+        }
+
+        /** Copies {@code n} values from {@code from} to the start of {@code dest}. */
+        void copy(long from, double[] dest, int n) {
+            int k = (int)(from / seg), i = (int)(from % seg);
+            for (int off = 0; off < n; k++, i = 0) {
+                DoubleBuffer b = segs[k].duplicate();
+                ((Buffer)b).position(i); // Java 8 has no covariant override
+                int m = min(n - off, b.remaining());
+                b.get(dest, off, m);
+                off += m;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Leaf<T> { T apply(double[] xs, int xi, double[] ys, int yi, int n); }
+
+    /** The reduction tree of {@link DoubleAlgs.ParallelSum} over {@link Segments}, the second segments are optional. */
+    static final class Fold<T> extends RecursiveTask<T> {
+        private static final long serialVersionUID = 1L;
+
+        final Segments xs, ys; final long from, to;
+        final Leaf<T> leaf; final BinaryOperator<T> merge;
+        Fold(Segments xs, Segments ys, long from, long to, Leaf<T> leaf, BinaryOperator<T> merge) {
+            this.xs = xs; this.ys = ys; this.from = from; this.to = to;
+            this.leaf = leaf; this.merge = merge;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from <= PARALLEL_BLOCK) {
+                int n = (int)(to - from);
+                double[] a = xs.array(from, n), b = ys != null ? ys.array(from, n) : null;
+                int ai = a != null ? xs.offset(from) : 0, bi = b != null ? ys.offset(from) : 0;
+                if (a == null) xs.copy(from, a = new double[n], n);
+                if (b == null && ys != null) ys.copy(from, b = new double[n], n);
+                return leaf.apply(a, ai, b, bi, n);
+            }
+
+            long mid = (from + to) >>> 1;
+            Fold<T> left = new Fold<>(xs, ys, from, mid, leaf, merge);
+            left.fork();
+            T right = new Fold<>(xs, ys, mid, to, leaf, merge).compute();
+            return merge.apply(left.join(), right);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ru.serge2nd;
+
+import java.math.BigDecimal;
+
+import static java.lang.Double.compare;
+import static java.lang.Double.doubleToLongBits;
+import static java.lang.Double.isFinite;
+
+/**
+ * A mutable double-double number: the unevaluated sum of two non-overlapping doubles {@code hi + lo}
+ * with {@code |lo| <= ulp(hi) / 2}, giving about 106 bits (32 decimal digits) of precision.
+ * The arithmetic methods change this instance and return it, so no allocations happen in hot loops.
+ * A non-finite result is kept in {@link #hi()} with the zero {@link #lo()}.
+ * @see <a href="https://doi.org/10.1145/3121432">
+ *     Joldes, Muller, Popescu (2017). "Tight and rigorous error bounds for basic building blocks of double-word arithmetic". ACM TOMS. 44 (2)</a>
+ * @see DoubleAlgs#doubleDoubleSum(double[], double)
+ */
+public final class DoubleDouble extends Number implements Comparable<DoubleDouble> {
+    private static final long serialVersionUID = 1L;
+
+    private double hi;
+    private double lo;
+
+    public DoubleDouble() {}
+    public DoubleDouble(double x) { this.hi = x; }
+    /** Creates the renormalized sum of the given values. */
+    public DoubleDouble(double hi, double lo) { set(hi, lo); }
+
+    public DoubleDouble copy() {
+        DoubleDouble copy = new DoubleDouble();
+        copy.hi = hi; copy.lo = lo;
+        return copy;
+    }
+
+    //region Arithmetic
+
+    public DoubleDouble set(double x) { hi = x; lo = 0.0; return this; }
+    /** Sets the renormalized sum of the given values. */
+    public DoubleDouble set(double hi, double lo) {
+        double s = hi + lo, b = s - hi;
+        return norm(s, (hi - (s - b)) + (lo - b));
+    }
+    public DoubleDouble set(DoubleDouble x) { hi = x.hi; lo = x.lo; return this; }
+
+    public DoubleDouble add(double x) {
+        double s = hi + x, b = s - hi;
+        return norm(s, (hi - (s - b)) + (x - b) + lo);
+    }
+    public DoubleDouble add(DoubleDouble x) {
+        double s = hi + x.hi, b = s - hi;
+        double e = (hi - (s - b)) + (x.hi - b);
+        double t = lo + x.lo, c = t - lo;
+        double f = (lo - (t - c)) + (x.lo - c);
+        if (!isFinite(s)) return norm(s, 0.0);
+
+        double h = s + (e + t);  // fast two sum
+        e = (e + t) - (h - s);
+        return norm(h, e + f);
+    }
+    public DoubleDouble sub(double x)       { return add(-x); }
+    public DoubleDouble sub(DoubleDouble x) {
+        double s = hi - x.hi, b = s - hi;
+        double e = (hi - (s - b)) + (-x.hi - b);
+        double t = lo - x.lo, c = t - lo;
+        double f = (lo - (t - c)) + (-x.lo - c);
+        if (!isFinite(s)) return norm(s, 0.0);
+
+        double h = s + (e + t);
+        e = (e + t) - (h - s);
+        return norm(h, e + f);
+    }
+
+    public DoubleDouble mul(double x) {
+        double p = hi * x;
+        return norm(p, TwoProduct.err(hi, x, p) + lo * x);
+    }
+    public DoubleDouble mul(DoubleDouble x) {
+        double p = hi * x.hi;
+        return norm(p, TwoProduct.err(hi, x.hi, p) + (hi * x.lo + lo * x.hi));
+    }
+
+    public DoubleDouble div(double x) {
+        double q = hi / x, p = q * x;
+        double s = hi - p, b = s - hi;
+        double e = (hi - (s - b)) + (-p - b) - TwoProduct.err(q, x, p) + lo; // the remainder of this - q * x
+        return isFinite(q) ? norm(q, (s + e) / x) : norm(q, 0.0);
+    }
+    public DoubleDouble div(DoubleDouble x) {
+        double q = hi / x.hi, p = q * x.hi;
+        double s = hi - p, b = s - hi;
+        double e = (hi - (s - b)) + (-p - b) - (TwoProduct.err(q, x.hi, p) + q * x.lo) + lo;
+        return isFinite(q) ? norm(q, (s + e) / (x.hi + x.lo)) : norm(q, 0.0);
+    }
+
+    public DoubleDouble negate() { hi = -hi; lo = -lo; return this; }
+    //endregion
+
+    public double hi() { return hi; }
+    public double lo() { return lo; }
+
+    /** Get the exact value. */
+    public BigDecimal toBigDecimal() {
+        if (!isFinite(hi)) throw new NumberFormatException("not finite: " + hi);
+        return new BigDecimal(hi).add(new BigDecimal(lo));
+    }
+
+    @Override public double doubleValue() { return hi + lo; }
+    @Override public float  floatValue()  { return (float)hi; }
+    @Override public long   longValue()   { return isFinite(hi) ? toBigDecimal().longValue() : (long)hi; }
+    @Override public int    intValue()    { return (int)longValue(); }
+
+    @Override
+    public int compareTo(DoubleDouble o) {
+        int c = compare(hi, o.hi);
+        return c != 0 ? c : compare(lo, o.lo);
+    }
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DoubleDouble)) return false;
+        DoubleDouble dd = (DoubleDouble)o;
+        return doubleToLongBits(hi) == doubleToLongBits(dd.hi) && doubleToLongBits(lo) == doubleToLongBits(dd.lo);
+    }
+    @Override
+    public int hashCode() {
+        long h = doubleToLongBits(hi) * 31 + doubleToLongBits(lo);
+        return (int)(h ^ (h >>> 32));
+    }
+    /** The exact decimal value or the non-finite {@link #hi()}. */
+    @Override
+    public String toString() {
+        return isFinite(hi) ? toBigDecimal().toString() : Double.toString(hi);
+    }
+
+    /**
+     * Sets the pair {@code (s, e)} renormalized via <i>Fast2Sum</i> ({@code |s| >= |e|} is expected).
+     * A non-finite {@code e} with the finite {@code s} means the product error is unavailable (see {@link TwoProduct#err(double, double, double)}).
+     */
+    private DoubleDouble norm(double s, double e) {
+        if (!isFinite(s) || !isFinite(e)) { hi = s; lo = 0.0; return this; }
+        hi = s + e; lo = e - (hi - s);
+        return this;
+    }
+}
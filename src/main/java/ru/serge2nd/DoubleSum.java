@@ -1,61 +1,248 @@
 package ru.serge2nd;
 
-import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 
+import static java.lang.Double.doubleToRawLongBits;
 import static java.lang.Double.isInfinite;
 import static java.lang.Double.isNaN;
-import static java.math.BigDecimal.valueOf;
+import static java.lang.Integer.MAX_VALUE;
+import static ru.serge2nd.DoubleAlgs.EXACT_BINS;
+import static ru.serge2nd.DoubleAlgs.TOP_UNSCALE;
+import static ru.serge2nd.DoubleAlgs.distill;
+import static ru.serge2nd.DoubleAlgs.doubleDoubleSum;
+import static ru.serge2nd.DoubleAlgs.exactMerge;
+import static ru.serge2nd.DoubleAlgs.exactSum;
+import static ru.serge2nd.DoubleAlgs.exactValue;
+import static ru.serge2nd.DoubleAlgs.iterativeKBSum;
+import static ru.serge2nd.DoubleAlgs.kahanSum;
+import static ru.serge2nd.DoubleAlgs.kleinSum;
+import static ru.serge2nd.DoubleAlgs.neumaierSum;
+import static ru.serge2nd.DoubleAlgs.plainSum;
+import static ru.serge2nd.DoubleAlgs.roundedSum;
 
 /**
  * Accumulating a sum of <code>double</code> values with compensation.
- * See {@link DoubleAlgs#kahanSum(double[], double)} and {@link DoubleAlgs#iterativeKBSum(double[], double, int)}
- * for examples of compensating summation.
+ * See {@link StdOp#KAHAN} and {@link StdOp#KLEIN} for examples of compensating summation.
+ * <br>
+ * The state of a sum of a {@link StdOp} can be exchanged in a compact binary form via {@link #writeTo(ByteBuffer)}
+ * and {@link #readFrom(ByteBuffer)}, e.g. to merge the partial sums of several workers.
  */
 public class DoubleSum {
     @FunctionalInterface
-    public interface CompensatingSumOp { double[] add(double[] sum, double x); }
+    public interface CompensatingSumOp {
+        double[] add(double[] sum, double x);
+        /** Adds the values from the range {@code [from, to)} of {@code xs} one by one, may be overridden with a bulk kernel. */
+        default double[] addAll(double[] sum, double[] xs, int from, int to) {
+            for (int i = from; i < to; i++) add(sum, xs[i]); return sum;
+        }
+        /** Adds the terms of another sum of the same op, the last (the smallest) term first. */
+        default double[] merge(double[] sum, double[] other) {
+            for (int i = other.length - 1; i >= 0; i--) add(sum, term(other, i)); return sum;
+        }
+        /**
+         * Get the term {@code i} of the sum as it adds up to the total, i.e. {@code sum[i]}
+         * unless the op keeps the term transformed (the compensation of {@link StdOp#KAHAN} is negated).
+         * An op keeping transformed terms must override this method, so a raw method reference
+         * like {@code DoubleAlgs::kahanSum} yields the wrong sign for its compensation - use {@link StdOp#KAHAN} instead.
+         */
+        default double term(double[] sum, int i) { return sum[i]; }
+    }
+
+    /**
+     * The operations of {@link DoubleAlgs} with the bulk summation kernels behind {@link CompensatingSumOp#addAll(double[], double[], int, int)}.
+     */
+    public enum StdOp implements CompensatingSumOp {
+        PLAIN(0, MAX_VALUE) {
+            public double[] add(double[] sum, double x)                         { return plainSum(sum, x); }
+            public double[] addAll(double[] sum, double[] xs, int from, int to) { return plainSum(sum, xs, from, to); }
+        },
+        KAHAN(1, MAX_VALUE) {
+            public double[] add(double[] sum, double x)                         { return kahanSum(sum, x); }
+            public double[] addAll(double[] sum, double[] xs, int from, int to) { return kahanSum(sum, xs, from, to); }
+            public double[] merge(double[] sum, double[] other)                 { return kahanSum(kahanSum(sum, -other[1]), other[0]); }
+            public double term(double[] sum, int i)                             { return i == 1 ? -sum[1] : sum[i]; }
+        },
+        NEUMAIER(1, MAX_VALUE) {
+            public double[] add(double[] sum, double x)                         { return neumaierSum(sum, x); }
+            public double[] addAll(double[] sum, double[] xs, int from, int to) { return neumaierSum(sum, xs, from, to); }
+        },
+        KLEIN(2, MAX_VALUE) {
+            public double[] add(double[] sum, double x)                         { return kleinSum(sum, x); }
+            public double[] addAll(double[] sum, double[] xs, int from, int to) { return kleinSum(sum, xs, from, to); }
+        },
+        /** The iterative Kahan–Babuška summation with the compensation order of {@code sum.length - 1}. */
+        ITERATIVE_KB(0, MAX_VALUE) {
+            public double[] add(double[] sum, double x)                         { return iterativeKBSum(sum, x, sum.length - 1); }
+            public double[] addAll(double[] sum, double[] xs, int from, int to) { return iterativeKBSum(sum, xs, from, to, sum.length - 1); }
+        },
+        /** The double-double summation keeping the renormalized pair of {@link DoubleDouble} and requiring the compensation order of 1. */
+        DOUBLE_DOUBLE(1, 1) {
+            public double[] add(double[] sum, double x)                         { return doubleDoubleSum(sum, x); }
+            public double[] addAll(double[] sum, double[] xs, int from, int to) { return doubleDoubleSum(sum, xs, from, to); }
+        },
+        /** The exact summation via the superaccumulator requiring the compensation order of at least {@link #EXACT_ORDER}, see {@link #exact(double...)}. */
+        EXACT(EXACT_BINS - 1, MAX_VALUE) {
+            public double[] add(double[] sum, double x)                         { return exactSum(sum, x); }
+            public double[] merge(double[] sum, double[] other)                 { return exactMerge(sum, other); }
+            public double term(double[] sum, int i)                             { return i == 0 ? sum[0] * TOP_UNSCALE : sum[i]; }
+        };
+
+        private final int minOrder, maxOrder;
+
+        StdOp(int minOrder, int maxOrder) {
+            this.minOrder = minOrder;
+            this.maxOrder = maxOrder;
+        }
+
+        /** Get whether the op works with the given compensation order, e.g. {@link #KLEIN} needs at least 2. */
+        public boolean supports(int compensationOrder) { return compensationOrder >= minOrder && compensationOrder <= maxOrder; }
+    }
+
+    /** The compensation order required by {@link StdOp#EXACT}. */
+    public static final int EXACT_ORDER = EXACT_BINS - 1;
 
     private final CompensatingSumOp op;
     private final double[] sum;
+    private double[] partials;
 
     public static DoubleSum of(double... xs) {
-        return of(DoubleAlgs::kahanSum, 1, xs);
+        return of(StdOp.KAHAN, 1, xs);
+    }
+    /**
+     * Creates the sum accumulating the values exactly via {@link StdOp#EXACT}, so {@link #fine()} is the exact sum correctly rounded.
+     * The {@link #raw()} result holds the highest bin of the superaccumulator only.
+     */
+    public static DoubleSum exact(double... xs) {
+        return of(StdOp.EXACT, EXACT_ORDER, xs);
+    }
+    /**
+     * Creates the sum accumulating the values as a double-double number via {@link StdOp#DOUBLE_DOUBLE}.
+     */
+    public static DoubleSum doubleDouble(double... xs) {
+        return of(StdOp.DOUBLE_DOUBLE, 1, xs);
     }
     public static DoubleSum of(CompensatingSumOp op, int compensationOrder, double... xs) {
-        DoubleSum s = new DoubleSum(0.0, op, compensationOrder);
-        for (double x : xs) s.add(x); return s;
+        return new DoubleSum(0.0, op, compensationOrder).addAll(xs, 0, xs.length);
     }
 
     public DoubleSum(double x0) {
-        this(x0, DoubleAlgs::kahanSum, 1);
+        this(x0, StdOp.KAHAN, 1);
     }
     public DoubleSum(double x0, CompensatingSumOp op, int compensationOrder) {
         if (op == null || compensationOrder < 0) throw new IllegalArgumentException("null op or negative compensation order");
+        if (op instanceof StdOp && !((StdOp)op).supports(compensationOrder)) throw new IllegalArgumentException("compensation order " + compensationOrder + " not supported by " + op);
         this.op = op;
         this.sum = new double[compensationOrder + 1];
-        sum[0] = x0;
+        op.add(sum, x0);
+    }
+
+    DoubleSum(CompensatingSumOp op, double[] sum) {
+        this.op = op;
+        this.sum = sum;
     }
 
     public DoubleSum add(double x) {
         op.add(sum, x); return this;
     }
+    /** Adds the values from the range {@code [from, to)} of {@code xs} via {@link CompensatingSumOp#addAll(double[], double[], int, int)}. */
+    public DoubleSum addAll(double[] xs, int from, int to) {
+        op.addAll(sum, xs, from, to); return this;
+    }
+    /**
+     * Adds the terms of another sum via {@link CompensatingSumOp#merge(double[], double[])}.
+     * The other sum is expected to be accumulated with the same op.
+     */
+    public DoubleSum merge(DoubleSum other) {
+        op.merge(sum, other.sum); return this;
+    }
     /** Get the raw result (perhaps with very basic compensation). */
     public double raw() {
-        return sum[0];
+        return op.term(sum, 0);
     }
     /** Get the fast but not too precise result. */
     public double get() {
-        double s = sum[0];
-        for(int i = 1; i < sum.length; i++) s += sum[i];
+        double s = op.term(sum, 0);
+        for(int i = 1; i < sum.length; i++) s += op.term(sum, i);
         return fin(s);
     }
-    /** Get the more precise result slower with as many {@link BigDecimal} allocations as the value of the compensation order. */
+    /**
+     * Get the correctly rounded sum of the terms (see {@link CompensatingSumOp#term(double[], int)})
+     * via {@link DoubleAlgs#distill(double[], int, int, double[])}, or via {@link DoubleAlgs#exactValue(double[], double[])} for {@link StdOp#EXACT}.
+     * No allocations except the scratch array created on the first call.
+     */
     public double fine() {
         if (sum.length == 1) return sum[0];
-        BigDecimal s = valueOf(sum[0]);
-        for(int i = 1; i < sum.length; i++) s = s.add(valueOf(sum[i]));
-        return fin(s.doubleValue());
+        double[] partials = this.partials != null ? this.partials : (this.partials = new double[sum.length]);
+        if (op == StdOp.EXACT) return exactValue(sum, partials);
+        for (int i = 0; i < sum.length; i++) partials[i] = op.term(sum, i);
+        int n = distill(partials, 0, sum.length, partials);
+        return n < 0 ? get() : roundedSum(partials, n);
+    }
+
+    //region Binary state
+
+    /** Get the number of bytes {@link #writeTo(ByteBuffer)} writes. */
+    public int encodedSize() {
+        return 3 + termsSize(sum);
+    }
+    /**
+     * Writes the state: the op (one byte), the number of the terms (two bytes) and the non-zero range of the terms
+     * as of {@link #putTerms(ByteBuffer, double[])}. The values are in the byte order of the buffer, its position is advanced.
+     * @throws IllegalStateException if the op is not a {@link StdOp} or the compensation order is not less than 65535
+     * @throws java.nio.BufferOverflowException if the buffer has less than {@link #encodedSize()} bytes remaining
+     */
+    public ByteBuffer writeTo(ByteBuffer buf) {
+        if (!(op instanceof StdOp) || sum.length > Character.MAX_VALUE)
+            throw new IllegalStateException("cannot encode " + op + " of " + sum.length + " terms");
+        buf.put((byte)((StdOp)op).ordinal()).putChar((char)sum.length);
+        return putTerms(buf, sum);
+    }
+    /**
+     * Reads the state written by {@link #writeTo(ByteBuffer)} into a new sum, the position of the buffer is advanced.
+     * @throws IllegalArgumentException if the data is not a valid state (incl. the number of the terms not {@link StdOp#supports(int) supported} by the op)
+     * @throws java.nio.BufferUnderflowException if the buffer has not enough bytes remaining
+     */
+    public static DoubleSum readFrom(ByteBuffer buf) {
+        int k = buf.get() & 0xff, length = buf.getChar();
+        StdOp[] ops = StdOp.values();
+        if (k >= ops.length) throw new IllegalArgumentException("invalid op " + k);
+        if (!ops[k].supports(length - 1)) throw new IllegalArgumentException("invalid length " + length + " for " + ops[k]);
+        return new DoubleSum(ops[k], getTerms(buf, new double[length]));
+    }
+
+    /**
+     * Writes the index of the first non-zero term and the number of the terms up to the last non-zero one (two bytes each)
+     * followed by the bits of these terms, so the zero compensations of a sum cost nothing.
+     */
+    static ByteBuffer putTerms(ByteBuffer buf, double[] terms) {
+        int first = first(terms), last = last(terms, first);
+        buf.putChar((char)first).putChar((char)(last - first));
+        for (int i = first; i < last; i++) buf.putDouble(terms[i]);
+        return buf;
+    }
+    /** Reads the terms written by {@link #putTerms(ByteBuffer, double[])} into the zero array. */
+    static double[] getTerms(ByteBuffer buf, double[] terms) {
+        int first = buf.getChar(), n = buf.getChar();
+        if (first + n > terms.length) throw new IllegalArgumentException("terms out of range: " + first + ", " + n + " of " + terms.length);
+        for (int i = first; i < first + n; i++) terms[i] = buf.getDouble();
+        return terms;
+    }
+    static int termsSize(double[] terms) {
+        int first = first(terms);
+        return 4 + 8 * (last(terms, first) - first);
+    }
+    // the negative zeros are kept
+    private static int first(double[] terms) {
+        int i = 0;
+        while (i < terms.length && doubleToRawLongBits(terms[i]) == 0L) i++;
+        return i;
+    }
+    private static int last(double[] terms, int first) {
+        int i = terms.length;
+        while (i > first && doubleToRawLongBits(terms[i - 1]) == 0L) i--;
+        return i;
     }
+    //endregion
 
     private double fin(double s) { return isNaN(s) && isInfinite(sum[0]) ? sum[0] : s; }
 }
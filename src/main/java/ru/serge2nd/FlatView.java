@@ -0,0 +1,257 @@
+package ru.serge2nd;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import static java.lang.System.arraycopy;
+
+/**
+ * An N-dimensional view over a flat primitive array (e.g. got via {@link ObjectAssist#flatArray(Object)}):
+ * the element {@code (i0, i1, ...)} is at {@code offset + i0*strides[0] + i1*strides[1] + ...} of the array.
+ * The slices, the transpositions and the reshapes are the views over the same array (no copying),
+ * {@link #unflat()} rebuilds the nested Java arrays if an API requires them.
+ * The index arguments are checked against the shape ({@link IndexOutOfBoundsException} is thrown).
+ * @param <V> type of the view
+ * @see ObjectAssist#unflat(Object, int...)
+ */
+public abstract class FlatView<V extends FlatView<V>> {
+    final Object data;
+    final int[] shape;
+    final int[] strides;
+    final int offset;
+
+    FlatView(Object data, int length, int[] shape) {
+        this(data, checkShape(shape, length), rowMajor(shape), 0);
+    }
+    FlatView(Object data, int[] shape, int[] strides, int offset) {
+        this.data = data; this.shape = shape; this.strides = strides; this.offset = offset;
+    }
+
+    abstract V view(int[] shape, int[] strides, int offset);
+
+    //region Shape
+
+    /** Get the number of the dimensions. */
+    public int dims()           { return shape.length; }
+    /** Get the length of the dimension. */
+    public int length(int dim)  { return shape[dim]; }
+    public int[] shape()        { return shape.clone(); }
+    public int[] strides()      { return strides.clone(); }
+    /** Get the number of the elements. */
+    public int size()           { return (int)NestedArrays.product(shape); }
+    /** Tells whether the elements are adjacent in the array in the row-major order. */
+    public boolean isContiguous() {
+        for (int d = shape.length - 1, stride = 1; d >= 0; d--) {
+            if (shape[d] != 1 && strides[d] != stride) return false;
+            stride *= shape[d];
+        }
+        return true;
+    }
+
+    /** Get the index in the array of the element of the given indices. */
+    public int index(int... idx) {
+        checkDims(idx.length);
+        int k = offset;
+        for (int d = 0; d < idx.length; d++) k += offsetAt(d, idx[d]);
+        return k;
+    }
+    //endregion
+
+    //region Views
+
+    /** Get the view of the range {@code [from, to)} along the dimension. */
+    public V slice(int dim, int from, int to) { return slice(dim, from, to, 1); }
+    /** Get the view of each {@code step}-th element of the range {@code [from, to)} along the dimension. */
+    public V slice(int dim, int from, int to, int step) {
+        if (from < 0 || from > to || to > shape[dim]) throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") of " + shape[dim]);
+        if (step <= 0) throw new IllegalArgumentException("non-positive step: " + step);
+        int[] shape = this.shape.clone(), strides = this.strides.clone();
+        shape[dim] = (to - from + step - 1) / step;
+        strides[dim] *= step;
+        return view(shape, strides, offset + from * this.strides[dim]);
+    }
+    /** Get the view of one less dimension at the index along the dimension. */
+    public V at(int dim, int i) {
+        int k = offset + offsetAt(dim, i);
+        return view(remove(shape, dim), remove(strides, dim), k);
+    }
+    /** Get the view of the reversed dimensions (the transposed matrix for two dimensions). */
+    public V transpose() {
+        int[] axes = new int[shape.length];
+        for (int d = 0; d < axes.length; d++) axes[d] = axes.length - 1 - d;
+        return permute(axes);
+    }
+    /** Get the view which dimension {@code d} is the dimension {@code axes[d]} of this view. */
+    public V permute(int... axes) {
+        checkDims(axes.length);
+        int[] shape = new int[axes.length], strides = new int[axes.length];
+        boolean[] seen = new boolean[axes.length];
+        for (int d = 0; d < axes.length; d++) {
+            int a = axes[d];
+            if (a < 0 || a >= axes.length || seen[a]) throw new IllegalArgumentException("not a permutation: " + Arrays.toString(axes));
+            seen[a] = true;
+            shape[d] = this.shape[a]; strides[d] = this.strides[a];
+        }
+        return view(shape, strides, offset);
+    }
+    /**
+     * Get the view of the same elements in the row-major order of another shape.
+     * @throws IllegalArgumentException if the number of the elements differs
+     * @throws IllegalStateException if the view is not {@link #isContiguous() contiguous} (make a {@link #copy()} at first)
+     */
+    public V reshape(int... shape) {
+        if (!isContiguous()) throw new IllegalStateException("not contiguous: " + this);
+        return view(checkShape(shape.clone(), size()), rowMajor(shape), offset);
+    }
+    //endregion
+
+    //region Copying
+
+    /** Creates the view over a copy of the elements of this view in the row-major order. */
+    public abstract V copy();
+    /** Creates the nested arrays of the shape of this view filled with its elements. */
+    public Object unflat() {
+        V c = isContiguous() ? null : copy();
+        return NestedArrays.unflat(c == null ? data : c.data, c == null ? offset : 0, shape, data.getClass().getComponentType());
+    }
+
+    /** Copies the elements of this view to the array from the index in the row-major order. */
+    final Object copyTo(Object dest, int pos) {
+        if (isContiguous()) { arraycopy(data, offset, dest, pos, size()); return dest; }
+        int d = shape.length - 1, n = shape[d], stride = strides[d];
+        int[] p = {pos};
+        forEachRow(stride == 1
+                ? k -> { arraycopy(data, k, dest, p[0], n); p[0] += n; }
+                : k -> { for (int i = 0; i < n; i++) arraycopy(data, k + i * stride, dest, p[0]++, 1); });
+        return dest;
+    }
+    /** Walks the starting indices of the rows (along the last dimension) in the row-major order. */
+    final void forEachRow(IntConsumer action) {
+        if (shape.length == 0) { action.accept(offset); return; }
+        if (size() == 0) return;
+        int last = shape.length - 1;
+        int[] idx = new int[shape.length];
+        for (int k = offset;;) {
+            action.accept(k);
+            int d = last - 1;
+            for (; d >= 0 && ++idx[d] == shape[d]; d--) { idx[d] = 0; k -= (shape[d] - 1) * strides[d]; }
+            if (d < 0) return;
+            k += strides[d];
+        }
+    }
+    //endregion
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{shape=" + Arrays.toString(shape) + ", strides=" + Arrays.toString(strides) + ", offset=" + offset + "}";
+    }
+
+    final int offsetAt(int d, int i) {
+        if (i < 0 || i >= shape[d]) throw new IndexOutOfBoundsException("index " + i + " of " + shape[d] + " at dimension " + d);
+        return i * strides[d];
+    }
+    final void checkDims(int n) {
+        if (n != shape.length) throw new IllegalArgumentException("expected " + shape.length + " indices, got " + n);
+    }
+
+    static int[] checkShape(int[] shape, int size) {
+        for (int n : shape) if (n < 0) throw new IllegalArgumentException("negative length: " + Arrays.toString(shape));
+        if (NestedArrays.product(shape) != size) throw new IllegalArgumentException("shape " + Arrays.toString(shape) + " does not match " + size + " elements");
+        return shape;
+    }
+    static int[] rowMajor(int[] shape) {
+        int[] strides = new int[shape.length];
+        for (int d = shape.length - 1, stride = 1; d >= 0; d--) { strides[d] = stride; stride *= shape[d]; }
+        return strides;
+    }
+    static int[] remove(int[] a, int i) {
+        int[] r = new int[a.length - 1];
+        arraycopy(a, 0, r, 0, i);
+        arraycopy(a, i + 1, r, i, r.length - i);
+        return r;
+    }
+
+    /** The view over a <code>double[]</code>. */
+    public static final class OfDouble extends FlatView<OfDouble> {
+        private final double[] a;
+
+        /**
+         * Creates the view of the row-major shape over the whole array.
+         * @throws IllegalArgumentException if the shape does not match the length of the array
+         */
+        public static OfDouble of(double[] data, int... shape) { return new OfDouble(data, shape.clone()); }
+
+        OfDouble(double[] data, int[] shape) { super(data, data.length, shape); a = data; }
+        OfDouble(double[] data, int[] shape, int[] strides, int offset) { super(data, shape, strides, offset); a = data; }
+
+        public double get(int i)               { checkDims(1); return a[offset + offsetAt(0, i)]; }
+        public double get(int i, int j)        { checkDims(2); return a[offset + offsetAt(0, i) + offsetAt(1, j)]; }
+        public double get(int i, int j, int k) { checkDims(3); return a[offset + offsetAt(0, i) + offsetAt(1, j) + offsetAt(2, k)]; }
+        public double get(int... idx)          { return a[index(idx)]; }
+        public OfDouble set(double x, int... idx) { a[index(idx)] = x; return this; }
+
+        /** Get the underlying array. */
+        public double[] data() { return a; }
+        /** Creates a copy of the elements in the row-major order. */
+        public double[] toArray() { return (double[])copyTo(new double[size()], 0); }
+
+        @Override public OfDouble copy() { return new OfDouble(toArray(), shape.clone()); }
+        @Override OfDouble view(int[] shape, int[] strides, int offset) { return new OfDouble(a, shape, strides, offset); }
+    }
+
+    /** The view over an <code>int[]</code>. */
+    public static final class OfInt extends FlatView<OfInt> {
+        private final int[] a;
+
+        /**
+         * Creates the view of the row-major shape over the whole array.
+         * @throws IllegalArgumentException if the shape does not match the length of the array
+         */
+        public static OfInt of(int[] data, int... shape) { return new OfInt(data, shape.clone()); }
+
+        OfInt(int[] data, int[] shape) { super(data, data.length, shape); a = data; }
+        OfInt(int[] data, int[] shape, int[] strides, int offset) { super(data, shape, strides, offset); a = data; }
+
+        public int get(int i)               { checkDims(1); return a[offset + offsetAt(0, i)]; }
+        public int get(int i, int j)        { checkDims(2); return a[offset + offsetAt(0, i) + offsetAt(1, j)]; }
+        public int get(int i, int j, int k) { checkDims(3); return a[offset + offsetAt(0, i) + offsetAt(1, j) + offsetAt(2, k)]; }
+        public int get(int... idx)          { return a[index(idx)]; }
+        public OfInt set(int x, int... idx) { a[index(idx)] = x; return this; }
+
+        /** Get the underlying array. */
+        public int[] data() { return a; }
+        /** Creates a copy of the elements in the row-major order. */
+        public int[] toArray() { return (int[])copyTo(new int[size()], 0); }
+
+        @Override public OfInt copy() { return new OfInt(toArray(), shape.clone()); }
+        @Override OfInt view(int[] shape, int[] strides, int offset) { return new OfInt(a, shape, strides, offset); }
+    }
+
+    /** The view over a <code>long[]</code>. */
+    public static final class OfLong extends FlatView<OfLong> {
+        private final long[] a;
+
+        /**
+         * Creates the view of the row-major shape over the whole array.
+         * @throws IllegalArgumentException if the shape does not match the length of the array
+         */
+        public static OfLong of(long[] data, int... shape) { return new OfLong(data, shape.clone()); }
+
+        OfLong(long[] data, int[] shape) { super(data, data.length, shape); a = data; }
+        OfLong(long[] data, int[] shape, int[] strides, int offset) { super(data, shape, strides, offset); a = data; }
+
+        public long get(int i)               { checkDims(1); return a[offset + offsetAt(0, i)]; }
+        public long get(int i, int j)        { checkDims(2); return a[offset + offsetAt(0, i) + offsetAt(1, j)]; }
+        public long get(int i, int j, int k) { checkDims(3); return a[offset + offsetAt(0, i) + offsetAt(1, j) + offsetAt(2, k)]; }
+        public long get(int... idx)          { return a[index(idx)]; }
+        public OfLong set(long x, int... idx) { a[index(idx)] = x; return this; }
+
+        /** Get the underlying array. */
+        public long[] data() { return a; }
+        /** Creates a copy of the elements in the row-major order. */
+        public long[] toArray() { return (long[])copyTo(new long[size()], 0); }
+
+        @Override public OfLong copy() { return new OfLong(toArray(), shape.clone()); }
+        @Override OfLong view(int[] shape, int[] strides, int offset) { return new OfLong(a, shape, strides, offset); }
+    }
+}
@@ -0,0 +1,277 @@
+package ru.serge2nd;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Arrays.copyOf;
+import static ru.serge2nd.DoubleAlgs.compensationStep;
+
+/**
+ * Accumulating compensating sums of <code>double</code> values per group key without an object per group.
+ * The groups are numbered in the order of their first values, the sums and the compensations of all the groups are kept
+ * in two parallel <code>double[]</code>, the keys in a third array (primitive for {@link OfLong} and {@link OfInt}),
+ * and the open-addressed table (linear probing) maps the key hashes to the group numbers.
+ * So a group takes 24 bytes for <code>long</code> keys (20 for <code>int</code> ones) plus a few bytes of the table.
+ * The sums are of {@link DoubleAlgs#neumaierSum(double[], double)} via {@link DoubleAlgs#compensationStep(double[], double, int)}.
+ * The instances are mergeable, so they are suitable for parallel streams (see {@link ru.serge2nd.stream.GroupingCollectors}).
+ */
+public abstract class GroupedDoubleSum {
+    static final int MIN_CAPACITY = 8;
+
+    double[] sums;
+    double[] comps;
+    private int[] table; // group number + 1 or 0 if the slot is free
+    int size;
+
+    GroupedDoubleSum(int expectedGroups) {
+        if (expectedGroups < 0) throw new IllegalArgumentException("negative expected groups: " + expectedGroups);
+        int capacity = Math.max(MIN_CAPACITY, expectedGroups);
+        this.sums  = new double[capacity];
+        this.comps = new double[capacity];
+        this.table = new int[tableSize(capacity)];
+    }
+
+    /** Get the number of the groups. */
+    public int size() { return size; }
+    /** Get the sum of the group {@code g} (numbered in the order of the first values). */
+    public double sum(int g) {
+        if (g >= size) throw new IndexOutOfBoundsException("group " + g + " of " + size);
+        return sums[g] + comps[g];
+    }
+    /** Get the sums of all the groups in the order of the groups. */
+    public double[] sums() {
+        double[] r = new double[size];
+        for (int g = 0; g < size; g++) r[g] = sums[g] + comps[g];
+        return r;
+    }
+
+    /** Get the hash of the key of the group {@code g}. */
+    abstract int hashAt(int g);
+    abstract void growKeys(int capacity);
+
+    final void addAt(int g, double x) { comps[g] += compensationStep(sums, x, g); }
+    final void addTerms(int g, GroupedDoubleSum other, int h) {
+        addAt(g, other.sums[h]); addAt(g, other.comps[h]);
+    }
+
+    /** Get the first slot of the hash in the table. */
+    final int slot(int hash)      { return hash & (table.length - 1); }
+    final int next(int slot)      { return (slot + 1) & (table.length - 1); }
+    /** Get the group number in the slot or -1 if the slot is free. */
+    final int groupAt(int slot)   { return table[slot] - 1; }
+
+    /** Registers the new group in the free slot, its key is to be set by the caller at the returned number. */
+    final int newGroup(int slot) {
+        int g = size++;
+        if (g == sums.length) {
+            int capacity = g + (g >> 1);
+            sums  = copyOf(sums , capacity);
+            comps = copyOf(comps, capacity);
+            growKeys(capacity);
+        }
+        table[slot] = g + 1;
+        return g;
+    }
+    /** Rehashes the table if it is too full, to be called after the key of the new group is set. */
+    final void rehashIfFull() {
+        if (size <= table.length - (table.length >> 2)) return;
+        table = new int[table.length << 1];
+        for (int g = 0; g < size; g++) {
+            int s = slot(hashAt(g));
+            while (table[s] != 0) s = next(s);
+            table[s] = g + 1;
+        }
+    }
+
+    static int tableSize(int capacity) {
+        int n = Integer.highestOneBit(capacity + (capacity / 3));
+        return n < capacity + (capacity / 3) ? n << 1 : n;
+    }
+    static int mix(int h)  { h *= 0x9E3779B9; return h ^ (h >>> 16); }
+    static int mix(long k) { return mix((int)(k ^ (k >>> 32))); }
+
+    /** The sums grouped by <code>long</code> keys. */
+    public static final class OfLong extends GroupedDoubleSum {
+        private long[] keys;
+
+        public OfLong() { this(0); }
+        /** @param expectedGroups number of the groups to allocate the arrays for */
+        public OfLong(int expectedGroups) {
+            super(expectedGroups);
+            keys = new long[sums.length];
+        }
+
+        public OfLong add(long key, double x) {
+            addAt(group(key), x); return this;
+        }
+        /** Adds the sums of another instance to the groups of the same keys. */
+        public OfLong merge(OfLong other) {
+            for (int h = 0; h < other.size; h++) addTerms(group(other.keys[h]), other, h);
+            return this;
+        }
+
+        /** Get the number of the group of the key or -1 if no such group. */
+        public int indexOf(long key) {
+            for (int s = slot(mix(key));; s = next(s)) {
+                int g = groupAt(s);
+                if (g < 0 || keys[g] == key) return g;
+            }
+        }
+        /** Get the sum of the key or zero if no such group. */
+        public double get(long key) {
+            int g = indexOf(key);
+            return g < 0 ? 0.0 : sum(g);
+        }
+        /** Get the key of the group {@code g}. */
+        public long key(int g) {
+            if (g >= size) throw new IndexOutOfBoundsException("group " + g + " of " + size);
+            return keys[g];
+        }
+        /** Creates a map of the keys to the sums in the order of the groups. */
+        public Map<Long, Double> toMap() {
+            Map<Long, Double> m = new LinkedHashMap<>(size + (size / 3) + 1);
+            for (int g = 0; g < size; g++) m.put(keys[g], sums[g] + comps[g]);
+            return m;
+        }
+
+        int group(long key) {
+            for (int s = slot(mix(key));; s = next(s)) {
+                int g = groupAt(s);
+                if (g >= 0 && keys[g] == key) return g;
+                if (g < 0) {
+                    g = newGroup(s);
+                    keys[g] = key;
+                    rehashIfFull();
+                    return g;
+                }
+            }
+        }
+        @Override int hashAt(int g)             { return mix(keys[g]); }
+        @Override void growKeys(int capacity)   { keys = copyOf(keys, capacity); }
+    }
+
+    /** The sums grouped by <code>int</code> keys. */
+    public static final class OfInt extends GroupedDoubleSum {
+        private int[] keys;
+
+        public OfInt() { this(0); }
+        /** @param expectedGroups number of the groups to allocate the arrays for */
+        public OfInt(int expectedGroups) {
+            super(expectedGroups);
+            keys = new int[sums.length];
+        }
+
+        public OfInt add(int key, double x) {
+            addAt(group(key), x); return this;
+        }
+        /** Adds the sums of another instance to the groups of the same keys. */
+        public OfInt merge(OfInt other) {
+            for (int h = 0; h < other.size; h++) addTerms(group(other.keys[h]), other, h);
+            return this;
+        }
+
+        /** Get the number of the group of the key or -1 if no such group. */
+        public int indexOf(int key) {
+            for (int s = slot(mix(key));; s = next(s)) {
+                int g = groupAt(s);
+                if (g < 0 || keys[g] == key) return g;
+            }
+        }
+        /** Get the sum of the key or zero if no such group. */
+        public double get(int key) {
+            int g = indexOf(key);
+            return g < 0 ? 0.0 : sum(g);
+        }
+        /** Get the key of the group {@code g}. */
+        public int key(int g) {
+            if (g >= size) throw new IndexOutOfBoundsException("group " + g + " of " + size);
+            return keys[g];
+        }
+        /** Creates a map of the keys to the sums in the order of the groups. */
+        public Map<Integer, Double> toMap() {
+            Map<Integer, Double> m = new LinkedHashMap<>(size + (size / 3) + 1);
+            for (int g = 0; g < size; g++) m.put(keys[g], sums[g] + comps[g]);
+            return m;
+        }
+
+        int group(int key) {
+            for (int s = slot(mix(key));; s = next(s)) {
+                int g = groupAt(s);
+                if (g >= 0 && keys[g] == key) return g;
+                if (g < 0) {
+                    g = newGroup(s);
+                    keys[g] = key;
+                    rehashIfFull();
+                    return g;
+                }
+            }
+        }
+        @Override int hashAt(int g)             { return mix(keys[g]); }
+        @Override void growKeys(int capacity)   { keys = copyOf(keys, capacity); }
+    }
+
+    /** The sums grouped by object keys compared via {@link Object#equals(Object)} ({@code null} is a key too). */
+    public static final class OfObject<K> extends GroupedDoubleSum {
+        private Object[] keys;
+
+        public OfObject() { this(0); }
+        /** @param expectedGroups number of the groups to allocate the arrays for */
+        public OfObject(int expectedGroups) {
+            super(expectedGroups);
+            keys = new Object[sums.length];
+        }
+
+        public OfObject<K> add(K key, double x) {
+            addAt(group(key), x); return this;
+        }
+        /** Adds the sums of another instance to the groups of the same keys. */
+        public OfObject<K> merge(OfObject<K> other) {
+            for (int h = 0; h < other.size; h++) addTerms(group(other.keys[h]), other, h);
+            return this;
+        }
+
+        /** Get the number of the group of the key or -1 if no such group. */
+        public int indexOf(Object key) {
+            for (int s = slot(hash(key));; s = next(s)) {
+                int g = groupAt(s);
+                if (g < 0 || eq(keys[g], key)) return g;
+            }
+        }
+        /** Get the sum of the key or zero if no such group. */
+        public double get(Object key) {
+            int g = indexOf(key);
+            return g < 0 ? 0.0 : sum(g);
+        }
+        /** Get the key of the group {@code g}. */
+        @SuppressWarnings("unchecked")
+        public K key(int g) {
+            if (g >= size) throw new IndexOutOfBoundsException("group " + g + " of " + size);
+            return (K)keys[g];
+        }
+        /** Creates a map of the keys to the sums in the order of the groups. */
+        @SuppressWarnings("unchecked")
+        public Map<K, Double> toMap() {
+            Map<K, Double> m = new LinkedHashMap<>(size + (size / 3) + 1);
+            for (int g = 0; g < size; g++) m.put((K)keys[g], sums[g] + comps[g]);
+            return m;
+        }
+
+        int group(Object key) {
+            for (int s = slot(hash(key));; s = next(s)) {
+                int g = groupAt(s);
+                if (g >= 0 && eq(keys[g], key)) return g;
+                if (g < 0) {
+                    g = newGroup(s);
+                    keys[g] = key;
+                    rehashIfFull();
+                    return g;
+                }
+            }
+        }
+        @Override int hashAt(int g)             { return hash(keys[g]); }
+        @Override void growKeys(int capacity)   { keys = copyOf(keys, capacity); }
+
+        static int hash(Object key)             { return key == null ? 0 : mix(key.hashCode()); }
+        static boolean eq(Object a, Object b)   { return a == b || a != null && a.equals(b); }
+    }
+}
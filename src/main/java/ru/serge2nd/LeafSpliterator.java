@@ -0,0 +1,220 @@
+package ru.serge2nd;
+
+import java.lang.reflect.Array;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * A spliterator over the elements of the leaf arrays (the sub-arrays of the last dimension) of nested arrays
+ * of at least two dimensions, see {@link ObjectAssist#leafSpliterator(Object)}.
+ * The sub-arrays are walked lazily with a primitive index stack, the spliterator splits along the outer dimension
+ * (the only remaining outer sub-array becomes the new outer array to continue splitting).
+ * The numbers of the elements of the outer sub-arrays are counted on the first request of the size
+ * and shared by the split spliterators, so the sizes are exact.
+ * @param <T> type of the elements
+ * @param <S> type of the spliterator
+ */
+abstract class LeafSpliterator<T, S extends Spliterator<T>> implements Spliterator<T> {
+    static final int CHARACTERISTICS = ORDERED | IMMUTABLE | SIZED | SUBSIZED;
+
+    private Counts counts;
+    private Object[] outer;
+    private int dims, start, to;
+    private final Object[][] path;
+    private final int[] next;
+    private int depth;
+    private long consumed;
+
+    Object leaf;
+    int pos, len;
+
+    LeafSpliterator(Object[] outer, int dims) {
+        this(new Counts(outer, dims), outer, dims, 0, outer.length);
+    }
+    LeafSpliterator(Counts counts, Object[] outer, int dims, int from, int to) {
+        this.path = new Object[dims - 1][];
+        this.next = new int[dims - 1];
+        root(counts, outer, dims, from, to);
+    }
+
+    abstract S create(Counts counts, Object[] outer, int dims, int from, int to);
+
+    /** Splits the remaining outer sub-arrays in halves unless an outer sub-array is being traversed. */
+    @Override
+    public S trySplit() {
+        if (depth != 0 || pos != len) return null;
+        if (next[0] == to - 1 && dims > 2) {
+            Object[] slice = (Object[])outer[next[0]];
+            if (slice == null) return null;
+            root(new Counts(slice, dims - 1), slice, dims - 1, 0, slice.length);
+        }
+        int lo = next[0], mid = (lo + to) >>> 1;
+        if (mid <= lo) return null;
+
+        S prefix = create(counts, outer, dims, lo, mid);
+        root(counts, outer, dims, mid, to);
+        return prefix;
+    }
+    @Override
+    public long estimateSize() {
+        long[] offsets = counts.offsets();
+        return offsets[to] - offsets[start] - consumed - pos;
+    }
+    @Override
+    public int characteristics() { return CHARACTERISTICS; }
+
+    /**
+     * Moves to the next non-empty leaf array.
+     * @return {@code false} if no more leaves
+     */
+    final boolean nextLeaf() {
+        consumed += len;
+        pos = len = 0;
+        int last = dims - 2;
+        for (int d = depth; d >= 0;) {
+            Object[] node = path[d];
+            if (next[d] >= (d == 0 ? to : node == null ? 0 : node.length)) { d--; continue; }
+
+            Object child = node[next[d]++];
+            if (d == last) {
+                int n = NestedArrays.length(child);
+                if (n > 0) { depth = d; leaf = child; len = n; return true; }
+            } else {
+                path[++d] = (Object[])child;
+                next[d] = 0;
+            }
+        }
+        depth = 0;
+        leaf = null;
+        return false;
+    }
+
+    private void root(Counts counts, Object[] outer, int dims, int from, int to) {
+        this.counts = counts; this.outer = outer; this.dims = dims;
+        this.start = from; this.to = to;
+        this.path[0] = outer; this.next[0] = from;
+        this.depth = 0; this.consumed = 0L;
+        this.leaf = null; this.pos = this.len = 0;
+    }
+
+    /** The lazily counted offsets of the elements of the outer sub-arrays. */
+    static final class Counts {
+        final Object[] outer;
+        final int dims;
+        volatile long[] offsets;
+
+        Counts(Object[] outer, int dims) { this.outer = outer; this.dims = dims; }
+
+        long[] offsets() {
+            long[] offsets = this.offsets;
+            if (offsets != null) return offsets;
+            offsets = new long[outer.length + 1];
+            for (int i = 0; i < outer.length; i++) offsets[i + 1] = offsets[i] + NestedArrays.count(outer[i], dims - 1);
+            return this.offsets = offsets;
+        }
+    }
+
+    /** The spliterator over object leaf arrays (or the primitive ones of other than <code>int</code>, <code>long</code> and <code>double</code> elements boxed). */
+    static final class OfRef<T> extends LeafSpliterator<T, Spliterator<T>> {
+        OfRef(Object[] outer, int dims) { super(outer, dims); }
+        OfRef(Counts counts, Object[] outer, int dims, int from, int to) { super(counts, outer, dims, from, to); }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (pos == len && !nextLeaf()) return false;
+            action.accept(get(leaf, pos++));
+            return true;
+        }
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            do {
+                Object leaf = this.leaf;
+                for (int i = pos; i < len; i++) action.accept(get(leaf, i));
+                pos = len;
+            } while (nextLeaf());
+        }
+        @Override
+        Spliterator<T> create(Counts counts, Object[] outer, int dims, int from, int to) { return new OfRef<>(counts, outer, dims, from, to); }
+
+        @SuppressWarnings("unchecked")
+        static <T> T get(Object leaf, int i) { return (T)(leaf instanceof Object[] ? ((Object[])leaf)[i] : Array.get(leaf, i)); }
+    }
+
+    /** The spliterator over <code>int[]</code> leaf arrays. */
+    static final class OfInt extends LeafSpliterator<Integer, Spliterator.OfInt> implements Spliterator.OfInt {
+        OfInt(Object[] outer, int dims) { super(outer, dims); }
+        OfInt(Counts counts, Object[] outer, int dims, int from, int to) { super(counts, outer, dims, from, to); }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (pos == len && !nextLeaf()) return false;
+            action.accept(((int[])leaf)[pos++]);
+            return true;
+        }
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            do {
+                int[] a = (int[])leaf;
+                for (int i = pos; i < len; i++) action.accept(a[i]);
+                pos = len;
+            } while (nextLeaf());
+        }
+        @Override
+        public int characteristics() { return CHARACTERISTICS | NONNULL; }
+        @Override
+        Spliterator.OfInt create(Counts counts, Object[] outer, int dims, int from, int to) { return new LeafSpliterator.OfInt(counts, outer, dims, from, to); }
+    }
+
+    /** The spliterator over <code>long[]</code> leaf arrays. */
+    static final class OfLong extends LeafSpliterator<Long, Spliterator.OfLong> implements Spliterator.OfLong {
+        OfLong(Object[] outer, int dims) { super(outer, dims); }
+        OfLong(Counts counts, Object[] outer, int dims, int from, int to) { super(counts, outer, dims, from, to); }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (pos == len && !nextLeaf()) return false;
+            action.accept(((long[])leaf)[pos++]);
+            return true;
+        }
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            do {
+                long[] a = (long[])leaf;
+                for (int i = pos; i < len; i++) action.accept(a[i]);
+                pos = len;
+            } while (nextLeaf());
+        }
+        @Override
+        public int characteristics() { return CHARACTERISTICS | NONNULL; }
+        @Override
+        Spliterator.OfLong create(Counts counts, Object[] outer, int dims, int from, int to) { return new LeafSpliterator.OfLong(counts, outer, dims, from, to); }
+    }
+
+    /** The spliterator over <code>double[]</code> leaf arrays. */
+    static final class OfDouble extends LeafSpliterator<Double, Spliterator.OfDouble> implements Spliterator.OfDouble {
+        OfDouble(Object[] outer, int dims) { super(outer, dims); }
+        OfDouble(Counts counts, Object[] outer, int dims, int from, int to) { super(counts, outer, dims, from, to); }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (pos == len && !nextLeaf()) return false;
+            action.accept(((double[])leaf)[pos++]);
+            return true;
+        }
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            do {
+                double[] a = (double[])leaf;
+                for (int i = pos; i < len; i++) action.accept(a[i]);
+                pos = len;
+            } while (nextLeaf());
+        }
+        @Override
+        public int characteristics() { return CHARACTERISTICS | NONNULL; }
+        @Override
+        Spliterator.OfDouble create(Counts counts, Object[] outer, int dims, int from, int to) { return new LeafSpliterator.OfDouble(counts, outer, dims, from, to); }
+    }
+}
@@ -0,0 +1,122 @@
+package ru.serge2nd;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+import static java.lang.Long.compareUnsigned;
+
+/**
+ * Accumulating a sum of <code>long</code> values exactly in a 128-bit two's complement integer of two longs
+ * ({@code hi * 2^64 + unsigned lo}), so the sum cannot overflow before 2^64 adds of the largest values.
+ * The adds do not allocate, the result is converted to {@link BigInteger} only on demand.
+ * @see DecimalSum
+ */
+public class LongSum implements Comparable<LongSum> {
+    /** The number of bytes {@link #writeTo(ByteBuffer)} writes. */
+    public static final int BYTES = 2 * Long.BYTES;
+    private static final BigInteger TWO_64 = BigInteger.ONE.shiftLeft(64);
+
+    private long hi, lo;
+
+    public static LongSum of(long... xs) {
+        return new LongSum().addAll(xs, 0, xs.length);
+    }
+
+    public LongSum() {}
+    /** Creates the sum of the value {@code hi * 2^64 + unsigned lo}. */
+    public LongSum(long hi, long lo) { this.hi = hi; this.lo = lo; }
+
+    public LongSum add(long x) {
+        long s = lo + x;
+        hi += (x >> 63) + carry(lo, x, s);
+        lo = s;
+        return this;
+    }
+    /**
+     * Adds the values from the range {@code [from, to)} of {@code xs}.
+     * The high and the low 32-bit halves of the values are summed into two plain longs
+     * (they cannot overflow for any array), so the loop runs at the speed of a plain <code>long</code> sum.
+     */
+    public LongSum addAll(long[] xs, int from, int to) {
+        long his = 0L, los = 0L;
+        for (int i = from; i < to; i++) {
+            long x = xs[i];
+            his += x >> 32;
+            los += x & 0xffffffffL;
+        }
+        return add128(his >> 32, his << 32).add128(0L, los);
+    }
+    /** Adds the sum accumulated by another instance. */
+    public LongSum merge(LongSum other) {
+        return add128(other.hi, other.lo);
+    }
+
+    public LongSum negate() {
+        lo = -lo;
+        hi = lo == 0L ? -hi : ~hi;
+        return this;
+    }
+
+    /** Get the high 64 bits of the sum. */
+    public long hi() { return hi; }
+    /** Get the low 64 bits of the sum (unsigned). */
+    public long lo() { return lo; }
+    /** Get the sign of the sum: -1, 0 or 1. */
+    public int signum() { return hi < 0 ? -1 : (hi | lo) == 0L ? 0 : 1; }
+
+    /** Get the exact sum. */
+    public BigInteger toBigInteger() {
+        BigInteger l = BigInteger.valueOf(lo);
+        if (lo < 0) l = l.add(TWO_64);
+        return BigInteger.valueOf(hi).shiftLeft(64).add(l);
+    }
+    /**
+     * Get the sum as a <code>long</code>.
+     * @throws ArithmeticException if the sum does not fit
+     */
+    public long longValueExact() {
+        if (hi != (lo >> 63)) throw new ArithmeticException("long overflow: " + this);
+        return lo;
+    }
+    /** Get the sum rounded to a <code>double</code>. */
+    public double doubleValue() {
+        return hi == (lo >> 63) ? (double)lo : toBigInteger().doubleValue();
+    }
+
+    /** Writes the high and the low 64 bits, the position of the buffer is advanced. */
+    public ByteBuffer writeTo(ByteBuffer buf) { return buf.putLong(hi).putLong(lo); }
+    /** Reads the sum written by {@link #writeTo(ByteBuffer)}, the position of the buffer is advanced. */
+    public static LongSum readFrom(ByteBuffer buf) { return new LongSum(buf.getLong(), buf.getLong()); }
+
+    @Override
+    public int compareTo(LongSum o) {
+        int c = Long.compare(hi, o.hi);
+        return c != 0 ? c : compareUnsigned(lo, o.lo);
+    }
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LongSum)) return false;
+        LongSum s = (LongSum)o;
+        return hi == s.hi && lo == s.lo;
+    }
+    @Override
+    public int hashCode() {
+        long h = hi * 31 + lo;
+        return (int)(h ^ (h >>> 32));
+    }
+    @Override
+    public String toString() {
+        return hi == (lo >> 63) ? Long.toString(lo) : toBigInteger().toString();
+    }
+
+    LongSum add128(long h, long l) {
+        long s = lo + l;
+        hi += h + carry(lo, l, s);
+        lo = s;
+        return this;
+    }
+
+    /** Get the carry (0 or 1) of the unsigned sum {@code s = a + b}. */
+    static long carry(long a, long b, long s) { return ((a & b) | ((a | b) & ~s)) >>> 63; }
+}
@@ -0,0 +1,158 @@
+package ru.serge2nd;
+
+import java.util.stream.IntStream;
+
+import static java.lang.System.arraycopy;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.reflect.Array.newInstance;
+import static ru.serge2nd.ObjectAssist.errNotInstantiable;
+
+/**
+ * The engine of {@link ObjectAssist#flatArray(Object)} and the like walking the nested arrays
+ * with a primitive index stack, the lengths are taken via casts (not reflection).
+ * The leaf arrays are the sub-arrays of the last dimension, {@code null} sub-arrays are treated as empty.
+ */
+final class NestedArrays {
+    private NestedArrays() { throw errNotInstantiable(lookup()); }
+
+    /** The minimal number of the elements to flatten in parallel. */
+    static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    @FunctionalInterface
+    interface LeafVisitor {
+        /** @return {@code false} to stop the walk */
+        boolean visit(Object leaf);
+    }
+
+    /**
+     * Flattens the array of the given number of dimensions.
+     * At first the array is assumed to be rectangular, so it is copied in one pass into the array of the size of its shape
+     * (taken along the first sub-arrays), otherwise the elements are counted and copied in the second pass.
+     */
+    static Object flat(Object a, int dims, Class<?> component) {
+        long total = product(firstShape(a, dims));
+        if (total <= Integer.MAX_VALUE) {
+            Object flat = newInstance(component, (int)total);
+            if (copy(a, dims, flat, 0, (int)total) == total) return flat;
+        }
+        Object flat = newInstance(component, checkSize(count(a, dims)));
+        copy(a, dims, flat, 0, length(flat));
+        return flat;
+    }
+
+    /**
+     * Flattens the array copying the disjoint slices of the outer dimension concurrently
+     * (the slices are counted concurrently too), falls back to {@link #flat(Object, int, Class)} for small arrays.
+     */
+    static Object parallelFlat(Object a, int dims, Class<?> component) {
+        if (dims == 1) return flat(a, dims, component);
+        Object[] slices = (Object[])a;
+        long[] offsets = new long[slices.length + 1];
+        IntStream.range(0, slices.length).parallel().forEach(i -> offsets[i + 1] = count(slices[i], dims - 1));
+        for (int i = 0; i < slices.length; i++) offsets[i + 1] += offsets[i];
+
+        Object flat = newInstance(component, checkSize(offsets[slices.length]));
+        IntStream range = IntStream.range(0, slices.length);
+        (offsets[slices.length] < PARALLEL_THRESHOLD ? range : range.parallel())
+                .forEach(i -> copy(slices[i], dims - 1, flat, (int)offsets[i], (int)offsets[i + 1]));
+        return flat;
+    }
+
+    /**
+     * Copies the elements of the array to {@code flat} from {@code pos} unless {@code end} is exceeded.
+     * @return the position after the last copied element or -1 if {@code end} is exceeded
+     */
+    static long copy(Object a, int dims, Object flat, int pos, int end) {
+        int[] p = {pos};
+        boolean done = forEachLeaf(a, dims, leaf -> {
+            int n = length(leaf);
+            if (n > end - p[0]) return false;
+            if (n > 0) arraycopy(leaf, 0, flat, p[0], n);
+            p[0] += n;
+            return true;
+        });
+        return done ? p[0] : -1;
+    }
+
+    /** Counts the elements of the array of the given number of dimensions. */
+    static long count(Object a, int dims) {
+        long[] n = {0L};
+        forEachLeaf(a, dims, leaf -> { n[0] += length(leaf); return true; });
+        return n[0];
+    }
+
+    /**
+     * Walks the leaf arrays in order.
+     * @return {@code false} if the visitor stopped the walk
+     */
+    static boolean forEachLeaf(Object a, int dims, LeafVisitor visitor) {
+        if (dims == 1) return visitor.visit(a);
+
+        int last = dims - 2;
+        Object[][] path = new Object[dims - 1][];
+        int[] next = new int[dims - 1];
+        path[0] = (Object[])a;
+        for (int d = 0; d >= 0;) {
+            Object[] node = path[d];
+            if (node == null || next[d] == node.length) { d--; continue; }
+
+            Object child = node[next[d]++];
+            if (d == last) {
+                if (!visitor.visit(child)) return false;
+            } else {
+                path[++d] = (Object[])child;
+                next[d] = 0;
+            }
+        }
+        return true;
+    }
+
+    /** Creates the nested arrays of the shape filled with the elements of {@code flat} from {@code pos}. */
+    static Object unflat(Object flat, int pos, int[] shape, Class<?> component) {
+        Object nested = newInstance(component, shape);
+        int[] p = {pos};
+        forEachLeaf(nested, shape.length, leaf -> {
+            int n = length(leaf);
+            arraycopy(flat, p[0], leaf, 0, n);
+            p[0] += n;
+            return true;
+        });
+        return nested;
+    }
+
+    /** Get the lengths of the array and its first sub-arrays at each level (the shape if the array is rectangular). */
+    static int[] firstShape(Object a, int dims) {
+        int[] shape = new int[dims];
+        for (int d = 0; d < dims && a != null; d++) {
+            shape[d] = length(a);
+            a = d < dims - 1 && shape[d] > 0 ? ((Object[])a)[0] : null;
+        }
+        return shape;
+    }
+
+    static long product(int[] shape) {
+        long p = 1L;
+        for (int n : shape) if ((p *= n) > Integer.MAX_VALUE) return Long.MAX_VALUE;
+        return p;
+    }
+
+    static int checkSize(long n) {
+        if (n > Integer.MAX_VALUE) throw new IllegalArgumentException("too many elements: " + n);
+        return (int)n;
+    }
+
+    /** Get the length of the array or zero if {@code null}. */
+    static int length(Object a) {
+        if (a == null)              return 0;
+        if (a instanceof Object[])  return ((Object[])a).length;
+        if (a instanceof double[])  return ((double[])a).length;
+        if (a instanceof int[])     return ((int[])a).length;
+        if (a instanceof long[])    return ((long[])a).length;
+        if (a instanceof float[])   return ((float[])a).length;
+        if (a instanceof byte[])    return ((byte[])a).length;
+        if (a instanceof short[])   return ((short[])a).length;
+        if (a instanceof char[])    return ((char[])a).length;
+        if (a instanceof boolean[]) return ((boolean[])a).length;
+        throw new IllegalArgumentException("not an array: " + a.getClass().getName());
+    }
+}
@@ -1,22 +1,26 @@
 package ru.serge2nd;
 
 import lombok.SneakyThrows;
+import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
+import ru.serge2nd.type.ArrayMeta;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles.Lookup;
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-import static java.lang.System.arraycopy;
+import static java.lang.invoke.MethodHandles.insertArguments;
 import static java.lang.invoke.MethodHandles.lookup;
 import static java.lang.invoke.MethodType.methodType;
-import static java.lang.reflect.Array.getLength;
 import static java.lang.reflect.Array.newInstance;
-import static java.util.Collections.singleton;
 import static org.springframework.util.ObjectUtils.isArray;
 import static org.springframework.util.StringUtils.hasText;
 
@@ -28,7 +32,48 @@ public class ObjectAssist {
     /** The default type which instances are returned by {@link #nullRefError(String)}. */
     public static Class<? extends Throwable> DEFAULT_NULL_REF_ERROR_TYPE = IllegalArgumentException.class;
 
+    /** The system property containing the {@link NullRefErrorMode} of {@link #nullRefError(String)} (case-insensitive). */
+    public static final String               P_NULL_REF_ERROR_MODE       = "nullRefErrorMode";
+    /** The maximal number of the messages which errors are cached in the {@link NullRefErrorMode#CACHED} mode. */
+    public static final int                  NULL_REF_ERROR_CACHE_SIZE   = 1024;
+
+    /** The modes of creating the errors by {@link #nullRefError(String)}. */
+    public enum NullRefErrorMode {
+        /** A new error with the stack trace, the default. */
+        FULL,
+        /**
+         * A new error without the stack trace: {@link StacklessIllegalArgumentException} for the default type
+         * (the suppression stays enabled as {@link IllegalArgumentException} cannot disable it),
+         * a type specified in {@link #P_NULL_REF_ERROR_TYPE} must have the public constructor of
+         * {@link Throwable#Throwable(String, Throwable, boolean, boolean) (String, Throwable, boolean, boolean)}
+         * called with the suppression disabled and the cause set to {@code null}.
+         */
+        STACKLESS,
+        /**
+         * The {@link #STACKLESS} error cached per message (up to {@link #NULL_REF_ERROR_CACHE_SIZE} messages),
+         * so no allocations happen on the repeated failures.
+         * Only the errors with the suppression disabled are cached (i.e. of a type specified in {@link #P_NULL_REF_ERROR_TYPE}),
+         * so the shared errors collect no suppressed exceptions (e.g. of try-with-resources) and reject {@link Throwable#initCause(Throwable)}.
+         * The errors of the default type are created as of {@link #STACKLESS}, so this mode caches nothing
+         * unless {@link #P_NULL_REF_ERROR_TYPE} is set (a warning is logged on the class initialization then).
+         */
+        CACHED
+    }
+
+    private static final NullRefErrorMode NULL_REF_ERROR_MODE = nullRefErrorMode();
     private static final MethodHandle NULL_REF_ERROR_CONSTRUCTOR = nullRefErrorConstructor();
+    private static final ConcurrentMap<String, Throwable> NULL_REF_ERRORS = nullRefErrors();
+    private static NullRefErrorMode nullRefErrorMode() {
+        String mode = System.getProperty(P_NULL_REF_ERROR_MODE);
+        return hasText(mode) ? NullRefErrorMode.valueOf(mode.trim().toUpperCase(Locale.ROOT)) : NullRefErrorMode.FULL;
+    }
+    private static ConcurrentMap<String, Throwable> nullRefErrors() {
+        if (NULL_REF_ERROR_MODE != NullRefErrorMode.CACHED) return null;
+        if (!suppressible(newNullRefError(null))) return new ConcurrentHashMap<>();
+        LoggerFactory.getLogger(ObjectAssist.class).warn("{}={} caches nothing without {}, the errors are created as of {}",
+                P_NULL_REF_ERROR_MODE, NullRefErrorMode.CACHED, P_NULL_REF_ERROR_TYPE, NullRefErrorMode.STACKLESS);
+        return null;
+    }
     @SneakyThrows
     private static MethodHandle nullRefErrorConstructor() {
         String errorTypeName = System.getProperty(P_NULL_REF_ERROR_TYPE);
@@ -36,7 +81,11 @@ public class ObjectAssist {
                 ? Class.forName(errorTypeName)
                 : IllegalArgumentException.class;
         if (!Throwable.class.isAssignableFrom(errorType)) throw new IllegalArgumentException("not throwable: " + errorType.getName());
-        return lookup().findConstructor(errorType, methodType(void.class, String.class));
+        if (NULL_REF_ERROR_MODE == NullRefErrorMode.FULL)
+            return lookup().findConstructor(errorType, methodType(void.class, String.class));
+        if (errorType == IllegalArgumentException.class)
+            return lookup().findConstructor(StacklessIllegalArgumentException.class, methodType(void.class, String.class));
+        return insertArguments(lookup().findConstructor(errorType, methodType(void.class, String.class, Throwable.class, boolean.class, boolean.class)), 1, null, false, false);
     }
 
     /**
@@ -66,10 +115,25 @@ public class ObjectAssist {
     }
     /**
      * Instantiates a {@link Throwable} with the given message
-     * and the type specified in the {@link #P_NULL_REF_ERROR_TYPE} system property.
+     * and the type specified in the {@link #P_NULL_REF_ERROR_TYPE} system property
+     * or returns the cached one if the {@link NullRefErrorMode#CACHED} mode is specified in the {@link #P_NULL_REF_ERROR_MODE} system property.
      */
+    public static Throwable nullRefError(String msg) {
+        if (NULL_REF_ERRORS == null || msg == null) return newNullRefError(msg);
+
+        Throwable t = NULL_REF_ERRORS.get(msg);
+        if (t != null) return t;
+        t = newNullRefError(msg);
+        if (NULL_REF_ERRORS.size() >= NULL_REF_ERROR_CACHE_SIZE) return t;
+        Throwable cached = NULL_REF_ERRORS.putIfAbsent(msg, t);
+        return cached != null ? cached : t;
+    }
     @SneakyThrows
-    public static Throwable nullRefError(String msg) { return (Throwable)NULL_REF_ERROR_CONSTRUCTOR.invoke(msg); }
+    private static Throwable newNullRefError(String msg) { return (Throwable)NULL_REF_ERROR_CONSTRUCTOR.invoke(msg); }
+    private static boolean suppressible(Throwable t) {
+        t.addSuppressed(new StacklessIllegalArgumentException(null));
+        return t.getSuppressed().length > 0;
+    }
 
     /**
      * Throws a checked exception as if it is unchecked eliminating need in try-catch.
@@ -79,13 +143,92 @@ public class ObjectAssist {
 
     /**
      * Flattens the specified array into one-dimensional array with the same component type.
+     * The sub-arrays are walked without reflection, a rectangular array is copied in one pass
+     * (a jagged one is counted at first), {@code null} sub-arrays are treated as empty.
      * @param a original array
      * @param <S> type assumed to be an array
      * @param <T> destination type assumed to be one-dimensional array
      * @return flattened array
      */
     @SuppressWarnings("unchecked")
-    public static <S, T> T flatArray(S a) { return (T)fillFlatArray(a, newFlatArray(a)); }
+    public static <S, T> T flatArray(S a) { return (T)NestedArrays.flat(checkArray(a), nDims(a), component(a)); }
+
+    /**
+     * Same as {@link #flatArray(Object)} but the slices of the outer dimension are counted and copied concurrently
+     * (in the common fork-join pool) if the array is large enough.
+     * @param a original array
+     * @param <S> type assumed to be an array
+     * @param <T> destination type assumed to be one-dimensional array
+     * @return flattened array
+     */
+    @SuppressWarnings("unchecked")
+    public static <S, T> T parallelFlatArray(S a) { return (T)NestedArrays.parallelFlat(checkArray(a), nDims(a), component(a)); }
+
+    /**
+     * Creates a spliterator over the elements of the given array of any number of dimensions without copying them.
+     * The sub-arrays are walked lazily, the spliterator is {@link Spliterator#SIZED SIZED} and {@link Spliterator#SUBSIZED SUBSIZED}
+     * and splits along the outer dimension, so it suits the balanced parallel streams, e.g.
+     * {@code StreamSupport.stream(leafSpliterator(grid), true)}.
+     * The primitive elements are boxed, see the primitive variants below.
+     * @param array any array
+     * @param <T> type of the elements
+     * @return new spliterator
+     * @throws IllegalArgumentException if the argument is not an array
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Spliterator<T> leafSpliterator(Object array) {
+        Class<?> component = component(checkArray(array));
+        if (component == int.class)    return (Spliterator<T>)leafIntSpliterator(array);
+        if (component == long.class)   return (Spliterator<T>)leafLongSpliterator(array);
+        if (component == double.class) return (Spliterator<T>)leafDoubleSpliterator(array);
+        int dims = nDims(array);
+        if (dims == 1 && !component.isPrimitive()) return Spliterators.spliterator((Object[])array, LeafSpliterator.CHARACTERISTICS);
+        return dims == 1
+                ? new LeafSpliterator.OfRef<>(new Object[] {array}, 2)
+                : new LeafSpliterator.OfRef<>((Object[])array, dims);
+    }
+    /**
+     * Same as {@link #leafSpliterator(Object)} for the arrays of <code>int</code> elements.
+     * @throws IllegalArgumentException if the argument is not an array of <code>int</code> elements
+     */
+    public static Spliterator.OfInt leafIntSpliterator(Object array) {
+        int dims = checkLeaf(array, int.class);
+        return dims == 1 ? Arrays.spliterator((int[])array) : new LeafSpliterator.OfInt((Object[])array, dims);
+    }
+    /**
+     * Same as {@link #leafSpliterator(Object)} for the arrays of <code>long</code> elements.
+     * @throws IllegalArgumentException if the argument is not an array of <code>long</code> elements
+     */
+    public static Spliterator.OfLong leafLongSpliterator(Object array) {
+        int dims = checkLeaf(array, long.class);
+        return dims == 1 ? Arrays.spliterator((long[])array) : new LeafSpliterator.OfLong((Object[])array, dims);
+    }
+    /**
+     * Same as {@link #leafSpliterator(Object)} for the arrays of <code>double</code> elements.
+     * @throws IllegalArgumentException if the argument is not an array of <code>double</code> elements
+     */
+    public static Spliterator.OfDouble leafDoubleSpliterator(Object array) {
+        int dims = checkLeaf(array, double.class);
+        return dims == 1 ? Arrays.spliterator((double[])array) : new LeafSpliterator.OfDouble((Object[])array, dims);
+    }
+
+    /**
+     * Rebuilds the nested arrays of the given shape from the one-dimensional array, the counterpart of {@link #flatArray(Object)}.
+     * Use {@link FlatView} to index the flat array as a multi-dimensional one without copying.
+     * @param flat one-dimensional array of the elements in the row-major order
+     * @param shape lengths of the dimensions
+     * @param <S> type assumed to be one-dimensional array
+     * @param <T> destination type assumed to be an array of {@code shape.length} dimensions
+     * @return new nested arrays filled with the elements
+     * @throws IllegalArgumentException if the first arg is not one-dimensional array or its length does not match the shape
+     */
+    @SuppressWarnings("unchecked")
+    public static <S, T> T unflat(S flat, int... shape) {
+        if (nDims(flat) != 1) throw new IllegalArgumentException("expected one-dimensional array, got " + (flat != null ? flat.getClass().getName() : "null"));
+        if (shape.length == 0) throw new IllegalArgumentException("no dimensions");
+        FlatView.checkShape(shape, NestedArrays.length(flat));
+        return (T)NestedArrays.unflat(flat, 0, shape, flat.getClass().getComponentType());
+    }
 
     /**
      * Constructs one-dimensional array with length equal to the count of the elements (not sub-arrays) of the specified array.
@@ -97,8 +240,7 @@ public class ObjectAssist {
      */
     @SuppressWarnings("unchecked")
     public static <S, T> T newFlatArray(S a) {
-        if (!isArray(a)) throw new IllegalArgumentException("expected an array, got " + (a != null ? a.getClass().getName() : "null"));
-        return (T)newInstance(component(a), countElems(a));
+        return (T)newInstance(component(checkArray(a)), nElems(a));
     }
 
     /**
@@ -106,15 +248,9 @@ public class ObjectAssist {
      * @param obj any object or {@code null}
      * @return the component type if the argument is an array, the argument type if it's not an array or {@code null} if the argument is null.
      */
-    @SuppressWarnings("StatementWithEmptyBody")
     public static Class<?> component(Object obj) {
         if (obj == null) return null;
-        if (!isArray(obj)) return obj.getClass();
-
-        Class<?> cls = obj.getClass();
-        while ((cls = cls.getComponentType()).isArray());
-
-        return cls;
+        return ArrayMeta.of(obj.getClass()).leaf();
     }
 
     /**
@@ -123,14 +259,8 @@ public class ObjectAssist {
      * @return the number of dimensions or 0 if the argument is not an array
      */
     public static int nDims(Object obj) {
-        if (!isArray(obj)) return 0;
-
-        int dims = 1;
-        Class<?> cls = obj.getClass();
-        while ((cls = cls.getComponentType()).isArray())
-            dims++;
-
-        return dims;
+        if (obj == null) return 0;
+        return ArrayMeta.of(obj.getClass()).dims();
     }
 
     /**
@@ -140,49 +270,16 @@ public class ObjectAssist {
      */
     public static int nElems(Object obj) {
         if (!isArray(obj)) return -1;
-        return countElems(obj);
-    }
-
-    @SuppressWarnings("unchecked,rawtypes,SuspiciousSystemArraycopy")
-    private static Object fillFlatArray(Object a, Object flat) {
-        assert isArray(a)    : "required an array as the first arg";
-        assert isArray(flat) : "required an array as the second arg";
-        if (!a.getClass().getComponentType().isArray()) {
-            arraycopy(a, 0, flat, 0, getLength(a));
-            return flat;
-        }
-
-        int i = 0;
-        for (Deque stack = new LinkedList(singleton(a)); !stack.isEmpty(); a = stack.pop()) {
-            int len = getLength(a);
-            if (!a.getClass().getComponentType().isArray()) {
-                arraycopy(a, 0, flat, i, len);
-                i += len;
-            } else {
-                Object[] aa = (Object[])a;
-                for (int j = 0; j < len; j++)
-                    stack.push(aa[len - j - 1]);
-            }
-        }
-
-        return flat;
-    }
-
-    @SuppressWarnings("unchecked,rawtypes")
-    private static int countElems(Object a) {
-        assert isArray(a) : "required an array as the first arg";
-        if (!a.getClass().getComponentType().isArray())
-            return getLength(a);
-
-        int elems = 0;
-        for (Deque stack = new LinkedList(singleton(a)); !stack.isEmpty(); a = stack.pop()) {
-            if (!a.getClass().getComponentType().isArray())
-                elems += getLength(a);
-            else for (Object e : (Object[])a)
-                stack.push(e);
-        }
-
-        return elems;
+        return NestedArrays.checkSize(NestedArrays.count(obj, nDims(obj)));
+    }
+
+    private static int checkLeaf(Object a, Class<?> component) {
+        if (component(checkArray(a)) != component) throw new IllegalArgumentException("expected an array of " + component + ", got " + a.getClass().getName());
+        return nDims(a);
+    }
+    private static Object checkArray(Object a) {
+        if (!isArray(a)) throw new IllegalArgumentException("expected an array, got " + (a != null ? a.getClass().getName() : "null"));
+        return a;
     }
 
     public static UnsupportedOperationException errNotInstantiable(Lookup $) {
@@ -192,6 +289,19 @@ public class ObjectAssist {
         return new UnsupportedOperationException("non-instantiable: " + cls);
     }
 
+    /**
+     * The {@link IllegalArgumentException} not filling in the stack trace,
+     * returned by {@link #nullRefError(String)} in the lightweight {@link NullRefErrorMode modes} if no other type is specified.
+     */
+    public static class StacklessIllegalArgumentException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        public StacklessIllegalArgumentException(String msg) { super(msg); }
+
+        @Override
+        public Throwable fillInStackTrace() { return this; }
+    }
+
     /**
      * Helps static analyzers to work properly in some cases.
      */
@@ -0,0 +1,171 @@
+package ru.serge2nd;
+
+import ru.serge2nd.DoubleSum.StdOp;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.function.DoubleConsumer;
+
+import static java.lang.Double.doubleToLongBits;
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.isFinite;
+import static java.lang.Math.floor;
+import static ru.serge2nd.DoubleAlgs.BIN_UNITS;
+import static ru.serge2nd.DoubleAlgs.EXACT_BINS;
+import static ru.serge2nd.DoubleAlgs.TOP_SCALE;
+import static ru.serge2nd.DoubleAlgs.exactMerge;
+import static ru.serge2nd.DoubleAlgs.exactSum;
+import static ru.serge2nd.DoubleAlgs.exactValue;
+import static ru.serge2nd.DoubleSum.getTerms;
+import static ru.serge2nd.DoubleSum.putTerms;
+import static ru.serge2nd.DoubleSum.termsSize;
+
+/**
+ * Accumulating a sum of <code>double</code> values reproducibly: the result is the same bits for any order of the values
+ * and any partitioning of them into the sums merged afterwards.
+ * The values are binned into the fixed exponent ranges of the superaccumulator of {@link DoubleAlgs#exactSum(double[], double)},
+ * so the sum is exact and {@link #get()} is its correctly rounded value.
+ * <br>
+ * The state is serializable in a compact form: the bins are normalized to the canonical ones
+ * (each lower bin is a non-negative multiple of its unit less than the next unit) and only the non-zero range is written,
+ * that is a few bins for the sums of values of close magnitudes.
+ * The equal sums have the equal canonical bins, so {@link #equals(Object)} tells the sums of the same values.
+ * The same form is written to a {@link ByteBuffer} by {@link #writeTo(ByteBuffer)}.
+ */
+public final class ReproducibleSum implements DoubleConsumer, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private transient double[] bins = new double[EXACT_BINS];
+    private transient double[] partials;
+
+    public static ReproducibleSum of(double... xs) {
+        return new ReproducibleSum().addAll(xs, 0, xs.length);
+    }
+
+    @Override
+    public void accept(double x) { exactSum(bins, x); }
+    public ReproducibleSum add(double x) {
+        exactSum(bins, x); return this;
+    }
+    /** Adds the values from the range {@code [from, to)} of {@code xs}. */
+    public ReproducibleSum addAll(double[] xs, int from, int to) {
+        for (int i = from; i < to; i++) exactSum(bins, xs[i]); return this;
+    }
+    /** Adds the sum accumulated by another instance (exactly, bin by bin). */
+    public ReproducibleSum merge(ReproducibleSum other) {
+        exactMerge(bins, other.bins); return this;
+    }
+
+    /** Get the correctly rounded sum or the plain sum of the bins if a value is not finite, see {@link DoubleAlgs#exactValue(double[], double[])}. */
+    public double get() {
+        double[] partials = this.partials != null ? this.partials : (this.partials = new double[EXACT_BINS]);
+        return exactValue(bins, partials);
+    }
+    /** Creates a {@link DoubleSum} of {@link StdOp#EXACT} with a copy of the state. */
+    public DoubleSum toDoubleSum() {
+        return new DoubleSum(StdOp.EXACT, bins.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ReproducibleSum)) return false;
+        double[] a = canonical(bins), b = canonical(((ReproducibleSum)o).bins);
+        for (int i = 0; i < EXACT_BINS; i++)
+            if (doubleToLongBits(a[i]) != doubleToLongBits(b[i])) return false;
+        return true;
+    }
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (double b : canonical(bins)) {
+            long bits = doubleToLongBits(b);
+            h = 31 * h + (int)(bits ^ (bits >>> 32));
+        }
+        return h;
+    }
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" + get() + "}";
+    }
+
+    /**
+     * Get the normalized copy of the bins keeping the exact sum: each lower bin becomes a non-negative multiple of its unit
+     * less than the unit of the next bin, the rest is carried to the next bin (the highest one takes the sign).
+     * If the highest bin is not finite, the lower bins do not change the sum and are zeroed.
+     * The bins themselves are not changed, so the read-only methods do not write the state.
+     */
+    static double[] canonical(double[] bins) {
+        double[] c = bins.clone();
+        if (!isFinite(c[0])) {
+            for (int i = 1; i < EXACT_BINS; i++) c[i] = 0.0;
+            return c;
+        }
+        for (int i = EXACT_BINS - 1; i > 0; i--) {
+            double b = c[i], unit = BIN_UNITS[EXACT_BINS - i];
+            double r = b - floor(b / unit) * unit;
+            c[i] = r + 0.0;
+            if (i > 1) c[i - 1] += b - r; else c[0] += (b - r) * TOP_SCALE;
+        }
+        c[0] += 0.0;
+        return c;
+    }
+    /** Tells whether the bins are the same bits as {@link #canonical(double[]) canonical} ones, each lower bin is also a multiple of its own unit. */
+    static boolean isCanonical(double[] bins) {
+        if (!isFinite(bins[0])) {
+            for (int i = 1; i < EXACT_BINS; i++) if (doubleToRawLongBits(bins[i]) != 0L) return false;
+            return true;
+        }
+        if (bins[0] % (BIN_UNITS[EXACT_BINS - 1] * TOP_SCALE) != 0.0 || bins[0] == 0.0 && doubleToRawLongBits(bins[0]) != 0L) return false;
+        for (int i = 1; i < EXACT_BINS; i++) {
+            double b = bins[i];
+            if (doubleToRawLongBits(b) < 0L || !(b < BIN_UNITS[EXACT_BINS - i]) || b % BIN_UNITS[EXACT_BINS - 1 - i] != 0.0) return false;
+        }
+        return true;
+    }
+
+    //region Serialization
+
+    /** Get the number of bytes {@link #writeTo(ByteBuffer)} writes. */
+    public int encodedSize() { return termsSize(canonical(bins)); }
+    /**
+     * Writes the non-zero range of the canonical bins, the position of the buffer is advanced.
+     * @throws java.nio.BufferOverflowException if the buffer has less than {@link #encodedSize()} bytes remaining
+     */
+    public ByteBuffer writeTo(ByteBuffer buf) { return putTerms(buf, canonical(bins)); }
+    /**
+     * Reads the state written by {@link #writeTo(ByteBuffer)} into a new sum, the position of the buffer is advanced.
+     * @throws IllegalArgumentException if the data is not a valid state (incl. the bins not {@link #canonical(double[]) canonical})
+     * @throws java.nio.BufferUnderflowException if the buffer has not enough bytes remaining
+     */
+    public static ReproducibleSum readFrom(ByteBuffer buf) {
+        ReproducibleSum s = new ReproducibleSum();
+        getTerms(buf, s.bins);
+        if (!isCanonical(s.bins)) throw new IllegalArgumentException("non-canonical bins");
+        return s;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        double[] bins = canonical(this.bins);
+        int first = 0, last = EXACT_BINS - 1;
+        while (first <= last && bins[first] == 0.0) first++;
+        while (last > first && bins[last] == 0.0) last--;
+
+        out.writeByte(first);
+        out.writeByte(last - first + 1);
+        for (int i = first; i <= last; i++) out.writeDouble(bins[i]);
+    }
+    private void readObject(ObjectInputStream in) throws IOException {
+        int first = in.readUnsignedByte(), n = in.readUnsignedByte();
+        if (first + n > EXACT_BINS) throw new InvalidObjectException("bins out of range: " + first + ", " + n);
+
+        bins = new double[EXACT_BINS];
+        for (int i = first; i < first + n; i++) bins[i] = in.readDouble();
+        if (!isCanonical(bins)) throw new InvalidObjectException("non-canonical bins");
+    }
+    //endregion
+}
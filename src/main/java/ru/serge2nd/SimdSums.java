@@ -0,0 +1,20 @@
+package ru.serge2nd;
+
+import static java.lang.invoke.MethodHandles.lookup;
+import static ru.serge2nd.ObjectAssist.errNotInstantiable;
+
+/**
+ * The hook for the SIMD summation kernels used by {@link DoubleAlgs}.
+ * This base version has no kernels and runs the scalar ones (never enabled),
+ * the {@code META-INF/versions/21} overlay of the multi-release jar replaces it with the one backed by the Vector API
+ * if the {@code jdk.incubator.vector} module is present. Both give the same bits.
+ */
+final class SimdSums {
+    private SimdSums() { throw errNotInstantiable(lookup()); }
+
+    static boolean enabled() { return false; }
+
+    static double[] plainSum(double[] sum, double[] xs, int from, int to)    { return DoubleAlgs.plainLanes(sum, xs, from, to); }
+    static double[] kahanSum(double[] sum, double[] xs, int from, int to)    { return DoubleAlgs.kahanLanes(sum, xs, from, to); }
+    static double[] neumaierSum(double[] sum, double[] xs, int from, int to) { return DoubleAlgs.neumaierLanes(sum, xs, from, to); }
+}
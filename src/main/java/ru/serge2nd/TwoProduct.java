@@ -0,0 +1,26 @@
+package ru.serge2nd;
+
+import static java.lang.invoke.MethodHandles.lookup;
+import static ru.serge2nd.ObjectAssist.errNotInstantiable;
+
+/**
+ * The error-free transformation of a product used by {@link DoubleAlgs#dot(double[], double[], int, int)}.
+ * This base version splits the factors by Veltkamp and Dekker, the {@code META-INF/versions/21} overlay
+ * of the multi-release jar replaces it with the one backed by {@code Math.fma}.
+ */
+final class TwoProduct {
+    private TwoProduct() { throw errNotInstantiable(lookup()); }
+
+    /** {@code 2^27 + 1} splitting a double into two halves of 26 bits. */
+    static final double SPLITTER = 0x1p27 + 1;
+
+    /**
+     * Returns the rounding error of {@code p = a * b}, so {@code a * b == p + err(a, b, p)} exactly.
+     * Not finite if {@code a} or {@code b} is too large to split (above {@code 2^996}).
+     */
+    static double err(double a, double b, double p) {
+        double c = SPLITTER * a, aHi = c - (c - a), aLo = a - aHi;
+        double d = SPLITTER * b, bHi = d - (d - b), bLo = b - bHi;
+        return aLo * bLo - (((p - aHi * bHi) - aLo * bHi) - aHi * bLo);
+    }
+}
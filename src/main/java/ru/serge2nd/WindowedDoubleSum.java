@@ -0,0 +1,219 @@
+package ru.serge2nd;
+
+import static java.lang.Double.isFinite;
+import static java.util.Arrays.fill;
+import static ru.serge2nd.DoubleAlgs.EXACT_BINS;
+import static ru.serge2nd.DoubleAlgs.compensationStep;
+import static ru.serge2nd.DoubleAlgs.exactSum;
+import static ru.serge2nd.DoubleAlgs.exactValue;
+
+/**
+ * Accumulating a sum of <code>double</code> values over a sliding window: the last N values or the values of the last time span.
+ * The values are kept in a primitive ring buffer, a value is added on push and subtracted on eviction
+ * via {@link DoubleAlgs#compensationStep(double[], double, int)}, so both take O(1).
+ * Once per a turn of the ring the sum is re-anchored to the exact sum of the window (rounded to a double-double),
+ * that bounds the drift of the long-living windows. A non-finite value is re-anchored away on its eviction.
+ * <br>
+ * See {@link Slab} for many windows of the same size in one array.
+ */
+public class WindowedDoubleSum {
+    private final double[] sum = new double[2];
+    private final long span;
+    private double[] xs;
+    private long[] times;
+    private int head, size;
+    private long last = Long.MIN_VALUE;
+    private double[] acc, partials;
+
+    /**
+     * Creates the window of the last {@code n} values.
+     * @throws IllegalArgumentException if {@code n} is not positive
+     */
+    public static WindowedDoubleSum ofSize(int n) {
+        if (n < 1) throw new IllegalArgumentException("non-positive window size: " + n);
+        return new WindowedDoubleSum(new double[n], null, 0);
+    }
+    /**
+     * Creates the window of the values pushed within the last {@code span} units of time (see {@link #push(long, double)}),
+     * the ring buffer grows on demand.
+     * @throws IllegalArgumentException if {@code span} is not positive
+     */
+    public static WindowedDoubleSum ofSpan(long span) {
+        if (span < 1) throw new IllegalArgumentException("non-positive window span: " + span);
+        return new WindowedDoubleSum(new double[16], new long[16], span);
+    }
+
+    private WindowedDoubleSum(double[] xs, long[] times, long span) {
+        this.xs = xs;
+        this.times = times;
+        this.span = span;
+    }
+
+    /**
+     * Adds {@code x} evicting the oldest value if the window is full.
+     * @throws IllegalStateException if the window is a time span one
+     */
+    public WindowedDoubleSum push(double x) {
+        if (times != null) throw new IllegalStateException("a time of the value is required");
+        if (size == xs.length) evict();
+        xs[(head + size++) % xs.length] = x;
+        add(x); return this;
+    }
+    /**
+     * Adds {@code x} pushed at {@code time} evicting the values older than the window span
+     * (or the oldest value if the window is a size one).
+     * @throws IllegalArgumentException if the time is less than the time of the previous value
+     */
+    public WindowedDoubleSum push(long time, double x) {
+        if (times == null) return push(x);
+        advance(time);
+        if (size == xs.length) grow();
+        int i = (head + size++) % xs.length;
+        xs[i] = x; times[i] = time;
+        add(x); return this;
+    }
+    /**
+     * Evicts the values older than the window span from {@code now}, does nothing if the window is a size one.
+     * @throws IllegalArgumentException if the time is less than the time of the previous value
+     */
+    public WindowedDoubleSum advance(long now) {
+        if (times == null) return this;
+        if (now < last) throw new IllegalArgumentException("time goes back: " + now + " < " + last);
+        last = now;
+        while (size > 0 && now - times[head] >= span) evict();
+        return this;
+    }
+
+    /** Get the sum of the window values. */
+    public double get() { return isFinite(sum[0]) ? sum[0] + sum[1] : sum[0]; }
+    /** Get the mean of the window values or {@code NaN} if the window is empty. */
+    public double mean() { return size > 0 ? get() / size : Double.NaN; }
+    /** Get the number of the window values. */
+    public int size() { return size; }
+
+    /** Sets the sum to the exact sum of the window values rounded to a double-double. */
+    public WindowedDoubleSum reanchor() {
+        if (acc == null) { acc = new double[EXACT_BINS]; partials = new double[EXACT_BINS]; }
+        fill(acc, 0.0);
+        for (int i = 0, j = head; i < size; i++, j = j + 1 < xs.length ? j + 1 : 0) exactSum(acc, xs[j]);
+        anchor(acc, partials, sum, 0, 1);
+        return this;
+    }
+    /** Removes all the values. */
+    public void clear() {
+        head = size = 0;
+        sum[0] = sum[1] = 0.0;
+    }
+
+    private void add(double x) { sum[1] += compensationStep(sum, x, 0); }
+
+    private void evict() {
+        double x = xs[head];
+        head = head + 1 < xs.length ? head + 1 : 0;
+        if (--size == 0) { sum[0] = sum[1] = 0.0; return; }
+        if (head == 0 || !isFinite(x)) reanchor();
+        else sum[1] += compensationStep(sum, -x, 0);
+    }
+
+    private void grow() {
+        double[] xs = new double[this.xs.length << 1];
+        long[] times = new long[xs.length];
+        int n = this.xs.length - head;
+        System.arraycopy(this.xs   , head, xs   , 0, n); System.arraycopy(this.xs   , 0, xs   , n, head);
+        System.arraycopy(this.times, head, times, 0, n); System.arraycopy(this.times, 0, times, n, head);
+        this.xs = xs; this.times = times; head = 0;
+    }
+
+    /**
+     * Sets {@code dest[hi], dest[lo]} to the exact sum of the superaccumulator (see {@link DoubleAlgs#exactSum(double[], double)})
+     * rounded to a double-double or to the plain sum of the bins if a bin is not finite.
+     */
+    static void anchor(double[] acc, double[] partials, double[] dest, int hi, int lo) {
+        double h = exactValue(acc, partials);
+        dest[hi] = h;
+        if (!isFinite(h)) { dest[lo] = 0.0; return; }
+        exactSum(acc, -h);
+        dest[lo] = exactValue(acc, partials);
+    }
+
+    /**
+     * Many windows of the last N values (the series) stored column-wise in one <code>double[]</code> slab:
+     * the high terms of the sums of all the series, then the low terms, then the slots of the ring buffers
+     * (a slot of all the series after another), so no objects are created per series.
+     * The heads and the sizes of the rings are kept in two <code>int[]</code>.
+     * The sums behave as of {@link WindowedDoubleSum}.
+     */
+    public static class Slab {
+        private final int series, window;
+        private final double[] slab;
+        private final int[] heads, sizes;
+        private final double[] acc = new double[EXACT_BINS], partials = new double[EXACT_BINS];
+
+        /**
+         * @param series number of the windows
+         * @param window number of the values per window
+         * @throws IllegalArgumentException if a number is not positive or the slab is too large for an array
+         */
+        public Slab(int series, int window) {
+            if (series < 1 || window < 1) throw new IllegalArgumentException("non-positive series or window: " + series + ", " + window);
+            if ((long)series * (window + 2) > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("too large slab: " + series + " x " + window);
+            this.series = series;
+            this.window = window;
+            this.slab   = new double[series * (window + 2)];
+            this.heads  = new int[series];
+            this.sizes  = new int[series];
+        }
+
+        /** Adds {@code x} to the series {@code s} evicting the oldest value if its window is full. */
+        public Slab push(int s, double x) {
+            int size = sizes[s];
+            if (size == window) { evict(s); size--; }
+            slab[slot(s, (heads[s] + size) % window)] = x;
+            sizes[s] = size + 1;
+            slab[series + s] += compensationStep(slab, x, s);
+            return this;
+        }
+        /** Adds the values of {@code xs} to the series of the same indices. */
+        public Slab pushRow(double[] xs) {
+            if (xs.length != series) throw new IllegalArgumentException("row length != series: " + xs.length + " != " + series);
+            for (int s = 0; s < series; s++) push(s, xs[s]);
+            return this;
+        }
+
+        /** Get the sum of the window values of the series {@code s}. */
+        public double get(int s) {
+            double hi = slab[s];
+            return isFinite(hi) ? hi + slab[series + s] : hi;
+        }
+        /** Get the mean of the window values of the series {@code s} or {@code NaN} if its window is empty. */
+        public double mean(int s) { return sizes[s] > 0 ? get(s) / sizes[s] : Double.NaN; }
+        /** Get the number of the window values of the series {@code s}. */
+        public int size(int s)    { return sizes[s]; }
+        public int series()       { return series; }
+        public int window()       { return window; }
+
+        /** Sets the sum of the series {@code s} to the exact sum of its window values rounded to a double-double. */
+        public Slab reanchor(int s) {
+            fill(acc, 0.0);
+            for (int i = 0, j = heads[s]; i < sizes[s]; i++, j = j + 1 < window ? j + 1 : 0) exactSum(acc, slab[slot(s, j)]);
+            anchor(acc, partials, slab, s, series + s);
+            return this;
+        }
+        /** Removes all the values of the series {@code s}. */
+        public void clear(int s) {
+            heads[s] = sizes[s] = 0;
+            slab[s] = slab[series + s] = 0.0;
+        }
+
+        private void evict(int s) {
+            int head = heads[s];
+            double x = slab[slot(s, head)];
+            heads[s] = head = head + 1 < window ? head + 1 : 0;
+            if (--sizes[s] == 0) { slab[s] = slab[series + s] = 0.0; return; }
+            if (head == 0 || !isFinite(x)) reanchor(s);
+            else slab[series + s] += compensationStep(slab, -x, s);
+        }
+
+        private int slot(int s, int j) { return (j + 2) * series + s; }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.serge2nd.misc;
+
+import static java.lang.Integer.bitCount;
+import static java.lang.Integer.numberOfTrailingZeros;
+
+/**
+ * The software PEXT (parallel bits extract) of a fixed mask: gathers the bits of the mask in the argument
+ * into the low bits of the result keeping their order, i.e. gets the index of the combination of the mask bits.
+ * On creation the extraction is compiled either into one multiplication by a magic constant
+ * (the bits of the mask shifted to their places at once, verified for all the combinations of up to {@link #MAX_MAGIC_BITS} bits)
+ * or, if no such constant, into the table of the bits extracted from each byte (four loads).
+ */
+final class BitExtract {
+    /** The maximal number of the mask bits to look for a magic constant. */
+    static final int MAX_MAGIC_BITS = 16;
+    /** The position of the extracted bits in the product. */
+    private static final int AT = Integer.SIZE;
+
+    final int mask;
+    private final int lo, idxMask;
+    private final long magic;
+    private final int[] table;
+
+    BitExtract(int mask) {
+        int lo = mask != 0 ? numberOfTrailingZeros(mask) : 0, k = bitCount(mask);
+        this.mask = mask;
+        this.lo = lo;
+        this.idxMask = k == Integer.SIZE ? -1 : (1 << k) - 1;
+
+        long magic = k <= MAX_MAGIC_BITS ? magic(mask >>> lo) : 0L;
+        this.magic = magic;
+        this.table = magic == 0L ? table(mask) : null;
+    }
+
+    /** Get the bits of the mask in {@code x} gathered into the low bits. */
+    int extract(int x) {
+        x &= mask;
+        int[] t = table;
+        if (t == null) return (int)(((x >>> lo & 0xffffffffL) * magic) >>> AT) & idxMask;
+        return t[x & 0xff] | t[0x100 | x >>> 8 & 0xff] | t[0x200 | x >>> 16 & 0xff] | t[0x300 | x >>> 24];
+    }
+
+    /**
+     * Makes the multiplier moving the bit {@code j} of the mask (at the position {@code p}) to {@code AT + j}
+     * (the bits of a run share the same shift) and verifies it for all the combinations.
+     * @return the multiplier or zero if the other products of the bits spoil the result
+     */
+    static long magic(int mask) {
+        if (mask == 0) return 1L;
+        long magic = 0L;
+        for (int m = mask, j = 0; m != 0; m &= m - 1, j++)
+            magic |= 1L << (AT + j - numberOfTrailingZeros(m));
+
+        int idxMask = (1 << bitCount(mask)) - 1;
+        for (int x = 0, i = 0;; i++) { // the sub-masks in the increasing order have the increasing indices
+            if (((int)(((x & 0xffffffffL) * magic) >>> AT) & idxMask) != i) return 0L;
+            if (x == mask) return magic;
+            x = (x - mask) & mask;
+        }
+    }
+
+    static int[] table(int mask) {
+        int[] table = new int[0x400];
+        for (int b = 0; b < Integer.BYTES; b++)
+            for (int v = 0; v < 0x100; v++)
+                table[b << 8 | v] = extractSlow(v << (b << 3), mask);
+        return table;
+    }
+
+    static int extractSlow(int x, int mask) {
+        int r = 0;
+        for (int j = 0; mask != 0; mask &= mask - 1, j++)
+            if ((x & mask & -mask) != 0) r |= 1 << j;
+        return r;
+    }
+}
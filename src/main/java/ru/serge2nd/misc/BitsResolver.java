@@ -2,12 +2,14 @@ package ru.serge2nd.misc;
 
 import lombok.NonNull;
 
-import static java.lang.Integer.SIZE;
 import static java.lang.Integer.bitCount;
-import static java.lang.Integer.numberOfTrailingZeros;
 import static java.util.Arrays.copyOf;
 
 /**
+ * Resolving a value by the combination of the bits of the mask: the bits of the mask in the argument
+ * (the others are ignored) make up the index of the value. The index is got in O(1) by the software PEXT (bit extraction)
+ * compiled on creation (see {@link BitExtract}), so {@link #resolve(int)} takes a few ALU ops and one array load.
+ * <br>
  * Example:
  * <pre>
  *     int $1ST      = 1 << 5;
@@ -32,30 +34,26 @@ import static java.util.Arrays.copyOf;
  * </pre>
  */
 public final class BitsResolver<T> {
-    private static final int H = SIZE - 1;
-    private final int all;
+    private final BitExtract index;
     private final T[] vals;
 
+    /**
+     * @param all the mask
+     * @param vals the values in the order of the indices of the mask bits combinations (the rest are resolved to {@code null})
+     */
     @SafeVarargs
     public BitsResolver(int all, @NonNull T... vals) {
-        int nVars = 1 << bitCount(all);
-        this.vals = vals.length > nVars ? copyOf(vals, nVars) : vals;
-        this.all = all;
+        long nVars = 1L << bitCount(all);
+        this.vals = vals.length > nVars ? copyOf(vals, (int)nVars) : vals;
+        this.index = new BitExtract(all);
     }
 
     public T resolve(int bits) {
-        final int all = this.all, maxIdx = vals.length - 1;
-        bits &= all;
-
-        int idx, i;
-        for (idx = 0; bits != 0; bits = bits >>> i << i) {
-            i = numberOfTrailingZeros(bits);
-            int skipped = bitCount(all << (H - i++)) - 1;
-            if (maxIdx < (idx |= (1 << skipped))) return null;
-        }
-
-        return vals[idx];
+        int idx = index.extract(bits);
+        return idx < vals.length && idx >= 0 ? vals[idx] : null;
     }
+    /** Get the index of the combination of the mask bits (the bits of the mask in the argument gathered into the low bits). */
+    public int index(int bits) { return index.extract(bits); }
 
     public static boolean has(int bits, int mask) { return (bits & mask) == bits; }
 }
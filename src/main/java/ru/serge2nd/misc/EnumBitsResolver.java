@@ -0,0 +1,95 @@
+package ru.serge2nd.misc;
+
+import lombok.NonNull;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static java.lang.Long.bitCount;
+import static java.util.Arrays.asList;
+
+/**
+ * Resolving a value by the combination of the enum constants of the mask, i.e. the {@link LongBitsResolver}
+ * of the ordinal mask (the bit {@code 1L << e.ordinal()} per constant {@code e}), so the constants of the mask
+ * must have the ordinals less than {@link Long#SIZE}.
+ * <br>
+ * The ordinal masks are resolved in O(1) ({@link #resolve(long)}, see {@link #ordinals(Enum[])} to make the masks
+ * beforehand), a set is resolved by the checks of the constants of the mask only
+ * (the set is neither iterated nor copied, nothing is allocated or boxed), i.e. {@code k} bit tests for an {@link EnumSet}.
+ * @param <E> type of the enum
+ * @param <T> type of the values
+ */
+public final class EnumBitsResolver<E extends Enum<E>, T> {
+    private final LongBitsResolver<T> resolver;
+    private final Enum<?>[] keys;
+
+    /**
+     * @param all the constants of the mask
+     * @param vals the values in the order of the indices of the combinations of the constants (the rest are resolved to {@code null})
+     * @throws IllegalArgumentException if an ordinal is not less than {@link Long#SIZE}
+     */
+    @SafeVarargs
+    public EnumBitsResolver(@NonNull EnumSet<E> all, @NonNull T... vals) {
+        this.keys = all.toArray(new Enum<?>[0]);
+        this.resolver = new LongBitsResolver<>(ordinals(asList(keys)), vals);
+    }
+    /**
+     * @param type the enum
+     * @param all the ordinal mask
+     * @param vals the values in the order of the indices of the combinations of the constants (the rest are resolved to {@code null})
+     * @throws IllegalArgumentException if the mask has a bit of no constant of the enum
+     */
+    @SafeVarargs
+    public EnumBitsResolver(@NonNull Class<E> type, long all, @NonNull T... vals) {
+        this.keys = keys(type, all);
+        this.resolver = new LongBitsResolver<>(all, vals);
+    }
+
+    /** Get the value by the ordinal mask (the bits out of the mask are ignored). */
+    public T resolve(long ordinals) { return resolver.resolve(ordinals); }
+    /** Get the value by the constants of the mask in the set (the other constants are ignored). */
+    public T resolve(@NonNull Set<E> keys) { return resolver.resolve(ordinalsIn(keys)); }
+
+    /** Get the index of the combination of the constants of the mask in the set. */
+    public long index(@NonNull Set<E> keys) { return resolver.index(ordinalsIn(keys)); }
+    /** Get the ordinal mask. */
+    public long mask() { return resolver.mask(); }
+
+    private long ordinalsIn(Set<E> set) {
+        long ordinals = 0L;
+        for (Enum<?> key : keys)
+            if (set.contains(key)) ordinals |= 1L << key.ordinal();
+        return ordinals;
+    }
+
+    /**
+     * Get the ordinal bit of the constant.
+     * @throws IllegalArgumentException if the ordinal is not less than {@link Long#SIZE}
+     */
+    public static long ordinal(@NonNull Enum<?> key) {
+        int ordinal = key.ordinal();
+        if (ordinal >= Long.SIZE) throw new IllegalArgumentException("too big ordinal: " + key);
+        return 1L << ordinal;
+    }
+    /** Get the ordinal mask of the constants, see {@link #ordinal(Enum)}. */
+    @SafeVarargs
+    public static <E extends Enum<E>> long ordinals(@NonNull E... keys) { return ordinals(asList(keys)); }
+    /** Get the ordinal mask of the constants, see {@link #ordinal(Enum)}. */
+    public static long ordinals(@NonNull Iterable<? extends Enum<?>> keys) {
+        long ordinals = 0L;
+        for (Enum<?> key : keys) ordinals |= ordinal(key);
+        return ordinals;
+    }
+
+    private static Enum<?>[] keys(Class<?> type, long all) {
+        Object[] constants = type.getEnumConstants();
+        if (constants == null) throw new IllegalArgumentException("not an enum: " + type.getName());
+        if (constants.length < Long.SIZE && all >>> constants.length != 0)
+            throw new IllegalArgumentException("no constants of " + type.getName() + " for the mask " + Long.toHexString(all));
+
+        Enum<?>[] keys = new Enum<?>[bitCount(all)];
+        for (int i = 0, n = 0; n < keys.length; i++)
+            if ((all >>> i & 1L) != 0) keys[n++] = (Enum<?>)constants[i];
+        return keys;
+    }
+}
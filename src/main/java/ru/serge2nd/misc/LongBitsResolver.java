@@ -0,0 +1,44 @@
+package ru.serge2nd.misc;
+
+import lombok.NonNull;
+
+import static java.lang.Long.bitCount;
+import static java.util.Arrays.copyOf;
+
+/**
+ * The {@link BitsResolver} of a <code>long</code> mask: the index is made up of the bits extracted from the low
+ * and the high halves of the argument (the bits of the high half follow the bits of the low one), each in O(1).
+ */
+public final class LongBitsResolver<T> {
+    private final BitExtract lo, hi;
+    private final int loBits;
+    private final T[] vals;
+
+    /**
+     * @param all the mask
+     * @param vals the values in the order of the indices of the mask bits combinations (the rest are resolved to {@code null})
+     */
+    @SafeVarargs
+    public LongBitsResolver(long all, @NonNull T... vals) {
+        int k = bitCount(all);
+        this.vals = k < Integer.SIZE - 1 && vals.length > 1 << k ? copyOf(vals, 1 << k) : vals;
+        this.lo = new BitExtract((int)all);
+        this.hi = new BitExtract((int)(all >>> Integer.SIZE));
+        this.loBits = Integer.bitCount((int)all);
+    }
+
+    public T resolve(long bits) {
+        long idx = index(bits);
+        return idx < vals.length && idx >= 0 ? vals[(int)idx] : null;
+    }
+    /** Get the index of the combination of the mask bits (the bits of the mask in the argument gathered into the low bits). */
+    public long index(long bits) {
+        return (hi.extract((int)(bits >>> Integer.SIZE)) & 0xffffffffL) << loBits
+             | (lo.extract((int)bits) & 0xffffffffL);
+    }
+
+    /** Get the mask. */
+    public long mask() { return (long)hi.mask << Integer.SIZE | lo.mask & 0xffffffffL; }
+
+    public static boolean has(long bits, long mask) { return (bits & mask) == bits; }
+}
@@ -0,0 +1,71 @@
+package ru.serge2nd.stream;
+
+import lombok.NonNull;
+import ru.serge2nd.GroupedDoubleSum;
+import ru.serge2nd.misc.BitsResolver;
+import ru.serge2nd.stream.SummingCollectors.ToMergeableSum;
+import ru.serge2nd.stream.util.Collecting.NoFeatures;
+import ru.serge2nd.stream.util.CollectingOptions;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.util.Collections.unmodifiableMap;
+import static ru.serge2nd.ObjectAssist.errNotInstantiable;
+import static ru.serge2nd.stream.util.CollectingOptions.UNMODIFIABLE;
+
+/**
+ * A factory of collectors summing <code>double</code> values with compensation per group key
+ * into a {@link GroupedDoubleSum} (no objects per group).
+ * The states are combined via the merge methods, so the collectors are suitable for parallel streams.
+ * @see ru.serge2nd.stream
+ * @see CollectingOptions
+ */
+public class GroupingCollectors {
+    private GroupingCollectors() { throw errNotInstantiable(lookup()); }
+
+    //region Factory methods
+
+    public static <E> Collector<E, ?, GroupedDoubleSum.OfLong> summingByLong(@NonNull ToLongFunction<E> keyMapper, @NonNull ToDoubleFunction<E> valMapper) {
+        return new ToMergeableSum<>(GroupedDoubleSum.OfLong::new, (s, e) -> s.add(keyMapper.applyAsLong(e), valMapper.applyAsDouble(e)), GroupedDoubleSum.OfLong::merge);
+    }
+    public static <E> Collector<E, ?, GroupedDoubleSum.OfInt> summingByInt(@NonNull ToIntFunction<E> keyMapper, @NonNull ToDoubleFunction<E> valMapper) {
+        return new ToMergeableSum<>(GroupedDoubleSum.OfInt::new, (s, e) -> s.add(keyMapper.applyAsInt(e), valMapper.applyAsDouble(e)), GroupedDoubleSum.OfInt::merge);
+    }
+    public static <E, K> Collector<E, ?, GroupedDoubleSum.OfObject<K>> summingBy(@NonNull Function<E, K> keyMapper, @NonNull ToDoubleFunction<E> valMapper) {
+        return new ToMergeableSum<>(GroupedDoubleSum.OfObject<K>::new, (s, e) -> s.add(keyMapper.apply(e), valMapper.applyAsDouble(e)), GroupedDoubleSum.OfObject<K>::merge);
+    }
+    /**
+     * Sums the mapped values per key as {@link #summingBy(Function, ToDoubleFunction)}
+     * and finishes with {@link GroupedDoubleSum.OfObject#toMap()} (unmodifiable if {@link CollectingOptions#UNMODIFIABLE}).
+     */
+    public static <E, K> Collector<E, ?, Map<K, Double>> toSumMap(@NonNull Function<E, K> keyMapper, @NonNull ToDoubleFunction<E> valMapper, int opts) {
+        return new ToSumMap<>(keyMapper, valMapper, BitsResolver.has(UNMODIFIABLE, opts));
+    }
+    //endregion
+
+    //region Hidden implementations
+
+    static final class ToSumMap<E, K> implements NoFeatures<E, GroupedDoubleSum.OfObject<K>, Map<K, Double>> {
+        @Override public Supplier<GroupedDoubleSum.OfObject<K>>                supplier()    { return GroupedDoubleSum.OfObject::new; }
+        @Override public BiConsumer<GroupedDoubleSum.OfObject<K>, E>           accumulator() { return (s, e) -> s.add(keyMapper.apply(e), valMapper.applyAsDouble(e)); }
+        @Override public BinaryOperator<GroupedDoubleSum.OfObject<K>>          combiner()    { return GroupedDoubleSum.OfObject::merge; }
+        @Override public Function<GroupedDoubleSum.OfObject<K>, Map<K, Double>> finisher()   { return unmodifiable ? s -> unmodifiableMap(s.toMap()) : GroupedDoubleSum.OfObject::toMap; }
+
+        ToSumMap(Function<E, K> keyMapper, ToDoubleFunction<E> valMapper, boolean unmodifiable) {
+            this.keyMapper = keyMapper; this.valMapper = valMapper; this.unmodifiable = unmodifiable;
+        }
+        final Function<E, K> keyMapper;
+        final ToDoubleFunction<E> valMapper;
+        final boolean unmodifiable;
+    }
+    //endregion
+}
@@ -0,0 +1,122 @@
+package ru.serge2nd.stream;
+
+import lombok.NonNull;
+import ru.serge2nd.CompensatedStatistics;
+import ru.serge2nd.DecimalSum;
+import ru.serge2nd.DoubleSum;
+import ru.serge2nd.DoubleSum.CompensatingSumOp;
+import ru.serge2nd.DoubleSum.StdOp;
+import ru.serge2nd.LongSum;
+import ru.serge2nd.stream.util.Collecting.IdentityFinish;
+import ru.serge2nd.stream.util.Collecting.NoFeatures;
+
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+import static java.lang.invoke.MethodHandles.lookup;
+import static ru.serge2nd.ObjectAssist.errNotInstantiable;
+
+/**
+ * A factory of collectors summing <code>double</code> values with compensation (or <code>long</code> values exactly).
+ * The collectors accumulate {@link DoubleSum} (or {@link CompensatedStatistics}, {@link LongSum}, {@link DecimalSum}) instances
+ * and combine them via {@link DoubleSum#merge(DoubleSum)} (or the merge methods of the others), so they are suitable for parallel streams.
+ * @see ru.serge2nd.stream
+ */
+public class SummingCollectors {
+    private SummingCollectors() { throw errNotInstantiable(lookup()); }
+
+    //region Factory methods
+
+    /**
+     * Sums the mapped values via {@link StdOp#ITERATIVE_KB} with the given compensation order
+     * and finishes with {@link DoubleSum#fine()}.
+     */
+    public static <E> Collector<E, ?, Double> summingCompensated(ToDoubleFunction<E> mapper, int order) {
+        return new SummingCompensated<>(mapper, StdOp.ITERATIVE_KB, order);
+    }
+    /**
+     * Sums the mapped values via the given op and compensation order.
+     */
+    public static <E> Collector<E, ?, Double> summingCompensated(ToDoubleFunction<E> mapper, CompensatingSumOp op, int order) {
+        return new SummingCompensated<>(mapper, op, order);
+    }
+    /**
+     * Accumulates the mapped values into a {@link DoubleSum} with the given op and compensation order.
+     */
+    public static <E> Collector<E, ?, DoubleSum> toDoubleSum(ToDoubleFunction<E> mapper, CompensatingSumOp op, int order) {
+        return new ToDoubleSum<>(mapper, op, order);
+    }
+    /**
+     * Accumulates the mapped values into a {@link CompensatedStatistics}.
+     */
+    public static <E> Collector<E, ?, CompensatedStatistics> summarizingCompensated(ToDoubleFunction<E> mapper) {
+        return new SummarizingCompensated<>(mapper);
+    }
+    /**
+     * Accumulates the mapped values exactly into a {@link LongSum}.
+     */
+    public static <E> Collector<E, ?, LongSum> toLongSum(@NonNull ToLongFunction<E> mapper) {
+        return new ToMergeableSum<>(LongSum::new, (s, e) -> s.add(mapper.applyAsLong(e)), LongSum::merge);
+    }
+    /**
+     * Accumulates the mapped unscaled values of the given scale exactly into a {@link DecimalSum}.
+     */
+    public static <E> Collector<E, ?, DecimalSum> toDecimalSum(@NonNull ToLongFunction<E> unscaledMapper, int scale) {
+        return new ToMergeableSum<>(() -> new DecimalSum(scale), (s, e) -> s.addUnscaled(unscaledMapper.applyAsLong(e)), DecimalSum::merge);
+    }
+    //endregion
+
+    //region Hidden implementations
+
+    static final class SummingCompensated<E> extends DoubleSumAccumulator<E, Double> implements NoFeatures<E, DoubleSum, Double> {
+        @Override public Function<DoubleSum, Double> finisher() { return DoubleSum::fine; }
+        SummingCompensated(ToDoubleFunction<E> mapper, CompensatingSumOp op, int order) { super(mapper, op, order); }
+    }
+    static final class ToDoubleSum<E> extends DoubleSumAccumulator<E, DoubleSum> implements IdentityFinish<E, DoubleSum> {
+        ToDoubleSum(ToDoubleFunction<E> mapper, CompensatingSumOp op, int order) { super(mapper, op, order); }
+    }
+
+    static final class SummarizingCompensated<E> implements IdentityFinish<E, CompensatedStatistics> {
+        @Override public Supplier<CompensatedStatistics>       supplier()    { return CompensatedStatistics::new; }
+        @Override public BiConsumer<CompensatedStatistics, E>  accumulator() { return (s, e) -> s.accept(mapper.applyAsDouble(e)); }
+        @Override public BinaryOperator<CompensatedStatistics> combiner()    { return CompensatedStatistics::merge; }
+
+        SummarizingCompensated(@NonNull ToDoubleFunction<E> mapper) { this.mapper = mapper; }
+        final ToDoubleFunction<E> mapper;
+    }
+
+    /** Accumulates into a sum object combined via its merge method, e.g. {@link LongSum} or {@link ru.serge2nd.GroupedDoubleSum}. */
+    static final class ToMergeableSum<E, S> implements IdentityFinish<E, S> {
+        @Override public Supplier<S>       supplier()    { return supplier; }
+        @Override public BiConsumer<S, E>  accumulator() { return accumulator; }
+        @Override public BinaryOperator<S> combiner()    { return combiner; }
+
+        ToMergeableSum(Supplier<S> supplier, BiConsumer<S, E> accumulator, BinaryOperator<S> combiner) {
+            this.supplier = supplier; this.accumulator = accumulator; this.combiner = combiner;
+        }
+        final Supplier<S> supplier;
+        final BiConsumer<S, E> accumulator;
+        final BinaryOperator<S> combiner;
+    }
+
+    static abstract class DoubleSumAccumulator<E, R> implements Collector<E, DoubleSum, R> {
+        @Override public final Supplier<DoubleSum>       supplier()    { return () -> new DoubleSum(0.0, op, order); }
+        @Override public final BiConsumer<DoubleSum, E>  accumulator() { return (s, e) -> s.add(mapper.applyAsDouble(e)); }
+        @Override public final BinaryOperator<DoubleSum> combiner()    { return DoubleSum::merge; }
+
+        DoubleSumAccumulator(@NonNull ToDoubleFunction<E> mapper, CompensatingSumOp op, int order) {
+            if (op == null || order < 0) throw new IllegalArgumentException("null op or negative compensation order");
+            if (op instanceof StdOp && !((StdOp)op).supports(order)) throw new IllegalArgumentException("compensation order " + order + " not supported by " + op);
+            this.mapper = mapper; this.op = op; this.order = order;
+        }
+        final ToDoubleFunction<E> mapper;
+        final CompensatingSumOp op;
+        final int order;
+    }
+    //endregion
+}
@@ -0,0 +1,81 @@
+package ru.serge2nd.type;
+
+import lombok.NonNull;
+
+import static java.lang.reflect.Array.newInstance;
+
+/**
+ * The metadata of a class cached per class via {@link ClassValue}: the number of the array dimensions,
+ * the leaf component, the descriptor and the array classes of the class as a component.
+ * A non-array class is treated as an array of zero dimensions and itself as the leaf component.
+ * <br>
+ * The metadata refers to the classes of the same class loader only (an array class belongs to the loader of its leaf component),
+ * so the cache does not prevent the class loaders from unloading.
+ */
+public final class ArrayMeta {
+    /** The maximal number of the array dimensions allowed by the JVM. */
+    public static final int MAX_DIMS = 255;
+
+    private static final ClassValue<ArrayMeta> CACHE = new ClassValue<ArrayMeta>() {
+        @Override
+        protected ArrayMeta computeValue(Class<?> type) { return new ArrayMeta(type); }
+    };
+
+    private final Class<?> type;
+    private final Class<?> leaf;
+    private final int dims;
+    private String descriptor;
+    private volatile Class<?>[] arrays;
+
+    /** Get the cached metadata of the class. */
+    public static ArrayMeta of(@NonNull Class<?> type) { return CACHE.get(type); }
+
+    private ArrayMeta(Class<?> type) {
+        int dims = 0;
+        Class<?> leaf = type;
+        for (; leaf.isArray(); dims++) leaf = leaf.getComponentType();
+        this.type = type; this.leaf = leaf; this.dims = dims;
+    }
+
+    public Class<?> type()  { return type; }
+    /** Get the innermost component type or the class itself if it's not an array. */
+    public Class<?> leaf()  { return leaf; }
+    /** Get the number of the array dimensions or 0 if the class is not an array. */
+    public int dims()       { return dims; }
+
+    /**
+     * Get the descriptor of the class in the form of {@link Class#getName()} for arrays,
+     * i.e. {@code I} for <code>int</code>, {@code Ljava.lang.String;} for {@link String} and {@code [[I} for <code>int[][]</code>.
+     */
+    public String descriptor() {
+        String descriptor = this.descriptor;
+        if (descriptor == null) this.descriptor = descriptor = dims > 0 ? type.getName() : Classes.descriptorOf(type);
+        return descriptor;
+    }
+
+    /**
+     * Get the array class of the given number of dimensions with the class as the component
+     * (the class itself for 0 dimensions).
+     * @throws IllegalArgumentException if the class is <code>void</code> or the total number of dimensions exceeds {@link #MAX_DIMS}
+     */
+    public Class<?> arrayClass(int dims) {
+        if (dims < 1) return type;
+        if (dims + this.dims > MAX_DIMS) throw new IllegalArgumentException("too many dimensions: " + (dims + this.dims));
+
+        Class<?>[] arrays = this.arrays;
+        if (arrays != null && dims <= arrays.length) return arrays[dims - 1];
+
+        Class<?>[] grown = new Class<?>[dims];
+        int known = 0;
+        if (arrays != null) System.arraycopy(arrays, 0, grown, 0, known = arrays.length);
+        for (int d = known; d < dims; d++)
+            grown[d] = newInstance(d == 0 ? type : grown[d - 1], 0).getClass();
+        this.arrays = grown;
+        return grown[dims - 1];
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" + type.getName() + "}";
+    }
+}
@@ -25,14 +25,24 @@ public class Classes {
     public static Class<?> arrayClass(Class<?> component, int dims) {
         return arrayClass(component, dims, null);
     }
-    public static Class<?> arrayClass(Class<?> component, int dims, ClassLoader classLoader) {
+    /**
+     * Get the array class of the given component and number of dimensions.
+     * The class is taken from the {@link ArrayMeta} cache unless another class loader than the one of the component is given.
+     */
+    public static Class<?> arrayClass(@NonNull Class<?> component, int dims, ClassLoader classLoader) {
+        if (classLoader == null || classLoader == component.getClassLoader())
+            return ArrayMeta.of(component).arrayClass(dims);
         return resolveClassName(arrayClassName(component, dims), classLoader);
     }
 
+    /**
+     * Get the name of the array class of the given component and number of dimensions.
+     * Although there are no <code>void</code> arrays, the name is built for <code>void</code> too, e.g. {@code [V}.
+     */
     public static String arrayClassName(@NonNull Class<?> component, int dims) {
         if (dims < 1) return component.getName();
-        for (; component.isArray(); dims++) component = component.getComponentType();
-        return join("", nCopies(dims, ARRAY_MARKER)) + descriptor(component);
+        if (component == void.class) return join("", nCopies(dims, ARRAY_MARKER)) + descriptor(component);
+        return ArrayMeta.of(component).arrayClass(dims).getName();
     }
 
     public static String className(@NonNull Class<?> cls, Type owner) {
@@ -44,6 +54,11 @@ public class Classes {
     }
 
     public static String descriptor(@NonNull Class<?> cls) {
+        if (cls.isArray()) throw new IllegalArgumentException("cannot determine descriptor of " + cls.getName());
+        return ArrayMeta.of(cls).descriptor();
+    }
+
+    static String descriptorOf(Class<?> cls) {
         if (cls.isPrimitive()) {
             if (boolean.class == cls) {
                 return "Z";
@@ -0,0 +1,25 @@
+package ru.serge2nd;
+
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+import static java.lang.invoke.MethodHandles.lookup;
+import static ru.serge2nd.ObjectAssist.errNotInstantiable;
+
+/**
+ * The hook for the SIMD summation kernels used by {@link DoubleAlgs}.
+ * Delegates to {@link VectorSums} if the {@code jdk.incubator.vector} module is present
+ * and the {@value DoubleAlgs#P_VECTORIZED} system property is not {@code false}.
+ */
+@IgnoreJRERequirement // a class of the Java 21 overlay
+final class SimdSums {
+    private SimdSums() { throw errNotInstantiable(lookup()); }
+
+    static boolean enabled() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !"false".equalsIgnoreCase(System.getProperty(DoubleAlgs.P_VECTORIZED));
+    }
+
+    static double[] plainSum(double[] sum, double[] xs, int from, int to)    { return VectorSums.plainSum(sum, xs, from, to); }
+    static double[] kahanSum(double[] sum, double[] xs, int from, int to)    { return VectorSums.kahanSum(sum, xs, from, to); }
+    static double[] neumaierSum(double[] sum, double[] xs, int from, int to) { return VectorSums.neumaierSum(sum, xs, from, to); }
+}
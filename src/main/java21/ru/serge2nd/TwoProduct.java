@@ -0,0 +1,18 @@
+package ru.serge2nd;
+
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+import static java.lang.invoke.MethodHandles.lookup;
+import static ru.serge2nd.ObjectAssist.errNotInstantiable;
+
+/**
+ * The error-free transformation of a product used by {@link DoubleAlgs#dot(double[], double[], int, int)}
+ * backed by {@link Math#fma(double, double, double)}.
+ */
+@IgnoreJRERequirement // a class of the Java 21 overlay
+final class TwoProduct {
+    private TwoProduct() { throw errNotInstantiable(lookup()); }
+
+    /** Returns the rounding error of {@code p = a * b}, so {@code a * b == p + err(a, b, p)} exactly. */
+    static double err(double a, double b, double p) { return Math.fma(a, b, -p); }
+}
@@ -0,0 +1,98 @@
+package ru.serge2nd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+import static java.lang.Double.isFinite;
+import static java.lang.invoke.MethodHandles.lookup;
+import static ru.serge2nd.ObjectAssist.errNotInstantiable;
+
+/**
+ * The bulk summation kernels of {@link DoubleAlgs} on the Vector API.
+ * Each kernel keeps {@value #UNROLL} accumulating vectors of the fixed 256-bit species, i.e. {@link DoubleAlgs#WIDE_LANES} lanes
+ * laid out as the locals of the scalar kernels, so the result is the same bits as of the scalar kernels on any hardware.
+ * The lanes are folded into the sum via the per-value operations of {@link DoubleAlgs} in the lanes order,
+ * the same way the scalar kernels fold their locals.
+ */
+@IgnoreJRERequirement // a class of the Java 21 overlay
+final class VectorSums {
+    private VectorSums() { throw errNotInstantiable(lookup()); }
+
+    static final VectorSpecies<Double> S = DoubleVector.SPECIES_256;
+    static final int L      = S.length();
+    static final int UNROLL = 4;
+    static final int STEP   = L * UNROLL;
+
+    static double[] plainSum(double[] sum, double[] xs, int from, int to) {
+        DoubleVector s0 = DoubleVector.zero(S), s1 = s0, s2 = s0, s3 = s0;
+        int i = from;
+        for (int n = to - STEP + 1; i < n; i += STEP) {
+            s0 = s0.add(DoubleVector.fromArray(S, xs, i));
+            s1 = s1.add(DoubleVector.fromArray(S, xs, i + L));
+            s2 = s2.add(DoubleVector.fromArray(S, xs, i + 2 * L));
+            s3 = s3.add(DoubleVector.fromArray(S, xs, i + 3 * L));
+        }
+        sum[0] += total(s0, s1, s2, s3, xs, i, to);
+        return sum;
+    }
+
+    static double[] kahanSum(double[] sum, double[] xs, int from, int to) {
+        DoubleVector s0 = DoubleVector.zero(S), s1 = s0, s2 = s0, s3 = s0;
+        DoubleVector c0 = s0, c1 = s0, c2 = s0, c3 = s0;
+        int i = from;
+        for (int n = to - STEP + 1; i < n; i += STEP) {
+            DoubleVector x0 = DoubleVector.fromArray(S, xs, i).sub(c0);
+            DoubleVector x1 = DoubleVector.fromArray(S, xs, i + L).sub(c1);
+            DoubleVector x2 = DoubleVector.fromArray(S, xs, i + 2 * L).sub(c2);
+            DoubleVector x3 = DoubleVector.fromArray(S, xs, i + 3 * L).sub(c3);
+            DoubleVector t0 = s0.add(x0), t1 = s1.add(x1), t2 = s2.add(x2), t3 = s3.add(x3);
+            c0 = t0.sub(s0).sub(x0); c1 = t1.sub(s1).sub(x1); c2 = t2.sub(s2).sub(x2); c3 = t3.sub(s3).sub(x3);
+            s0 = t0; s1 = t1; s2 = t2; s3 = t3;
+        }
+        double total = total(s0, s1, s2, s3, xs, i, to);
+        if (!isFinite(total)) return DoubleAlgs.plainSum(sum, total); // no compensation for non-finite
+        kahanSum(sum, s0); kahanSum(sum, s1); kahanSum(sum, s2); kahanSum(sum, s3);
+        kahanSum(sum, c0.neg()); kahanSum(sum, c1.neg()); kahanSum(sum, c2.neg()); kahanSum(sum, c3.neg());
+        for (; i < to; i++) DoubleAlgs.kahanSum(sum, xs[i]);
+        return sum;
+    }
+
+    static double[] neumaierSum(double[] sum, double[] xs, int from, int to) {
+        DoubleVector s0 = DoubleVector.zero(S), s1 = s0, s2 = s0, s3 = s0;
+        DoubleVector c0 = s0, c1 = s0, c2 = s0, c3 = s0;
+        int i = from;
+        for (int n = to - STEP + 1; i < n; i += STEP) {
+            DoubleVector x0 = DoubleVector.fromArray(S, xs, i);
+            DoubleVector x1 = DoubleVector.fromArray(S, xs, i + L);
+            DoubleVector x2 = DoubleVector.fromArray(S, xs, i + 2 * L);
+            DoubleVector x3 = DoubleVector.fromArray(S, xs, i + 3 * L);
+            DoubleVector t0 = s0.add(x0), t1 = s1.add(x1), t2 = s2.add(x2), t3 = s3.add(x3);
+            DoubleVector h0 = t0.sub(s0), h1 = t1.sub(s1), h2 = t2.sub(s2), h3 = t3.sub(s3); // high parts of x
+            c0 = c0.add(s0.sub(t0.sub(h0)).add(x0.sub(h0))); c1 = c1.add(s1.sub(t1.sub(h1)).add(x1.sub(h1)));
+            c2 = c2.add(s2.sub(t2.sub(h2)).add(x2.sub(h2))); c3 = c3.add(s3.sub(t3.sub(h3)).add(x3.sub(h3)));
+            s0 = t0; s1 = t1; s2 = t2; s3 = t3;
+        }
+        double total = total(s0, s1, s2, s3, xs, i, to);
+        if (!isFinite(total)) return DoubleAlgs.plainSum(sum, total); // no compensation for non-finite
+        neumaierSum(sum, s0); neumaierSum(sum, s1); neumaierSum(sum, s2); neumaierSum(sum, s3);
+        neumaierSum(sum, c0); neumaierSum(sum, c1); neumaierSum(sum, c2); neumaierSum(sum, c3);
+        for (; i < to; i++) DoubleAlgs.neumaierSum(sum, xs[i]);
+        return sum;
+    }
+
+    // the lanes are read one by one, so nothing is spilled to the heap
+    static void kahanSum(double[] sum, DoubleVector v)    { for (int k = 0; k < L; k++) DoubleAlgs.kahanSum(sum, v.lane(k)); }
+    static void neumaierSum(double[] sum, DoubleVector v) { for (int k = 0; k < L; k++) DoubleAlgs.neumaierSum(sum, v.lane(k)); }
+
+    /** The total of the lanes of the vectors in order and the rest values of {@code xs} starting at {@code from}. */
+    static double total(DoubleVector v0, DoubleVector v1, DoubleVector v2, DoubleVector v3, double[] xs, int from, int to) {
+        double s = 0.0;
+        for (int k = 0; k < L; k++) s += v0.lane(k);
+        for (int k = 0; k < L; k++) s += v1.lane(k);
+        for (int k = 0; k < L; k++) s += v2.lane(k);
+        for (int k = 0; k < L; k++) s += v3.lane(k);
+        for (int i = from; i < to; i++) s += xs[i];
+        return s;
+    }
+}
@@ -0,0 +1,107 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import ru.serge2nd.DoubleSum.StdOp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+import static ru.serge2nd.AdaptiveDoubleSum.DEFAULT_TOLERANCE;
+import static ru.serge2nd.AdaptiveDoubleSum.EXACT;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.ArrayMatch.doubles;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class AdaptiveDoubleSumTest {
+    static final double F = 1e101;
+
+    @Test void testWellConditioned() {
+        double[] xs = new Random(1).doubles(100_000, 1, 2).toArray();
+        AdaptiveDoubleSum s = new AdaptiveDoubleSum().addAll(xs, 0, xs.length);
+        for (double x : xs) s.add(x);
+        double expected = DoubleSum.exact(xs).fine() * 2;
+
+        assertEach(() ->
+        assertEquals(1       , s.order()), () ->
+        assertEquals(0       , s.escalations()), () ->
+        assertEquals(200_000 , s.count()), () ->
+        assertEquals(1       , s.condition(), 1e-13), () ->
+        assertEquals(expected, s.fine(), Math.ulp(expected)));
+    }
+
+    @Test void testEscalation() {
+        List<Integer> events = new ArrayList<>();
+        AdaptiveDoubleSum s = new AdaptiveDoubleSum(1, 2, DEFAULT_TOLERANCE, (sum, from, to) -> events.add(from * 100 + to));
+        s.add(1).add(F).add(1);
+        assertEach(() ->
+        assertEquals(1, s.order()), () ->
+        assertEquals(asList(), events));
+
+        s.add(-F);
+        assertEach(() ->
+        assertEquals(EXACT                        , s.order()), () ->
+        assertEquals(2                            , s.escalations()), () ->
+        assertEquals(asList(102, 200 + EXACT)     , events), () ->
+        assertEquals(2                            , s.fine()), () ->
+        assertEquals(2                            , s.get()), () ->
+        assertSame(StdOp.EXACT                    , getField(s.toDoubleSum(), "op")), () ->
+        assertEquals(2                            , s.toDoubleSum().fine()));
+    }
+
+    @Test void testAddAll() {
+        Random rnd = new Random(9);
+        double[] xs = new double[10_000];
+        for (int i = 0; i < xs.length; i += 2) {
+            xs[i] = rnd.nextDouble() * Math.pow(10, rnd.nextInt(20));
+            xs[i + 1] = -xs[i] + rnd.nextDouble();
+        }
+        AdaptiveDoubleSum s = new AdaptiveDoubleSum(0, 3, 1e-12, null).addAll(xs, 0, xs.length);
+        assertEach(() ->
+        assertEquals(DoubleSum.exact(xs).fine(), s.fine()), () ->
+        assertEquals(2, s.order()), () ->
+        assertEquals(2, s.escalations()));
+    }
+
+    @Test void testOrderCarriedOver() {
+        AdaptiveDoubleSum s = new AdaptiveDoubleSum(0, 1, DEFAULT_TOLERANCE, null).add(1).add(-1 + 0x1p-52);
+        assertEach(() ->
+        assertEquals(1, s.order()), () ->
+        assertThat(getField(s, "sum"), doubles(0x1p-52, 0)));
+    }
+
+    @Test void testExactCancellation() {
+        AdaptiveDoubleSum s = new AdaptiveDoubleSum().add(1).add(-1);
+        AdaptiveDoubleSum all = new AdaptiveDoubleSum().addAll(new double[] {F, 1, -1, -F}, 0, 4);
+        assertEach(() ->
+        assertEquals(1, s.order()), () ->
+        assertEquals(0, s.escalations()), () ->
+        assertEquals(0, s.fine()), () ->
+        assertEquals(1, all.order()), () ->
+        assertEquals(0, all.fine()), () ->
+        assertEquals(1, new AdaptiveDoubleSum(0, 2, DEFAULT_TOLERANCE, null).add(1).add(-1).order()), () ->
+        assertEquals(0x1p-60, s.add(0x1p-60).fine()));
+    }
+
+    @Test void testNonFinite() {
+        AdaptiveDoubleSum s = new AdaptiveDoubleSum().add(1).add(Double.POSITIVE_INFINITY).add(-1);
+        assertEach(() ->
+        assertEquals(1, s.order()), () ->
+        assertEquals(Double.POSITIVE_INFINITY, s.get()), () ->
+        assertEquals(Double.POSITIVE_INFINITY, s.fine()));
+    }
+
+    @Test void testNegativeOrder()    { assertThat(()->new AdaptiveDoubleSum(-1, 2, 1e-15, null)     , illegalArgument()); }
+    @Test void testUnorderedOrders()  { assertThat(()->new AdaptiveDoubleSum(2, 1, 1e-15, null)      , illegalArgument()); }
+    @Test void testTooLargeOrder()    { assertThat(()->new AdaptiveDoubleSum(1, EXACT, 1e-15, null)  , illegalArgument()); }
+    @Test void testZeroTolerance()    { assertThat(()->new AdaptiveDoubleSum(1, 2, 0, null)          , illegalArgument()); }
+    @Test void testNaNTolerance()     { assertThat(()->new AdaptiveDoubleSum(1, 2, Double.NaN, null) , illegalArgument()); }
+}
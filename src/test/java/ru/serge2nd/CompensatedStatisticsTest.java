@@ -0,0 +1,105 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import ru.serge2nd.CompensatedStatistics.Pairs;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static java.util.Arrays.stream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class CompensatedStatisticsTest {
+    static final double[] XS = {2, 4, 4, 4, 5, 5, 7, 9};
+    static final double[] RND_PAIRED = {1, 3, 2, 5, 4, 6, 9, 8};
+    static final double[] RND = new Random(17).doubles(100_000).map(x -> 1e9 + x).toArray();
+
+    @Test void testMoments() {
+        CompensatedStatistics s = CompensatedStatistics.of(XS);
+        assertEach(() ->
+        assertEquals(8       , s.count()), () ->
+        assertEquals(40      , s.sum()), () ->
+        assertEquals(5       , s.mean()), () ->
+        assertEquals(32.0 / 7, s.variance()), () ->
+        assertEquals(4       , s.populationVariance(), 1e-15), () ->
+        assertEquals(0.65625 , s.skewness(), 1e-15), () ->
+        assertEquals(-0.21875, s.kurtosis(), 1e-15));
+    }
+
+    @Test void testNearConstant() {
+        CompensatedStatistics s = CompensatedStatistics.of(stream(XS).map(x -> 1e9 + x).toArray());
+        assertEach(() ->
+        assertEquals(1e9 + 5 , s.mean()), () ->
+        assertEquals(32.0 / 7, s.variance()), () ->
+        assertEquals(0.65625 , s.skewness(), 1e-12), () ->
+        assertEquals(-0.21875, s.kurtosis(), 1e-12));
+    }
+
+    @Test void testMerge() {
+        CompensatedStatistics whole = CompensatedStatistics.of(RND);
+        CompensatedStatistics merged = new CompensatedStatistics();
+        for (int i = 0; i < RND.length; i += 7_919)
+            merged.merge(new CompensatedStatistics().addAll(RND, i, Math.min(i + 7_919, RND.length)));
+        merged.merge(new CompensatedStatistics());
+
+        assertEach(() ->
+        assertEquals(whole.count()   , merged.count()), () ->
+        assertEquals(whole.sum()     , merged.sum()), () ->
+        assertEquals(whole.mean()    , merged.mean()), () ->
+        assertEquals(1.0 / 12        , merged.variance(), 1e-3), () ->
+        assertEquals(whole.variance(), merged.variance(), 1e-14), () ->
+        assertEquals(whole.skewness(), merged.skewness(), 1e-12), () ->
+        assertEquals(whole.kurtosis(), merged.kurtosis(), 1e-12));
+    }
+
+    @Test void testEmpty() {
+        CompensatedStatistics s = new CompensatedStatistics();
+        assertEach(() ->
+        assertEquals(0         , s.count()), () ->
+        assertEquals(0         , s.sum()), () ->
+        assertEquals(Double.NaN, s.mean()), () ->
+        assertEquals(Double.NaN, s.variance()), () ->
+        assertEquals(Double.NaN, s.add(1).variance()), () ->
+        assertEquals(Double.NaN, s.skewness()));
+    }
+
+    @Test void testPairs() {
+        double[] ys = stream(XS).map(x -> 1e9 - 2 * x).toArray();
+        Pairs p = Pairs.of(XS, ys);
+        Pairs merged = Pairs.of(new double[] {2, 4, 4}, new double[] {ys[0], ys[1], ys[2]})
+                .merge(Pairs.of(new double[] {4, 5, 5, 7, 9}, new double[] {ys[3], ys[4], ys[5], ys[6], ys[7]}));
+        assertEach(() ->
+        assertEquals(-64.0 / 7, p.covariance()), () ->
+        assertEquals(-8        , p.populationCovariance()), () ->
+        assertEquals(-1        , p.correlation(), 1e-15), () ->
+        assertEquals(8         , merged.count()), () ->
+        assertEquals(-64.0 / 7 , merged.covariance(), 1e-14), () ->
+        assertEquals(5         , merged.x().mean()), () ->
+        assertEquals(1e9 - 10  , merged.y().mean()));
+    }
+
+    @Test void testBinaryState() {
+        CompensatedStatistics s = CompensatedStatistics.of(RND);
+        Pairs p = Pairs.of(XS, RND_PAIRED);
+        ByteBuffer buf = ByteBuffer.allocate(CompensatedStatistics.BYTES + Pairs.BYTES);
+        p.writeTo(s.writeTo(buf)).flip();
+        CompensatedStatistics s2 = CompensatedStatistics.readFrom(buf);
+        Pairs p2 = Pairs.readFrom(buf);
+        assertEach(() ->
+        assertEquals(s.count()      , s2.count()), () ->
+        assertEquals(s.mean()       , s2.mean()), () ->
+        assertEquals(s.kurtosis()   , s2.kurtosis()), () ->
+        assertEquals(p.covariance() , p2.covariance()), () ->
+        assertEquals(p.y().variance(), p2.y().variance()), () ->
+        assertEquals(0              , buf.remaining()), () ->
+        assertThat(()->CompensatedStatistics.readFrom(ByteBuffer.allocate(CompensatedStatistics.BYTES).putLong(0, -1)), illegalArgument()));
+    }
+
+    @Test void testPairsDifferentLengths() { assertThat(() -> Pairs.of(new double[1], new double[2]), illegalArgument()); }
+}
@@ -0,0 +1,139 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import ru.serge2nd.DoubleSum.StdOp;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.ArrayMatch.doubles;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+@SuppressWarnings("ConstantConditions")
+class ConcurrentDoubleSumTest {
+    static final double F = 1e101;
+    static final int THREADS = 8;
+
+    @Test void testAdd() {
+        ConcurrentDoubleSum s = new ConcurrentDoubleSum(StdOp.NEUMAIER, 1).add(1).add(F).add(1).add(-F);
+        assertEach(() ->
+        assertEquals(2, s.fine()), () ->
+        assertThat(getField(s.toDoubleSum(), "sum"), doubles(2, 0)));
+    }
+    @Test void testAddAll() {
+        double[] xs = {7, 1, F, 1, -F, 7};
+        ConcurrentDoubleSum s = new ConcurrentDoubleSum(StdOp.NEUMAIER, 1).addAll(xs, 1, 5);
+        assertEquals(2, s.fine());
+    }
+
+    @Test void testConcurrentAdd() throws Exception {
+        double[] xs = new Random(7).doubles(1 << 14, -1, 1).map(x -> x * Math.pow(10, (int)(x * 1000) % 30)).toArray();
+        ConcurrentDoubleSum exact = new ConcurrentDoubleSum(StdOp.EXACT, DoubleSum.EXACT_ORDER);
+        ConcurrentDoubleSum kahan = new ConcurrentDoubleSum();
+
+        inThreads(t -> {
+            for (int i = t; i < xs.length; i += THREADS) { exact.add(xs[i]); kahan.add(xs[i]); }
+        });
+
+        double expected = DoubleSum.exact(xs).fine();
+        Object[] cells = (Object[])getField(kahan, "cells");
+        assertEach(() ->
+        assertEquals(expected, exact.fine()), () ->
+        assertEquals(expected, kahan.fine(), Math.ulp(expected) * 4), () ->
+        assertTrue(cells.length <= THREADS));
+    }
+    @Test void testConcurrentRead() throws Exception {
+        ConcurrentDoubleSum s = new ConcurrentDoubleSum(StdOp.PLAIN, 0);
+        AtomicBoolean done = new AtomicBoolean();
+        Future<Boolean> reader = Executors.newSingleThreadExecutor().submit(() -> {
+            boolean monotonic = true;
+            for (double prev = 0; !done.get();) {
+                double cur = s.fine();
+                monotonic &= cur >= prev && cur == Math.rint(cur);
+                prev = cur;
+            }
+            return monotonic;
+        });
+        inThreads(t -> { for (int i = 0; i < 100_000; i++) s.add(1); });
+        done.set(true);
+        assertEach(() ->
+        assertTrue(reader.get()), () ->
+        assertEquals(THREADS * 100_000, s.fine()));
+    }
+
+    @Test void testFineKahan() {
+        Random rnd = new Random(17);
+        assertEach(IntStream.range(0, 2_000).mapToObj(i -> {
+            double[] xs = rnd.longs(2 + rnd.nextInt(6), -1L << 53, 1L << 53).mapToDouble(x -> Math.scalb((double)x, rnd.nextInt(4))).toArray();
+            ConcurrentDoubleSum s = new ConcurrentDoubleSum();
+            DoubleSum expected = new DoubleSum(0);
+            for (double x : xs) { s.add(x); expected.add(x); }
+            return () -> assertEquals(expected.fine(), s.fine(), () -> Arrays.toString(xs));
+        }));
+    }
+
+    @Test void testDeadThreadCell() throws Exception {
+        ConcurrentDoubleSum s = new ConcurrentDoubleSum(StdOp.NEUMAIER, 1);
+        for (int i = 0; i < 3; i++) {
+            Thread t = new Thread(() -> s.add(1).add(F).add(-F));
+            t.start(); t.join();
+        }
+        assertEach(() ->
+        assertEquals(1, ((Object[])getField(s, "cells")).length), () ->
+        assertEquals(3, s.fine()));
+    }
+    @Test void testConcurrentAddAll() throws Exception {
+        ConcurrentDoubleSum s = new ConcurrentDoubleSum(StdOp.PLAIN, 0);
+        double[] xs = {1, 2, 3, 4};
+        inThreads(t -> { for (int i = 0; i < 1000; i++) s.addAll(xs, 0, xs.length); });
+        assertEquals(THREADS * 10_000, s.fine());
+    }
+
+    @Test void testNonFinite() {
+        ConcurrentDoubleSum s = new ConcurrentDoubleSum(StdOp.NEUMAIER, 1).add(1).add(Double.POSITIVE_INFINITY).add(1);
+        assertEquals(Double.POSITIVE_INFINITY, s.fine());
+    }
+
+    @Test void testReset() {
+        ConcurrentDoubleSum s = new ConcurrentDoubleSum().add(1).add(F);
+        s.reset();
+        assertEach(() ->
+        assertEquals(0, s.fine()), () ->
+        assertThat(getField(s.toDoubleSum(), "sum"), doubles(0, 0)), () ->
+        assertEquals(3, s.add(3).fine()));
+    }
+
+    @Test void testNullOp()            { assertThat(()->new ConcurrentDoubleSum(null, 0)                 , illegalArgument()); }
+    @Test void testNegativeCmpnOrder() { assertThat(()->new ConcurrentDoubleSum(DoubleAlgs::kahanSum, -1), illegalArgument()); }
+
+    static void inThreads(Consumer<Integer> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?>[] fs = new Future<?>[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                int n = t;
+                fs[t] = pool.submit(() -> { start.await(); task.accept(n); return null; });
+            }
+            start.countDown();
+            for (Future<?> f : fs) f.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
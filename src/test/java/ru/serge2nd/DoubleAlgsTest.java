@@ -5,27 +5,46 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.objectweb.asm.*;
+import ru.serge2nd.DoubleSum.StdOp;
 
 import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.lang.Double.parseDouble;
 import static java.lang.Double.toHexString;
 import static java.lang.Float.parseFloat;
+import static java.lang.Math.scalb;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.ulp;
 import static java.lang.invoke.MethodHandles.lookup;
 import static java.lang.invoke.MethodType.methodType;
+import static java.math.BigDecimal.ZERO;
 import static java.math.BigDecimal.valueOf;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+import static ru.serge2nd.DoubleAlgs.EXACT_BINS;
+import static ru.serge2nd.DoubleAlgs.PARALLEL_BLOCK;
 import static org.objectweb.asm.ClassReader.*;
 import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
 import static org.objectweb.asm.Opcodes.*;
 import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.ArrayMatch.doubles;
 import static ru.serge2nd.test.match.AssertAllMatch.assertAllMatch;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
 import static ru.serge2nd.test.match.CoreMatch.equalTo;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
 
 @TestInstance(Lifecycle.PER_CLASS)
 class DoubleAlgsTest implements NoInstanceTest<DoubleAlgs> {
     static final Class<?> ORIG = DoubleAlgs.class;
+    static final List<String> HOOKS = asList(SimdSums.class.getName(), TwoProduct.class.getName());
     static final Class<?> CLS = fitClassForTest();
     @SneakyThrows
     static Class<?> fitClassForTest() {
@@ -34,8 +53,15 @@ class DoubleAlgsTest implements NoInstanceTest<DoubleAlgs> {
         byte[] bytes = out.toByteArray();
 
         return new ClassLoader(null) { @SneakyThrows
-        public Class<?> findClass(String name) { return ORIG.getName().equals(name) ? defineClass(name, bytes, 0, bytes.length) : Class.forName(name); }
-        }.findClass(ORIG.getName());
+        public Class<?> findClass(String name) {
+            if (ORIG.getName().equals(name)) return defineClass(name, bytes, 0, bytes.length);
+            if (HOOKS.contains(name)) { // same runtime package to access the package-private hooks
+                ClassWriter hook = new ClassWriter(0);
+                new ClassReader(name).accept(hook, 0);
+                return defineClass(name, hook.toByteArray(), 0, hook.toByteArray().length);
+            }
+            return Class.forName(name);
+        }}.findClass(ORIG.getName());
     }
 
     @Test void testSumAlgorithms() throws Throwable {
@@ -72,11 +98,191 @@ class DoubleAlgsTest implements NoInstanceTest<DoubleAlgs> {
         assertAllMatch(equalTo("0x1.7d77f52be48fp24"), toHexString(exact1), toHexString(exact2)));
     }
 
+    @Test void testBulkSumAlgorithms() {
+        Random rnd = new Random(79);
+        double[] xs = new double[1_000_003];
+        BigDecimal s = ZERO;
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = scalb(rnd.nextDouble() - 0.4, rnd.nextInt(40));
+            s = s.add(new BigDecimal(xs[i]));
+        }
+        double exact = s.doubleValue();
+
+        assertEach(() ->
+        assertEquals(exact, DoubleAlgs.kahanSum(xs, 0, xs.length), ulp(exact)), () ->
+        assertEquals(exact, DoubleAlgs.neumaierSum(xs, 0, xs.length)), () ->
+        assertEquals(exact, DoubleAlgs.kleinSum(xs, 0, xs.length)), () ->
+        assertEquals(exact, DoubleAlgs.iterativeKBSum(xs, 0, xs.length, 3)), () ->
+        assertEquals(xs[1] + xs[2] + xs[3], DoubleAlgs.plainSum(xs, 1, 4)), () ->
+        assertEquals(0.0, DoubleAlgs.kleinSum(xs, 5, 5)));
+    }
+
+    @Test void testBulkIterativeKBSum() {
+        double[] xs = {1, 1e101, 1, -1e101, 3, 1e-300, -1e-300};
+        assertThat(
+        DoubleAlgs.iterativeKBSum(new double[1], xs, 0, xs.length, 0), doubles(DoubleAlgs.plainSum(new double[1], xs, 0, xs.length)),
+        DoubleAlgs.iterativeKBSum(new double[2], xs, 0, xs.length, 1), doubles(DoubleAlgs.neumaierSum(new double[2], xs, 0, xs.length)),
+        DoubleAlgs.iterativeKBSum(new double[3], xs, 0, xs.length, 2), doubles(DoubleAlgs.kleinSum(new double[3], xs, 0, xs.length)),
+        DoubleAlgs.iterativeKBSum(new double[4], xs, 1, 4, 3)         , doubles(0, 1, 0, 0));
+    }
+
+    @Test void testParallelSum() throws Exception {
+        Random rnd = new Random(79);
+        double[] xs = new double[10 * PARALLEL_BLOCK + 7];
+        BigDecimal s = ZERO;
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = scalb(rnd.nextDouble() - 0.5, rnd.nextInt(60));
+            s = s.add(new BigDecimal(xs[i]));
+        }
+        double exact = s.doubleValue();
+        Callable<double[]> sum = () -> (double[])getField(DoubleAlgs.parallelSum(xs, StdOp.KLEIN, 2), "sum");
+        double[] result = sum.call();
+
+        assertEach(() ->
+        assertEquals(exact, DoubleAlgs.parallelSum(xs, StdOp.NEUMAIER, 1).fine()), () ->
+        assertEquals(exact, DoubleAlgs.parallelSum(xs, DoubleAlgs::kleinSum, 2).fine()), () ->
+        assertArrayEquals(result, new ForkJoinPool(1).submit(sum).get()), () ->
+        assertArrayEquals(result, new ForkJoinPool(7).submit(sum).get()), () ->
+        assertThat(()->DoubleAlgs.parallelSum(xs, null, 1), illegalArgument()), () ->
+        assertThat(()->DoubleAlgs.parallelSum(xs, StdOp.EXACT, 1), illegalArgument()));
+    }
+
+    @Test void testPrefixSum() throws Exception {
+        Random rnd = new Random(83);
+        double[] xs = new double[5 * PARALLEL_BLOCK + 3];
+        for (int i = 0; i < xs.length; i++) xs[i] = scalb(rnd.nextDouble() - 0.5, rnd.nextInt(60));
+        double[] exact = new double[xs.length];
+        BigDecimal s = ZERO;
+        for (int i = 0; i < xs.length; i++) exact[i] = (s = s.add(new BigDecimal(xs[i]))).doubleValue();
+
+        double[] seq = DoubleAlgs.prefixSum(xs, new double[xs.length], 2);
+        Callable<double[]> par = () -> DoubleAlgs.parallelPrefixSum(xs, new double[xs.length + 1], 2);
+        double[] result = par.call();
+        double[] ys = xs.clone(), zs = xs.clone();
+
+        assertEach(() ->
+        assertArrayEquals(exact, seq), () ->
+        assertArrayEquals(exact, copyOf(result, xs.length)), () ->
+        assertArrayEquals(result, new ForkJoinPool(1).submit(par).get()), () ->
+        assertArrayEquals(result, new ForkJoinPool(7).submit(par).get()), () ->
+        assertArrayEquals(exact, DoubleAlgs.prefixSum(ys, ys, 2)), () ->
+        assertArrayEquals(exact, DoubleAlgs.parallelPrefixSum(zs, zs, 2)), () ->
+        assertArrayEquals(new double[] {1, 3, 6}, DoubleAlgs.prefixSum(new double[] {1, 2, 3}, new double[3], 0)), () ->
+        assertArrayEquals(new double[0], DoubleAlgs.parallelPrefixSum(new double[0], new double[0], 1)), () ->
+        assertThat(()->DoubleAlgs.prefixSum(xs, new double[1], 1), illegalArgument()), () ->
+        assertThat(()->DoubleAlgs.parallelPrefixSum(xs, xs, -1), illegalArgument()));
+    }
+
+    @Test void testExactSum() {
+        Random rnd = new Random(79);
+        double[] sum = new double[EXACT_BINS], partials = new double[EXACT_BINS];
+        BigDecimal s = ZERO;
+        for (int i = 0; i < 3_000_000; i++) {
+            double x = i % 1000 == 0
+                ? scalb(rnd.nextDouble() - 0.5, rnd.nextInt(2098) - 1074)
+                : (rnd.nextDouble() - 0.5) * 1e5 + (i % 2 == 0 ? 1e300 : -1e300);
+            DoubleAlgs.exactSum(sum, x);
+            s = s.add(new BigDecimal(x));
+        }
+        double exact = s.doubleValue();
+        double[] inf = DoubleAlgs.exactSum(DoubleAlgs.exactSum(new double[EXACT_BINS], 1), Double.NEGATIVE_INFINITY);
+
+        assertEach(() ->
+        assertEquals(exact, DoubleAlgs.exactValue(sum, partials)), () ->
+        assertEquals(Double.MIN_VALUE, DoubleAlgs.exactSum(new double[EXACT_BINS], Double.MIN_VALUE)[EXACT_BINS - 1]), () ->
+        assertEquals(Double.NEGATIVE_INFINITY, inf[0]));
+    }
+
+    @Test void testExactSumOverflow() {
+        double max = Double.MAX_VALUE;
+        double[] wide = DoubleAlgs.exactSum(DoubleAlgs.exactSum(new double[EXACT_BINS], 0x1p1023), 0x1p1023);
+        for (int i = 0; i < 1 << 16; i++) DoubleAlgs.exactSum(wide, -0x1p1005); // the highest bin alone is out of range
+        assertEach(() ->
+        assertEquals(max                     , exactValue(max, max, -max)), () ->
+        assertEquals(max                     , exactValue(-max, max, max, -max, max)), () ->
+        assertEquals(0x1.cp1023              , DoubleAlgs.exactValue(wide, new double[EXACT_BINS])), () ->
+        assertEquals(Double.POSITIVE_INFINITY, exactValue(max, max)), () ->
+        assertEquals(Double.NEGATIVE_INFINITY, exactValue(-max, -0x1p970)), () ->
+        assertEquals(max                     , exactValue(max, 0x1p969)), () ->
+        assertEquals(max                     , DoubleAlgs.exactValue(DoubleAlgs.exactMerge(exact(max, max), exact(-max)), new double[EXACT_BINS])));
+    }
+    static double[] exact(double... xs) {
+        double[] sum = new double[EXACT_BINS];
+        for (double x : xs) DoubleAlgs.exactSum(sum, x);
+        return sum;
+    }
+    static double exactValue(double... xs) { return DoubleAlgs.exactValue(exact(xs), new double[EXACT_BINS]); }
+
+    @Test void testDistill() {
+        double[] xs = {0x1p-106, 1e101, 1, -1e101, 0x1p-53};
+        double[] partials = new double[xs.length];
+        int n = DoubleAlgs.distill(xs, 0, xs.length, partials);
+        assertEach(() ->
+        assertEquals(1 + 0x1p-52, DoubleAlgs.roundedSum(partials, n)), () ->
+        assertEquals(1          , DoubleAlgs.roundedSum(partials, DoubleAlgs.distill(xs, 1, xs.length, partials))), () ->
+        assertEquals(0          , DoubleAlgs.roundedSum(partials, 0)), () ->
+        assertEquals(-1         , DoubleAlgs.distill(new double[] {1, Double.NaN}, 0, 2, partials)), () ->
+        assertEquals(-1         , DoubleAlgs.distill(new double[] {Double.MAX_VALUE, Double.MAX_VALUE}, 0, 2, partials)));
+    }
+
+    @Test void testDoubleDoubleSum() {
+        Random rnd = new Random(31);
+        double[] xs = rnd.doubles(10_007).map(x -> scalb(x - 0.5, rnd.nextInt(80))).toArray();
+        BigDecimal exact = ZERO;
+        for (double x : xs) exact = exact.add(new BigDecimal(x));
+        double[] sum = new double[2];
+        for (double x : xs) DoubleAlgs.doubleDoubleSum(sum, x);
+        double expected = exact.doubleValue();
+
+        assertEach(() ->
+        assertEquals(expected, DoubleAlgs.doubleDoubleSum(xs, 0, xs.length)), () ->
+        assertEquals(expected, sum[0] + sum[1]), () ->
+        assertEquals(Double.POSITIVE_INFINITY, DoubleAlgs.doubleDoubleSum(new double[] {1, 1e308, 1e308, 1, 1, 1}, 0, 6)), () ->
+        assertEquals(Double.POSITIVE_INFINITY, DoubleAlgs.doubleDoubleSum(new double[] {1, 1, 1, 1, 1, Double.POSITIVE_INFINITY}, 0, 6)));
+    }
+
+    @Test void testDot() {
+        Random rnd = new Random(23);
+        double[] a = rnd.doubles(1_001).map(x -> scalb(x - 0.5, rnd.nextInt(40))).toArray();
+        double[] b = rnd.doubles(1_001).map(x -> scalb(x - 0.5, rnd.nextInt(40))).toArray();
+        a[500] = 1e15; b[500] = 1e15 + 1; a[501] = -1e15; b[501] = 1e15; // cancelling products
+        BigDecimal exact = ZERO;
+        for (int i = 0; i < a.length; i++) exact = exact.add(new BigDecimal(a[i]).multiply(new BigDecimal(b[i])));
+        double expected = exact.doubleValue();
+
+        assertEach(() ->
+        assertEquals(expected, DoubleAlgs.dot(a, b), ulp(expected)), () ->
+        assertEquals(1       , DoubleAlgs.dot(new double[] {1e100, 1, -1e100}, new double[] {1, 1, 1})), () ->
+        assertEquals(0x1p-104, DoubleAlgs.dot(new double[] {1 + 0x1p-52, -1}, new double[] {1 + 0x1p-52, 1 + 0x1p-51})), () ->
+        assertEquals(0       , DoubleAlgs.dot(a, b, 3, 3)), () ->
+        assertEquals(Double.POSITIVE_INFINITY, DoubleAlgs.dot(new double[] {1e300, 1}, new double[] {1e300, 1})), () ->
+        assertThat(() -> DoubleAlgs.dot(new double[1], new double[2]), illegalArgument()));
+    }
+
+    @Test void testSumOfSquares() {
+        double[] xs = new Random(29).doubles(1_003).map(x -> x * 1e-3 + 1).toArray();
+        BigDecimal exact = ZERO;
+        for (double x : xs) exact = exact.add(new BigDecimal(x).pow(2));
+        double expected = exact.doubleValue();
+
+        assertEach(() ->
+        assertEquals(expected       , DoubleAlgs.sumOfSquares(xs), ulp(expected)), () ->
+        assertEquals(sqrt(expected) , DoubleAlgs.norm2(xs), ulp(sqrt(expected))), () ->
+        assertEquals(5              , DoubleAlgs.norm2(new double[] {3, 4})), () ->
+        assertEquals(5e200          , DoubleAlgs.norm2(new double[] {3e200, -4e200}), ulp(5e200)), () ->
+        assertEquals(5e-200         , DoubleAlgs.norm2(new double[] {-3e-200, 4e-200}), ulp(5e-200)), () ->
+        assertEquals(0              , DoubleAlgs.norm2(new double[0])), () ->
+        assertEquals(Double.POSITIVE_INFINITY, DoubleAlgs.norm2(new double[] {1, Double.NEGATIVE_INFINITY})), () ->
+        assertEquals(Double.NaN     , DoubleAlgs.norm2(new double[] {1, Double.NaN})));
+    }
+
     static class ClassVisitor extends org.objectweb.asm.ClassVisitor {
         ClassVisitor(int api, org.objectweb.asm.ClassVisitor cv) { super(api, cv); }
         @Override
         public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
-            if ("plainSum".equals(name) || "neumaierSum".equals(name) || "kleinSum".equals(name)) {
+            if (!descriptor.startsWith("([DD")) {
+                return super.visitMethod(access, name, descriptor, signature, exceptions); // skip bulk kernels
+            } else if ("plainSum".equals(name) || "neumaierSum".equals(name) || "kleinSum".equals(name)) {
                 return new DoubleToFloatMethodVisitor(api, super.visitMethod(access, name, d2f(descriptor), signature, exceptions), DEFAULT_VI);
             } else if ("kahanSum".equals(name)) {
                 return new DoubleToFloatMethodVisitor(api, super.visitMethod(access, name, d2f(descriptor), signature, exceptions), KH_SUM_VI);
@@ -0,0 +1,148 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import ru.serge2nd.DoubleSum.StdOp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static java.lang.Math.scalb;
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Arrays.copyOfRange;
+import static java.util.Arrays.fill;
+import static java.util.Collections.emptySet;
+import static java.util.stream.Stream.concat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.objectweb.asm.Opcodes.ASM9;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+import static ru.serge2nd.DoubleAlgs.PARALLEL_BLOCK;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class DoubleBufferAlgsTest {
+    static final double[] XS = values(new Random(3), 5 * PARALLEL_BLOCK + 11);
+    static final double[] YS = values(new Random(4), XS.length);
+
+    @TempDir Path dir;
+
+    @Test void testSum() {
+        DoubleBuffer xs = DoubleBuffer.wrap(XS);
+        ByteBuffer bytes = bytes(XS, ByteBuffer.allocateDirect(XS.length * 8).order(BIG_ENDIAN));
+        double[] expected = sum(DoubleAlgs.parallelSum(XS, StdOp.KAHAN, 1));
+
+        assertEach(() ->
+        assertArrayEquals(expected, sum(DoubleBufferAlgs.sum(xs, StdOp.KAHAN, 1))), () ->
+        assertArrayEquals(expected, sum(DoubleBufferAlgs.sum(xs.asReadOnlyBuffer(), StdOp.KAHAN, 1))), () ->
+        assertArrayEquals(expected, sum(DoubleBufferAlgs.sum(bytes, StdOp.KAHAN, 1))), () ->
+        assertEquals(0, xs.position()), () ->
+        assertEquals(0, bytes.position()), () ->
+        assertEquals(DoubleAlgs.parallelSum(XS, 7, XS.length, StdOp.NEUMAIER, 1).fine(),
+                     DoubleBufferAlgs.sum((DoubleBuffer)xs.duplicate().position(7), StdOp.NEUMAIER, 1).fine()), () ->
+        assertEquals(0, DoubleBufferAlgs.sum(DoubleBuffer.allocate(0), StdOp.KAHAN, 1).fine()), () ->
+        assertThat(()->DoubleBufferAlgs.sum(xs, null, 1), illegalArgument()), () ->
+        assertThat(()->DoubleBufferAlgs.sum(xs, StdOp.KLEIN, 1), illegalArgument()));
+    }
+
+    @Test void testSumFile() throws IOException {
+        Path file = write("xs", XS);
+        double[] expected = sum(DoubleAlgs.parallelSum(XS, StdOp.KLEIN, 2));
+
+        assertEach(() ->
+        assertArrayEquals(expected, sum(DoubleBufferAlgs.sum(file, StdOp.KLEIN, 2))), () ->
+        assertArrayEquals(expected, sum(DoubleBufferAlgs.sum(DoubleBufferAlgs.map(file, LITTLE_ENDIAN, 8 * 1000), StdOp.KLEIN, 2))), () ->
+        assertArrayEquals(expected, sum(DoubleBufferAlgs.sum(DoubleBufferAlgs.map(file, LITTLE_ENDIAN, 8), StdOp.KLEIN, 2))));
+    }
+
+    @Test void testSegments() throws IOException {
+        DoubleBufferAlgs.Segments segs = DoubleBufferAlgs.map(write("xs", XS), LITTLE_ENDIAN, 8 * 100);
+        double[] dest = new double[250];
+        segs.copy(1234, dest, dest.length);
+
+        for (int i = 0; i < dest.length; i++) assertEquals(XS[1234 + i], dest[i]);
+        assertEach(() ->
+        assertEquals(XS.length, segs.length), () ->
+        assertEquals((XS.length + 99) / 100, segs.segs.length));
+    }
+
+    /** The covariant overrides of the {@link java.nio.Buffer} methods are absent in Java 8, see the <code>release8</code> profile. */
+    @Test void testJava8Linkage() throws IOException {
+        Set<String> calls = new TreeSet<>();
+        for (Class<?> c : concat(Stream.of(DoubleBufferAlgs.class), Stream.of(DoubleBufferAlgs.class.getDeclaredClasses())).toArray(Class<?>[]::new))
+            new ClassReader(c.getName()).accept(new ClassVisitor(ASM9) {
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                    return new MethodVisitor(ASM9) {
+                        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+                            if (owner.startsWith("java/nio/") && name.matches("position|limit|mark|reset|clear|flip|rewind") && !descriptor.endsWith(")Ljava/nio/Buffer;"))
+                                calls.add(owner + "." + name + descriptor);
+                        }
+                    };
+                }
+            }, 0);
+        assertEquals(emptySet(), calls);
+    }
+
+    @Test void testStatistics() throws IOException {
+        Path file = write("xs", XS);
+        CompensatedStatistics expected = CompensatedStatistics.of(XS);
+        CompensatedStatistics stats = DoubleBufferAlgs.statistics(file);
+
+        assertEach(() ->
+        assertEquals(expected.count()   , stats.count()), () ->
+        assertEquals(expected.sum()     , stats.sum(), Math.abs(expected.sum()) * 1e-14), () ->
+        assertEquals(expected.mean()    , stats.mean(), Math.abs(expected.mean()) * 1e-14), () ->
+        assertEquals(expected.variance(), stats.variance(), expected.variance() * 1e-14), () ->
+        assertEquals(expected.variance(), DoubleBufferAlgs.statistics(DoubleBuffer.wrap(XS)).variance(), expected.variance() * 1e-14), () ->
+        assertEquals(stats.variance()   , DoubleBufferAlgs.statistics(bytes(XS, ByteBuffer.allocate(XS.length * 8))).variance()));
+    }
+
+    @Test void testDot() throws IOException {
+        double expected = DoubleAlgs.dot(XS, YS);
+        double[] split = new double[2 * PARALLEL_BLOCK], ones = new double[split.length];
+        split[0] = 1; split[1] = 0x1p-60; split[PARALLEL_BLOCK] = -1; // the blocks cancel out beyond the precision of a block
+        fill(ones, 1);
+        assertEach(() ->
+        assertEquals(expected, DoubleBufferAlgs.dot(DoubleBuffer.wrap(XS), DoubleBuffer.wrap(YS)), Math.ulp(expected)), () ->
+        assertEquals(expected, DoubleBufferAlgs.dot(write("xs", XS), write("ys", YS)), Math.ulp(expected)), () ->
+        assertEquals(1, DoubleBufferAlgs.dot(DoubleBuffer.wrap(new double[] {1e100, 1, -1e100}), DoubleBuffer.wrap(new double[] {1, 1, 1}))), () ->
+        assertEquals(DoubleAlgs.dot(copyOfRange(XS, 3, XS.length), copyOfRange(YS, 0, YS.length - 3)),
+                     DoubleBufferAlgs.dot((DoubleBuffer)DoubleBuffer.wrap(XS).position(3), DoubleBuffer.wrap(YS, 0, YS.length - 3)), Math.ulp(expected)), () ->
+        assertEquals(0x1p-60, DoubleBufferAlgs.dot(DoubleBuffer.wrap(split), DoubleBuffer.wrap(ones))), () ->
+        assertThat(()->DoubleBufferAlgs.dot(DoubleBuffer.wrap(XS), DoubleBuffer.wrap(new double[1])), illegalArgument()));
+    }
+
+    @Test void testWrongFileSize() throws IOException {
+        Path file = Files.write(dir.resolve("odd"), new byte[12]);
+        assertThat(()->DoubleBufferAlgs.sum(file, StdOp.KAHAN, 1), illegalArgument());
+    }
+
+    Path write(String name, double[] xs) throws IOException {
+        return Files.write(dir.resolve(name), bytes(xs, ByteBuffer.allocate(xs.length * 8).order(LITTLE_ENDIAN)).array());
+    }
+    static ByteBuffer bytes(double[] xs, ByteBuffer bytes) {
+        bytes.duplicate().order(bytes.order()).asDoubleBuffer().put(xs);
+        return bytes;
+    }
+    static double[] sum(DoubleSum s) { return (double[])getField(s, "sum"); }
+    static double[] values(Random rnd, int n) {
+        double[] xs = new double[n];
+        for (int i = 0; i < n; i++) xs[i] = scalb(rnd.nextDouble() - 0.5, rnd.nextInt(60));
+        return xs;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import static java.math.BigDecimal.ONE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.serge2nd.test.Asserting.assertEach;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class DoubleDoubleTest {
+    static final BigDecimal EPS = new BigDecimal("1e-31");
+
+    @Test void testSet() {
+        assertEach(() ->
+        assertEquals(new DoubleDouble(2, 0)         , new DoubleDouble(1, 1)), () ->
+        assertEquals(0x1p-60                        , new DoubleDouble(1, 0x1p-60).lo()), () ->
+        assertEquals(1                              , new DoubleDouble(1, 0x1p-60).hi()), () ->
+        assertEquals(new DoubleDouble(3)            , new DoubleDouble().set(5).set(new DoubleDouble(3))));
+    }
+
+    @Test void testAdd() {
+        DoubleDouble counter = new DoubleDouble();
+        for (int i = 0; i < 1_000_000; i++) counter.add(0.1);
+        BigDecimal expected = new BigDecimal(0.1).multiply(BigDecimal.valueOf(1_000_000));
+
+        assertEach(() ->
+        assertEquals(1e-20, new DoubleDouble(1).add(1e-20).add(-1).doubleValue()), () ->
+        assertEquals(2    , new DoubleDouble(1e101).add(1).add(new DoubleDouble(1)).sub(1e101).doubleValue()), () ->
+        assertEquals(0    , new DoubleDouble(1, 0x1p-60).sub(new DoubleDouble(1, 0x1p-60)).doubleValue()), () ->
+        assertTrue(counter.toBigDecimal().subtract(expected).abs().compareTo(expected.multiply(EPS)) < 0));
+    }
+
+    @Test void testMul() {
+        DoubleDouble x = new DoubleDouble(1 + 0x1p-52);
+        assertEach(() ->
+        assertEquals(new DoubleDouble(1 + 0x1p-51, 0x1p-104), x.copy().mul(1 + 0x1p-52)), () ->
+        assertEquals(new DoubleDouble(1 + 0x1p-51, 0x1p-104), x.copy().mul(x)), () ->
+        assertEquals(-6, new DoubleDouble(2).mul(new DoubleDouble(-3)).doubleValue()), () ->
+        assertEquals(2e300, new DoubleDouble(1e300).mul(2).doubleValue()));
+    }
+
+    @Test void testDiv() {
+        BigDecimal third = ONE.divide(BigDecimal.valueOf(3), new MathContext(40));
+        DoubleDouble x = new DoubleDouble(1).div(3);
+        assertEach(() ->
+        assertTrue(x.toBigDecimal().subtract(third).abs().compareTo(EPS.divide(BigDecimal.TEN)) < 0), () ->
+        assertTrue(new DoubleDouble(1).div(new DoubleDouble(3)).toBigDecimal().subtract(third).abs().compareTo(EPS.divide(BigDecimal.TEN)) < 0), () ->
+        assertTrue(x.copy().mul(3).toBigDecimal().subtract(ONE).abs().compareTo(EPS) < 0), () ->
+        assertTrue(new DoubleDouble(2).div(x).toBigDecimal().subtract(BigDecimal.valueOf(6)).abs().compareTo(EPS) < 0), () ->
+        assertEquals(Double.POSITIVE_INFINITY, new DoubleDouble(1).div(0).doubleValue()));
+    }
+
+    @Test void testNonFinite() {
+        DoubleDouble x = new DoubleDouble(Double.MAX_VALUE).add(Double.MAX_VALUE);
+        assertEach(() ->
+        assertEquals(Double.POSITIVE_INFINITY, x.hi()), () ->
+        assertEquals(0                       , x.lo()), () ->
+        assertEquals("Infinity"              , x.toString()), () ->
+        assertEquals(Double.NaN              , x.copy().add(Double.NEGATIVE_INFINITY).doubleValue()));
+    }
+
+    @Test void testNumber() {
+        DoubleDouble x = new DoubleDouble(0x1p60, -1);
+        assertEach(() ->
+        assertEquals((1L << 60) - 1           , x.longValue()), () ->
+        assertEquals(-1                       , x.intValue()), () ->
+        assertEquals("1152921504606846975"    , x.toString()), () ->
+        assertEquals(0x1p60                   , x.doubleValue()));
+    }
+
+    @Test void testCompare() {
+        DoubleDouble a = new DoubleDouble(1, 0x1p-60), b = new DoubleDouble(1, -0x1p-60);
+        assertEach(() ->
+        assertTrue(a.compareTo(b) > 0), () ->
+        assertTrue(b.compareTo(a) < 0), () ->
+        assertEquals(0, a.compareTo(a.copy())), () ->
+        assertEquals(a.hashCode(), a.copy().hashCode()), () ->
+        assertNotEquals(a, b));
+    }
+}
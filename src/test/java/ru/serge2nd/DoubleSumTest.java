@@ -3,7 +3,16 @@ package ru.serge2nd;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
+import ru.serge2nd.DoubleSum.StdOp;
 
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.util.ReflectionTestUtils.getField;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
@@ -11,6 +20,7 @@ import static ru.serge2nd.test.Asserting.assertEach;
 import static ru.serge2nd.test.match.ArrayMatch.doubles;
 import static ru.serge2nd.test.match.AssertThat.assertThat;
 import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+import static ru.serge2nd.test.match.CoreMatch.illegalState;
 
 @TestInstance(Lifecycle.PER_CLASS)
 @SuppressWarnings("ConstantConditions")
@@ -44,15 +54,130 @@ class DoubleSumTest {
         getField(s, "sum"), doubles(0, 2));
     }
 
+    @Test void testAddAll() {
+        double[] xs = {7, 1, F, 1, -F, 7};
+        assertThat(
+        getField(new DoubleSum(1, StdOp.NEUMAIER, 1).addAll(xs, 1, 5)       , "sum"), doubles(0, 3),
+        getField(new DoubleSum(1, DoubleAlgs::neumaierSum, 1).addAll(xs, 1, 5), "sum"), doubles(0, 3),
+        getField(new DoubleSum(0, StdOp.ITERATIVE_KB, 3).addAll(xs, 1, 5)    , "sum"), doubles(0, 2, 0, 0),
+        getField(new DoubleSum(0, StdOp.PLAIN, 0).addAll(xs, 0, 0)           , "sum"), doubles(0));
+    }
+
+    @Test void testMerge() {
+        assertThat(
+        getField(DoubleSum.of(F, 1).merge(DoubleSum.of(1)), "sum")                                     , doubles(F, -2),
+        getField(DoubleSum.of(StdOp.NEUMAIER, 1, 1, F).merge(DoubleSum.of(StdOp.NEUMAIER, 1, 1, -F)), "sum"), doubles(0, 2),
+        getField(DoubleSum.of(StdOp.KLEIN, 2, 1, F).merge(DoubleSum.of(StdOp.KLEIN, 2, 1, -F)), "sum")      , doubles(0, 2, 0));
+    }
+
+    @Test void testExact() {
+        double[] xs = {1e300, 1, -1e300, 0x1p-1074, 1e-300, 3, -1e-300};
+        DoubleSum s = DoubleSum.exact(xs).merge(DoubleSum.exact(xs)).add(-8);
+        assertEach(() ->
+        assertEquals(0x1p-1073, s.fine()), () ->
+        assertEquals(4        , DoubleAlgs.parallelSum(xs, StdOp.EXACT, DoubleSum.EXACT_ORDER).fine()));
+    }
+    @Test void testExactOverflow() {
+        double max = Double.MAX_VALUE;
+        DoubleSum s = DoubleSum.exact(max, max, -max);
+        assertEach(() ->
+        assertEquals(max, s.fine()), () ->
+        assertEquals(max, s.get()), () ->
+        assertEquals(max, DoubleSum.exact(max).merge(DoubleSum.exact(max)).add(-max).fine()), () ->
+        assertEquals(Double.POSITIVE_INFINITY, DoubleSum.exact(max, max).fine()));
+    }
+
+    @Test void testDoubleDouble() {
+        double[] xs = {1, F, 1, -F};
+        assertThat(
+        getField(DoubleSum.doubleDouble(xs), "sum")                                            , doubles(2, 0),
+        getField(new DoubleSum(0, StdOp.DOUBLE_DOUBLE, 1).add(1).add(F).add(1).add(-F), "sum"), doubles(2, 0),
+        getField(DoubleSum.doubleDouble(1, 0x1p-60, 0x1p-120), "sum")                          , doubles(1, 0x1p-60 + 0x1p-120));
+    }
+
+    @Test void testBinaryState() {
+        ByteBuffer buf = ByteBuffer.allocate(1024);
+        DoubleSum kb = DoubleSum.of(StdOp.ITERATIVE_KB, 3, 1, F, 1, -F);
+        DoubleSum ex = DoubleSum.exact(1, F, 1, -F, 0x1p-1074);
+        DoubleSum zero = DoubleSum.of(StdOp.NEUMAIER, 1);
+        kb.writeTo(buf); ex.writeTo(buf); zero.writeTo(buf);
+        assertEquals(kb.encodedSize() + ex.encodedSize() + zero.encodedSize(), buf.position());
+        buf.flip();
+        DoubleSum kb2 = DoubleSum.readFrom(buf), ex2 = DoubleSum.readFrom(buf), zero2 = DoubleSum.readFrom(buf);
+        assertEach(() ->
+        assertThat(getField(kb2, "sum"), doubles(0, 2, 0, 0)), () ->
+        assertEquals(StdOp.ITERATIVE_KB, getField(kb2, "op")), () ->
+        assertEquals(ex.fine()   , ex2.fine()), () ->
+        assertEquals(2 + 0x1p-1074, ex2.merge(DoubleSum.exact(-2)).fine() + 2), () ->
+        assertThat(getField(zero2, "sum"), doubles(0, 0)), () ->
+        assertEquals(7           , zero.encodedSize()), () ->
+        assertEquals(0           , buf.remaining()), () ->
+        assertThat(()->DoubleSum.of(DoubleAlgs::neumaierSum, 1).writeTo(buf), illegalState()), () ->
+        assertThat(()->DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {99, 0, 1, 0, 0, 0, 0})), illegalArgument()), () ->
+        assertThat(()->DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {1, 0, 2, 0, 1, 0, 2})) , illegalArgument()));
+    }
+    @Test void testBinaryStateLength() {
+        assertEach(() ->
+        assertThat(()->DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 0, 0, 0})) , illegalArgument()), () ->
+        assertThat(()->DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {1, 0, 1, 0, 0, 0, 0})) , illegalArgument()), () ->
+        assertThat(()->DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {3, 0, 2, 0, 0, 0, 0})) , illegalArgument()), () ->
+        assertThat(()->DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {5, 0, 3, 0, 0, 0, 0})) , illegalArgument()), () ->
+        assertThat(()->DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {6, 0, 2, 0, 0, 0, 0})) , illegalArgument()), () ->
+        assertThat(()->DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {6, 0, (byte)(DoubleAlgs.EXACT_BINS - 1), 0, 0, 0, 0})), illegalArgument()), () ->
+        assertThat(getField(DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {5, 0, 2, 0, 0, 0, 0})), "sum"), doubles(0, 0)), () ->
+        assertEquals(0, DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {6, 0, (byte)DoubleAlgs.EXACT_BINS, 0, 0, 0, 0})).fine()), () ->
+        assertEquals(0, DoubleSum.readFrom(ByteBuffer.wrap(new byte[] {4, 0, 1, 0, 0, 0, 0})).fine()));
+    }
+    @Test void testSupports() {
+        assertEach(() ->
+        assertEquals(asList(true, false, false, false, true, false, false), Arrays.stream(StdOp.values()).map(op -> op.supports(0)).collect(toList())), () ->
+        assertEquals(asList(true, true , true , false, true, true , false), Arrays.stream(StdOp.values()).map(op -> op.supports(1)).collect(toList())), () ->
+        assertEquals(asList(true, true , true , true , true, false, false), Arrays.stream(StdOp.values()).map(op -> op.supports(2)).collect(toList())), () ->
+        assertEquals(true , StdOp.EXACT.supports(DoubleSum.EXACT_ORDER)), () ->
+        assertEquals(false, StdOp.PLAIN.supports(-1)));
+    }
+
     @Test void testNullOp()            { assertThat(()->new DoubleSum(0, null, 0)                 , illegalArgument()); }
     @Test void testNegativeCmpnOrder() { assertThat(()->new DoubleSum(0, DoubleAlgs::kahanSum, -1), illegalArgument()); }
+    @Test void testUnsupportedOrder() { assertEach(() ->
+        assertThat(()->new DoubleSum(0, StdOp.EXACT, 1)        , illegalArgument()), () ->
+        assertThat(()->new DoubleSum(0, StdOp.KLEIN, 1)        , illegalArgument()), () ->
+        assertThat(()->new DoubleSum(0, StdOp.DOUBLE_DOUBLE, 2), illegalArgument()), () ->
+        assertThat(()->DoubleSum.of(StdOp.KAHAN, 0, 1, 2)      , illegalArgument()));
+    }
 
     @Test void testGetters() {
         DoubleSum s = DoubleSum.of();
-        setField(s, "sum", new double[] {5, 7, 9});
+        setField(s, "sum", new double[] {5, 7});
         assertEach(() ->
-        assertEquals(21, s.get()), () ->
-        assertEquals(21, s.fine()), () ->
+        assertEquals(-2, s.get()), () ->
+        assertEquals(-2, s.fine()), () ->
         assertEquals(5 , s.raw()));
     }
-}
\ No newline at end of file
+
+    @Test void testFine() {
+        DoubleSum s = DoubleSum.of(StdOp.NEUMAIER, 2);
+        setField(s, "sum", new double[] {1, 0x1p-53, 0x1p-106});
+        DoubleSum inf = DoubleSum.of(1, Double.POSITIVE_INFINITY);
+        assertEach(() ->
+        assertEquals(1          , s.get()), () ->
+        assertEquals(1 + 0x1p-52, s.fine()), () ->
+        assertEquals(1 + E      , DoubleSum.of(DoubleAlgs::neumaierSum, 1, 1, 1e-16, 1e-16).fine()), () ->
+        assertEquals(Double.POSITIVE_INFINITY, inf.fine()));
+    }
+    @Test void testFineKahan() {
+        Random rnd = new Random(17);
+        assertEach(IntStream.range(0, 20_000).mapToObj(i -> {
+            double[] xs = i % 2 == 0
+                ? rnd.doubles(2 + rnd.nextInt(6), -1, 1).map(x -> Math.scalb(x, rnd.nextInt(121) - 60)).toArray()
+                : rnd.longs(2 + rnd.nextInt(6), -1L << 53, 1L << 53).mapToDouble(x -> Math.scalb((double)x, rnd.nextInt(4))).toArray(); // the ties
+            DoubleSum s = new DoubleSum(0);
+            if (i % 4 < 2) s.addAll(xs, 0, xs.length); else for (double x : xs) s.add(x);
+            double[] sum = (double[])getField(s, "sum");
+            double expected = new BigDecimal(sum[0]).subtract(new BigDecimal(sum[1])).doubleValue();
+            return () -> assertEach(() ->
+            assertEquals(expected, s.fine(), () -> Arrays.toString(xs)), () ->
+            assertEquals(expected, s.get(), () -> Arrays.toString(xs)));
+        }));
+    }
+}
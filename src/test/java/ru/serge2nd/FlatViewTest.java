@@ -0,0 +1,87 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import ru.serge2nd.FlatView.OfDouble;
+import ru.serge2nd.FlatView.OfInt;
+import ru.serge2nd.FlatView.OfLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.fails;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+import static ru.serge2nd.test.match.CoreMatch.illegalState;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class FlatViewTest {
+    static final int[][][] NESTED = {{{0, 1, 2, 3}, {4, 5, 6, 7}, {8, 9, 10, 11}}, {{12, 13, 14, 15}, {16, 17, 18, 19}, {20, 21, 22, 23}}};
+
+    static OfInt cube() { return OfInt.of(ObjectAssist.flatArray(NESTED), 2, 3, 4); }
+
+    @Test void testGet() {
+        OfInt v = cube();
+        assertEach(() ->
+        assertEquals(3    , v.dims()), () ->
+        assertEquals(24   , v.size()), () ->
+        assertArrayEquals(new int[] {12, 4, 1}, v.strides()), () ->
+        assertEquals(17   , v.get(1, 1, 1)), () ->
+        assertEquals(23   , v.get(new int[] {1, 2, 3})), () ->
+        assertEquals(23   , v.index(1, 2, 3)), () ->
+        assertTrue(v.isContiguous()), () ->
+        assertEquals(-1   , v.set(-1, 0, 2, 1).data()[9]), () ->
+        assertThat(()->v.get(0, 3, 0), fails(IndexOutOfBoundsException.class)), () ->
+        assertThat(()->v.get(0, 0)   , illegalArgument()));
+    }
+
+    @Test void testViews() {
+        OfInt v = cube();
+        OfInt t = v.transpose();
+        OfInt s = v.slice(2, 1, 4, 2);
+        OfInt m = v.at(0, 1).at(1, 2);
+        assertEach(() ->
+        assertArrayEquals(new int[] {4, 3, 2}, t.shape()), () ->
+        assertEquals(v.get(1, 2, 3), t.get(3, 2, 1)), () ->
+        assertFalse(t.isContiguous()), () ->
+        assertArrayEquals(new int[] {1, 3, 5, 7, 9, 11, 13, 15, 17, 19, 21, 23}, s.toArray()), () ->
+        assertArrayEquals(new int[] {14, 18, 22}, m.toArray()), () ->
+        assertEquals(18   , m.get(1)), () ->
+        assertEquals(v.get(0, 2, 1), v.permute(1, 2, 0).get(2, 1, 0)), () ->
+        assertSame(v.data(), t.data()), () ->
+        assertThat(()->v.permute(0, 0, 1)      , illegalArgument()), () ->
+        assertThat(()->v.slice(1, 2, 4)        , fails(IndexOutOfBoundsException.class)), () ->
+        assertThat(()->v.slice(1, 0, 2, 0)     , illegalArgument()));
+    }
+
+    @Test void testReshape() {
+        OfInt v = cube();
+        OfInt r = v.reshape(6, 4);
+        assertEach(() ->
+        assertEquals(v.get(1, 0, 2), r.get(3, 2)), () ->
+        assertSame(v.data(), r.data()), () ->
+        assertEquals(v.get(1, 0, 2), v.at(0, 1).reshape(12).get(2)), () ->
+        assertEquals(v.get(0, 1, 2), v.transpose().copy().reshape(24).get(2 * 6 + 1 * 2)), () ->
+        assertThat(()->v.reshape(5, 5)           , illegalArgument()), () ->
+        assertThat(()->v.transpose().reshape(24) , illegalState()));
+    }
+
+    @Test void testUnflat() {
+        OfInt v = cube();
+        int[][][] t = (int[][][])v.transpose().unflat();
+        assertEach(() ->
+        assertArrayEquals(NESTED, (int[][][])v.unflat()), () ->
+        assertArrayEquals(NESTED, ObjectAssist.unflat(v.data(), 2, 3, 4)), () ->
+        assertArrayEquals(NESTED[1], (int[][])v.at(0, 1).unflat()), () ->
+        assertEquals(NESTED[1][2][3], t[3][2][1]), () ->
+        assertArrayEquals(new double[][] {{1, 2}, {3, 4}}, (double[][])OfDouble.of(new double[] {1, 2, 3, 4}, 2, 2).unflat()), () ->
+        assertArrayEquals(new long[][] {{1, 3}, {2, 4}}, (long[][])OfLong.of(new long[] {1, 2, 3, 4}, 2, 2).transpose().unflat()), () ->
+        assertThat(()->ObjectAssist.unflat(new int[5], 2, 3), illegalArgument()), () ->
+        assertThat(()->ObjectAssist.unflat(NESTED, 24)       , illegalArgument()), () ->
+        assertThat(()->OfDouble.of(new double[4], 3)         , illegalArgument()));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.fails;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class GroupedDoubleSumTest {
+    static final double F = 1e101;
+
+    @Test void testOfLong() {
+        GroupedDoubleSum.OfLong s = new GroupedDoubleSum.OfLong()
+            .add(7, 1).add(-3, 5).add(7, F).add(7, 1).add(7, -F).add(1L << 40, 2);
+        assertEach(() ->
+        assertEquals(3      , s.size()), () ->
+        assertEquals(2      , s.get(7)), () ->
+        assertEquals(5      , s.get(-3)), () ->
+        assertEquals(2      , s.get(1L << 40)), () ->
+        assertEquals(0      , s.get(8)), () ->
+        assertEquals(-1     , s.indexOf(8)), () ->
+        assertEquals(-3     , s.key(1)), () ->
+        assertArrayEquals(new double[] {2, 5, 2}, s.sums()), () ->
+        assertEquals(asList(7L, -3L, 1L << 40), new ArrayList<>(s.toMap().keySet())));
+    }
+
+    @Test void testOfInt() {
+        GroupedDoubleSum.OfInt s = new GroupedDoubleSum.OfInt(1).add(0, 1).add(Integer.MIN_VALUE, F).add(Integer.MIN_VALUE, 1).add(Integer.MIN_VALUE, -F);
+        Map<Integer, Double> expected = new LinkedHashMap<>();
+        expected.put(0, 1.0); expected.put(Integer.MIN_VALUE, 1.0);
+        assertEach(() ->
+        assertEquals(expected, s.toMap()), () ->
+        assertEquals(1       , s.sum(s.indexOf(Integer.MIN_VALUE))), () ->
+        assertEquals(Integer.MIN_VALUE, s.key(1)));
+    }
+
+    @Test void testOfObject() {
+        GroupedDoubleSum.OfObject<String> s = new GroupedDoubleSum.OfObject<String>().add("a", 1).add(null, 2).add(new String("a"), 3);
+        assertEach(() ->
+        assertEquals(2  , s.size()), () ->
+        assertEquals(4  , s.get("a")), () ->
+        assertEquals(2  , s.get(null)), () ->
+        assertEquals(null, s.key(1)));
+    }
+
+    @Test void testManyGroups() {
+        Random rnd = new Random(2);
+        GroupedDoubleSum.OfLong s = new GroupedDoubleSum.OfLong();
+        GroupedDoubleSum.OfLong a = new GroupedDoubleSum.OfLong(), b = new GroupedDoubleSum.OfLong(100_000);
+        Map<Long, DoubleSum> expected = new HashMap<>();
+        for (int i = 0; i < 300_000; i++) {
+            long key = rnd.nextInt(50_000) * 0x100000000L;
+            double x = rnd.nextDouble() * Math.pow(10, rnd.nextInt(12)) - 1e5;
+            s.add(key, x);
+            (i % 3 == 0 ? a : b).add(key, x);
+            expected.computeIfAbsent(key, k -> DoubleSum.exact()).add(x);
+        }
+        a.merge(b);
+        assertEquals(expected.size(), s.size());
+        assertEquals(expected.size(), a.size());
+        expected.forEach((k, v) -> assertEach(() ->
+            assertEquals(v.fine(), s.get(k), Math.ulp(v.fine())), () ->
+            assertEquals(v.fine(), a.get(k), Math.ulp(v.fine()))));
+    }
+
+    @Test void testNoSuchGroup() {
+        GroupedDoubleSum.OfInt s = new GroupedDoubleSum.OfInt().add(1, 1);
+        assertEach(() ->
+        assertThat(()->s.sum(1), fails(IndexOutOfBoundsException.class)), () ->
+        assertThat(()->s.key(1), fails(IndexOutOfBoundsException.class)));
+    }
+
+    @Test void testNegativeExpected() { assertThat(()->new GroupedDoubleSum.OfLong(-1), illegalArgument()); }
+}
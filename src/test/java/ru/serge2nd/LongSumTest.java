@@ -0,0 +1,100 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static java.lang.Long.MAX_VALUE;
+import static java.lang.Long.MIN_VALUE;
+import static java.math.BigInteger.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.fails;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class LongSumTest {
+    static final long[] XS = new Random(13).longs(100_003).toArray();
+    static final BigInteger EXACT = sum(XS);
+
+    @Test void testAdd() {
+        LongSum s = new LongSum();
+        for (long x : XS) s.add(x);
+        assertEach(() ->
+        assertEquals(EXACT, s.toBigInteger()), () ->
+        assertEquals(EXACT, LongSum.of(XS).toBigInteger()), () ->
+        assertEquals(sum(XS[7], XS[8], XS[9]), new LongSum().addAll(XS, 7, 10).toBigInteger()));
+    }
+
+    @Test void testOverflow() {
+        LongSum s = LongSum.of(MAX_VALUE, MAX_VALUE, MAX_VALUE);
+        LongSum n = LongSum.of(MIN_VALUE, MIN_VALUE, -1);
+        assertEach(() ->
+        assertEquals(sum(MAX_VALUE, MAX_VALUE, MAX_VALUE), s.toBigInteger()), () ->
+        assertEquals(sum(MIN_VALUE, MIN_VALUE, -1)      , n.toBigInteger()), () ->
+        assertEquals(sum(MIN_VALUE, MIN_VALUE, -1)      , new LongSum().add(MIN_VALUE).add(MIN_VALUE).add(-1).toBigInteger()), () ->
+        assertEquals(MAX_VALUE - 3                      , s.merge(n).longValueExact()), () ->
+        assertEquals(1, s.signum()), () ->
+        assertEquals(-1, n.signum()), () ->
+        assertThat(()->LongSum.of(MAX_VALUE, 1).longValueExact(), fails(ArithmeticException.class)));
+    }
+
+    @Test void testNegate() {
+        assertEach(() ->
+        assertEquals(EXACT.negate()                , LongSum.of(XS).negate().toBigInteger()), () ->
+        assertEquals(BigInteger.valueOf(MIN_VALUE).negate(), LongSum.of(MIN_VALUE).negate().toBigInteger()), () ->
+        assertEquals(0, LongSum.of(0).negate().signum()));
+    }
+
+    @Test void testConversions() {
+        LongSum big = LongSum.of(MAX_VALUE, MAX_VALUE);
+        assertEach(() ->
+        assertEquals(new BigDecimal(sum(MAX_VALUE, MAX_VALUE)).doubleValue(), big.doubleValue()), () ->
+        assertEquals(-5.0 , LongSum.of(-2, -3).doubleValue()), () ->
+        assertEquals("-5" , LongSum.of(-2, -3).toString()), () ->
+        assertEquals(sum(MAX_VALUE, MAX_VALUE).toString(), big.toString()), () ->
+        assertEquals(big  , new LongSum(big.hi(), big.lo())), () ->
+        assertEquals(big.hashCode(), new LongSum(0, -2).hashCode()), () ->
+        assertNotEquals(big, LongSum.of(-2)), () ->
+        assertTrue(big.compareTo(LongSum.of(MAX_VALUE)) > 0), () ->
+        assertTrue(LongSum.of(-1).compareTo(LongSum.of(1)) < 0));
+    }
+
+    @Test void testDecimal() {
+        DecimalSum s = DecimalSum.of(2, 150, -25).add(new BigDecimal("0.1")).add(BigDecimal.TEN);
+        DecimalSum t = new DecimalSum(2).addAllUnscaled(new long[] {MAX_VALUE, MAX_VALUE}, 0, 2);
+        assertEach(() ->
+        assertEquals(new BigDecimal("11.35"), s.toBigDecimal()), () ->
+        assertEquals("11.35", s.toString()), () ->
+        assertEquals(2, s.scale()), () ->
+        assertEquals(new BigDecimal(sum(MAX_VALUE, MAX_VALUE), 2), t.toBigDecimal()), () ->
+        assertEquals(DecimalSum.of(2, 1135), DecimalSum.of(2, 1000).merge(DecimalSum.of(2, 135))), () ->
+        assertThat(()->s.add(new BigDecimal("0.001")), fails(ArithmeticException.class)), () ->
+        assertThat(()->s.merge(new DecimalSum(3)), illegalArgument()));
+    }
+
+    @Test void testBinaryState() {
+        LongSum s = LongSum.of(XS);
+        DecimalSum d = DecimalSum.of(-3, MIN_VALUE, MIN_VALUE, 7);
+        ByteBuffer buf = ByteBuffer.allocate(LongSum.BYTES + DecimalSum.BYTES);
+        d.writeTo(s.writeTo(buf)).flip();
+        assertEach(() ->
+        assertEquals(s, LongSum.readFrom(buf)), () ->
+        assertEquals(d, DecimalSum.readFrom(buf)), () ->
+        assertEquals(0, buf.remaining()));
+    }
+
+    static BigInteger sum(long... xs) {
+        BigInteger s = ZERO;
+        for (long x : xs) s = s.add(BigInteger.valueOf(x));
+        return s;
+    }
+}
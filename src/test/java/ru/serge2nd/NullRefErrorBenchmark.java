@@ -0,0 +1,87 @@
+package ru.serge2nd;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.serge2nd.ObjectAssist.NullRefErrorMode;
+
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static ru.serge2nd.ObjectAssist.P_NULL_REF_ERROR_MODE;
+import static ru.serge2nd.ObjectAssist.P_NULL_REF_ERROR_TYPE;
+
+/**
+ * The throughput of {@link ObjectAssist#nullSafe(Object, String)} at the failure rates from none to all
+ * in each {@link NullRefErrorMode} (the mode is fixed on the class initialization, JMH forks a JVM per parameters).
+ * The checks are called under {@link #STACK_DEPTH} frames to resemble a validator deep in a request handling stack.
+ * The {@code CACHED} mode uses {@link Failure} as the error type, since the default type is not cached.
+ * Not a test, run the main method (or the JMH runner) with the test classpath, it prints checks per microsecond.
+ */
+@BenchmarkMode(Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NullRefErrorBenchmark {
+    static final String MSG = "value is required";
+    static final int OPS = 1 << 14, STACK_DEPTH = 64;
+
+    @Param({"FULL", "STACKLESS", "CACHED"})
+    String mode;
+    @Param({"0", "0.001", "0.01", "0.1", "0.5", "1"})
+    double failureRate;
+
+    Object[] xs;
+
+    @Setup
+    public void setup() {
+        System.setProperty(P_NULL_REF_ERROR_MODE, mode); // before ObjectAssist is initialized in this fork
+        if (NullRefErrorMode.CACHED.name().equals(mode)) System.setProperty(P_NULL_REF_ERROR_TYPE, Failure.class.getName());
+        Throwable t = ObjectAssist.nullRefError(MSG);
+        if ((t.getStackTrace().length == 0) == "FULL".equals(mode) || (t == ObjectAssist.nullRefError(MSG)) != "CACHED".equals(mode))
+            throw new IllegalStateException("the mode is not " + mode + ", ObjectAssist is initialized too early");
+
+        Random rnd = new Random(7);
+        xs = new Object[OPS];
+        for (int i = 0; i < OPS; i++) xs[i] = rnd.nextDouble() < failureRate ? null : i;
+    }
+
+    @Benchmark @OperationsPerInvocation(OPS)
+    public long nullSafe() { return deep(STACK_DEPTH, xs); }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NullRefErrorBenchmark.class.getName()).build()).run();
+    }
+
+    public static class Failure extends RuntimeException {
+        public Failure(String msg, Throwable cause, boolean suppression, boolean stackTrace) { super(msg, cause, suppression, stackTrace); }
+    }
+
+    static long deep(int depth, Object[] xs) { return depth == 0 ? validate(xs) : deep(depth - 1, xs) + 1; }
+
+    static long validate(Object[] xs) {
+        long r = 0;
+        for (Object x : xs) {
+            try {
+                r += ObjectAssist.nullSafe(x, MSG).hashCode();
+            } catch (IllegalArgumentException | Failure e) {
+                r += e.getMessage().length();
+            }
+        }
+        return r;
+    }
+}
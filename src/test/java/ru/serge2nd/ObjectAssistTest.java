@@ -6,23 +6,37 @@ import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import ru.serge2nd.ObjectAssist.StacklessIllegalArgumentException;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
 
 import static java.lang.System.getProperty;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static java.util.Collections.newSetFromMap;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.springframework.util.StreamUtils.copyToString;
 import static ru.serge2nd.ObjectAssist.DEFAULT_NULL_REF_ERROR_TYPE;
+import static ru.serge2nd.ObjectAssist.P_NULL_REF_ERROR_MODE;
 import static ru.serge2nd.ObjectAssist.P_NULL_REF_ERROR_TYPE;
+import static ru.serge2nd.test.Asserting.assertEach;
 import static ru.serge2nd.test.match.AssertThat.assertThat;
 import static ru.serge2nd.test.match.CoreMatch.fails;
 import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
@@ -50,6 +64,39 @@ public class ObjectAssistTest implements NoInstanceTest<ObjectAssist> {
     @Test void testNullRefErrorTypeWrong() throws IOException {
         assertThat(forkNullSafe(String.class.getName()), containsString(IllegalArgumentException.class.getName() + ": not throwable: " + String.class.getName()));
     }
+    @Test void testNullRefErrorStackless() throws IOException {
+        assertEquals(StacklessIllegalArgumentException.class.getName() + ": " + ERR + " false 0", fork(NullRefErrorMain.class, P_NULL_REF_ERROR_MODE + "=Stackless").trim());
+    }
+    @Test void testNullRefErrorStacklessCustomType() throws IOException {
+        assertEquals(CustomError.class.getName() + ": " + ERR + " false 0", fork(NullRefErrorMain.class, P_NULL_REF_ERROR_MODE + "=stackless", P_NULL_REF_ERROR_TYPE + "=" + CustomError.class.getName()).trim());
+    }
+    @Test void testNullRefErrorStacklessNoConstructor() throws IOException {
+        assertThat(fork(NullRefErrorMain.class, P_NULL_REF_ERROR_MODE + "=stackless", P_NULL_REF_ERROR_TYPE + "=" + ArithmeticException.class.getName()), containsString("no such constructor: " + ArithmeticException.class.getName()));
+    }
+    @Test void testNullRefErrorCached() throws IOException {
+        assertEquals(CustomError.class.getName() + ": " + ERR + " true 0", fork(NullRefErrorMain.class, P_NULL_REF_ERROR_MODE + "=CACHED", P_NULL_REF_ERROR_TYPE + "=" + CustomError.class.getName()).trim());
+    }
+    @Test void testNullRefErrorCachedDefaultType() throws IOException {
+        String[] out = fork(NullRefErrorMain.class, P_NULL_REF_ERROR_MODE + "=CACHED").trim().split("\\R");
+        assertEach(() ->
+        assertThat(out[0], containsString("WARN " + ObjectAssist.class.getName() + " - " + P_NULL_REF_ERROR_MODE + "=CACHED caches nothing without " + P_NULL_REF_ERROR_TYPE)), () ->
+        assertEquals(StacklessIllegalArgumentException.class.getName() + ": " + ERR + " false 0", out[out.length - 1]));
+    }
+    @Test void testNullRefErrorCachedTryWithResources() throws IOException {
+        assertEach(() ->
+        assertEquals("1 0 false", fork(TryWithResourcesMain.class, P_NULL_REF_ERROR_MODE + "=CACHED", P_NULL_REF_ERROR_TYPE + "=" + CustomError.class.getName()).trim()), () ->
+        assertThat(fork(TryWithResourcesMain.class, P_NULL_REF_ERROR_MODE + "=CACHED").trim(), endsWith("\n3 1 true")));
+    }
+    @Test void testNullRefErrorModeWrong() throws IOException {
+        assertThat(fork(NullRefErrorMain.class, P_NULL_REF_ERROR_MODE + "=" + ERR), containsString(IllegalArgumentException.class.getName() + ": No enum constant"));
+    }
+    @Test void testNullRefErrorFull() {
+        Throwable t = ObjectAssist.nullRefError(ERR);
+        assertEach(() ->
+        assertSame(IllegalArgumentException.class, t.getClass()), () ->
+        assertNotSame(t, ObjectAssist.nullRefError(ERR)), () ->
+        assertTrue(t.getStackTrace().length > 0));
+    }
     //endregion
 
     //region flatArray() tests
@@ -58,13 +105,82 @@ public class ObjectAssistTest implements NoInstanceTest<ObjectAssist> {
         //        Input array                                          Expected flat array
         arguments(new float[0]                                       , new float[0]),
         arguments(new float[] {5, 7}                                 , new float[] {5, 7}),
-        arguments(new float[][][] {{{5, 7}, {}, {9}}, {}, {{11, 13}}}, new float[] {5, 7, 9, 11, 13})); }
+        arguments(new float[][][] {{{5, 7}, {}, {9}}, {}, {{11, 13}}}, new float[] {5, 7, 9, 11, 13}),
+        arguments(new float[][][] {{{5, 7}, {9, 11}}, {{13, 15}, {17, 19}}}, new float[] {5, 7, 9, 11, 13, 15, 17, 19}),
+        arguments(new float[][] {{5, 7}, {9}}                        , new float[] {5, 7, 9}),
+        arguments(new float[][] {{5}, {7, 9, 11}}                    , new float[] {5, 7, 9, 11}),
+        arguments(new float[][][] {{{5, 7}, null}, null, {{9}}}      , new float[] {5, 7, 9})); }
     @ParameterizedTest @MethodSource("arraysProvider")
     void testFlatArray(Object a, float[] expected) { assertArrayEquals(expected, ObjectAssist.flatArray(a)); }
+    @ParameterizedTest @MethodSource("arraysProvider")
+    void testParallelFlatArray(Object a, float[] expected) { assertArrayEquals(expected, ObjectAssist.parallelFlatArray(a)); }
+    @Test void testFlatArrayLarge() {
+        double[][][] a = new double[300][40][30];
+        double[] expected = new double[300 * 40 * 30];
+        for (int i = 0, n = 0; i < 300; i++) for (int j = 0; j < 40; j++) for (int k = 0; k < 30; k++) expected[n] = a[i][j][k] = n++;
+        a[7] = new double[][] {{-1}};
+        String[][] s = {{"a", "b"}, {"c"}};
+        assertEach(() ->
+        assertArrayEquals(copyOf(expected, 2 * 40 * 30), ObjectAssist.flatArray(new double[][][] {a[0], a[1]}), 0), () ->
+        assertArrayEquals(ObjectAssist.<double[][][], double[]>flatArray(a), ObjectAssist.parallelFlatArray(a), 0), () ->
+        assertEquals(299 * 40 * 30 + 1, ObjectAssist.<double[][][], double[]>parallelFlatArray(a).length), () ->
+        assertArrayEquals(new String[] {"a", "b", "c"}, ObjectAssist.flatArray(s)));
+    }
     @Test void testIllegalFlatArray()              { assertThat(()->ObjectAssist.flatArray(5), illegalArgument()); }
+    @Test void testIllegalParallelFlatArray()      { assertThat(()->ObjectAssist.parallelFlatArray(null), illegalArgument()); }
     @Test void testIllegalNewFlatArray()           { assertThat(()->ObjectAssist.newFlatArray(5), illegalArgument()); }
     //endregion
 
+    //region leafSpliterator() tests
+
+    @Test void testLeafSpliterator() {
+        float[][][] a = {{{5, 7}, {}, {9}}, {}, null, {{11, 13}}};
+        Spliterator<Float> s = ObjectAssist.leafSpliterator(a);
+        List<Float> prefix = new ArrayList<>();
+        Spliterator<Float> p = s.trySplit();
+        p.forEachRemaining(prefix::add);
+        assertEach(() ->
+        assertEquals(asList(5f, 7f, 9f), prefix), () ->
+        assertEquals(2  , s.estimateSize()), () ->
+        assertEquals(asList(11f, 13f), StreamSupport.stream(s, false).collect(toList())), () ->
+        assertEquals(asList("a", "b", "c"), StreamSupport.stream(ObjectAssist.leafSpliterator(new String[][] {{"a"}, {"b", "c"}}), true).collect(toList())), () ->
+        assertEquals(asList("a", "b"), StreamSupport.stream(ObjectAssist.leafSpliterator(new String[] {"a", "b"}), false).collect(toList())), () ->
+        assertEquals(asList((byte)1, (byte)2), StreamSupport.stream(ObjectAssist.leafSpliterator(new byte[] {1, 2}), false).collect(toList())), () ->
+        assertThat(()->ObjectAssist.leafSpliterator(5), illegalArgument()));
+    }
+    @Test void testLeafPrimitiveSpliterators() {
+        double[][][] grid = new double[3][50][40];
+        int[][] jagged = new int[1000][];
+        long expected = 0;
+        for (int i = 0, n = 0; i < 3; i++) for (int j = 0; j < 50; j++) for (int k = 0; k < 40; k++) grid[i][j][k] = n++;
+        for (int i = 0; i < jagged.length; i++) { jagged[i] = new int[i % 7]; for (int j = 0; j < jagged[i].length; j++) expected += jagged[i][j] = i + j; }
+        Spliterator.OfDouble s = ObjectAssist.leafDoubleSpliterator(grid);
+        Spliterator.OfDouble p = s.trySplit();
+        long jaggedSum = expected;
+        assertEach(() ->
+        assertEquals(6000 / 2.0 * 5999, StreamSupport.doubleStream(ObjectAssist.leafDoubleSpliterator(grid), true).sum()), () ->
+        assertEquals(6000, ObjectAssist.leafDoubleSpliterator(grid).getExactSizeIfKnown()), () ->
+        assertEquals(2000, p.estimateSize()), () ->
+        assertEquals(4000, s.estimateSize()), () ->
+        assertEquals(0.0 , StreamSupport.doubleStream(p, false).findFirst().getAsDouble()), () ->
+        assertEquals(jaggedSum, StreamSupport.intStream(ObjectAssist.leafIntSpliterator(jagged), true).asLongStream().sum()), () ->
+        assertEquals(jaggedSum, StreamSupport.intStream(ObjectAssist.leafIntSpliterator(ObjectAssist.flatArray(jagged)), true).asLongStream().sum()), () ->
+        assertEquals(3L  , StreamSupport.longStream(ObjectAssist.leafLongSpliterator(new long[][][] {{{1}, {2}}}), true).sum()), () ->
+        assertThat(()->ObjectAssist.leafIntSpliterator(grid), illegalArgument()));
+    }
+    @Test void testLeafSpliteratorSplitsInner() {
+        double[][][] grid = new double[1][1][8];
+        Spliterator.OfDouble s = ObjectAssist.leafDoubleSpliterator(grid);
+        grid[0] = new double[][] {{1, 2}, {3}, {4, 5, 6}};
+        Spliterator.OfDouble p = s.trySplit();
+        assertEach(() ->
+        assertEquals(2, p.estimateSize()), () ->
+        assertEquals(4, s.estimateSize()), () ->
+        assertEquals(3.0, StreamSupport.doubleStream(p, false).sum()), () ->
+        assertEquals(18.0, StreamSupport.doubleStream(s, false).sum()));
+    }
+    //endregion
+
     //region component() tests
 
     static List<Arguments> componentsProvider() { return asList(
@@ -102,12 +218,13 @@ public class ObjectAssistTest implements NoInstanceTest<ObjectAssist> {
     //endregion
 
     static String forkNullSafe(String errorType) throws IOException {
-        try (InputStream pErr = new ProcessBuilder(
-                Paths.get(getProperty("java.home"), "bin", "java").toString(),
-                "-cp", getProperty("java.class.path"),
-                "-D" + P_NULL_REF_ERROR_TYPE + "=" + errorType,
-                NullSafeMain.class.getName())
-                .start().getErrorStream()) {
+        return fork(NullSafeMain.class, P_NULL_REF_ERROR_TYPE + "=" + errorType);
+    }
+    static String fork(Class<?> main, String... props) throws IOException {
+        List<String> cmd = new ArrayList<>(asList(Paths.get(getProperty("java.home"), "bin", "java").toString(), "-cp", getProperty("java.class.path")));
+        for (String p : props) cmd.add("-D" + p);
+        cmd.add(main.getName());
+        try (InputStream pErr = new ProcessBuilder(cmd).start().getErrorStream()) {
             return copyToString(pErr, UTF_8);
         }
     }
@@ -115,4 +232,30 @@ public class ObjectAssistTest implements NoInstanceTest<ObjectAssist> {
     public static class NullSafeMain {
         public static void main(String[] args) { ObjectAssist.nullSafe(null, ERR); }
     }
+    public static class NullRefErrorMain {
+        public static void main(String[] args) {
+            Throwable t = ObjectAssist.nullRefError(ERR);
+            System.err.println(t + " " + (t == ObjectAssist.nullRefError(ERR)) + " " + t.getStackTrace().length);
+        }
+    }
+    public static class TryWithResourcesMain {
+        public static void main(String[] args) {
+            Set<Throwable> errors = newSetFromMap(new IdentityHashMap<>());
+            int suppressed = 0;
+            for (int i = 0; i < 3; i++) {
+                try (AutoCloseable r = () -> { throw new IOException("close"); }) {
+                    ObjectAssist.nullSafe(null, ERR);
+                } catch (Exception e) {
+                    errors.add(e);
+                    suppressed = e.getSuppressed().length;
+                }
+            }
+            boolean causeSet = true;
+            try { errors.iterator().next().initCause(new Error()); } catch (IllegalStateException e) { causeSet = false; }
+            System.err.println(errors.size() + " " + suppressed + " " + causeSet);
+        }
+    }
+    public static class CustomError extends RuntimeException {
+        public CustomError(String msg, Throwable cause, boolean suppression, boolean stackTrace) { super(msg, cause, suppression, stackTrace); }
+    }
 }
\ No newline at end of file
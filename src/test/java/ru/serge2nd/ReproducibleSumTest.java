@@ -0,0 +1,148 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static java.lang.Math.scalb;
+import static java.math.BigDecimal.ZERO;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+import static org.springframework.util.SerializationUtils.deserialize;
+import static org.springframework.util.SerializationUtils.serialize;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class ReproducibleSumTest {
+    static final double F = 1e101;
+
+    @Test void testReproducible() {
+        Random rnd = new Random(17);
+        double[] xs = new double[20_000];
+        BigDecimal exact = ZERO;
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = scalb(rnd.nextDouble() - 0.5, rnd.nextInt(200) - 100);
+            exact = exact.add(new BigDecimal(xs[i]));
+        }
+        ReproducibleSum expected = ReproducibleSum.of(xs);
+        byte[] bytes = serialize(expected);
+
+        for (int run = 0; run < 5; run++) {
+            shuffle(xs, rnd);
+            ReproducibleSum merged = new ReproducibleSum();
+            for (int from = 0, to; from < xs.length; from = to) {
+                to = Math.min(xs.length, from + 1 + rnd.nextInt(3000));
+                merged.merge(ReproducibleSum.of(java.util.Arrays.copyOfRange(xs, from, to)));
+            }
+            assertEach(() ->
+            assertEquals(expected.get()       , merged.get()), () ->
+            assertEquals(expected             , merged), () ->
+            assertEquals(expected.hashCode()  , merged.hashCode()), () ->
+            assertArrayEquals(bytes           , serialize(merged)));
+        }
+        assertEquals(exact.doubleValue(), expected.get());
+    }
+
+    @Test void testSerialization() {
+        ReproducibleSum s = new ReproducibleSum().add(1).add(F).add(1).add(-F).add(0x1p-1074);
+        ReproducibleSum copy = (ReproducibleSum)deserialize(serialize(s));
+        assertEach(() ->
+        assertEquals(s               , copy), () ->
+        assertEquals(2               , copy.get()), () ->
+        assertEquals(2               , copy.toDoubleSum().fine()), () ->
+        assertEquals(3               , copy.add(1).get()), () ->
+        assertTrue(serialize(ReproducibleSum.of(1, F, 1, -F)).length < serialize(new double[DoubleAlgs.EXACT_BINS]).length / 4), () ->
+        assertEquals(new ReproducibleSum(), deserialize(serialize(new ReproducibleSum()))));
+    }
+
+    @Test void testBinaryState() {
+        ReproducibleSum s = ReproducibleSum.of(1, F, 1, -F, 0x1p-1074, -3.5);
+        ByteBuffer buf = s.writeTo(ByteBuffer.allocate(s.encodedSize()));
+        buf.flip();
+        ReproducibleSum copy = ReproducibleSum.readFrom(buf);
+        assertEach(() ->
+        assertEquals(s   , copy), () ->
+        assertEquals(s.get(), copy.get()), () ->
+        assertEquals(0   , buf.remaining()), () ->
+        assertEquals(4   , new ReproducibleSum().encodedSize()), () ->
+        assertEquals(new ReproducibleSum(), ReproducibleSum.readFrom((ByteBuffer)new ReproducibleSum().writeTo(ByteBuffer.allocate(4)).flip())));
+    }
+
+    @Test void testNonCanonical() { assertEach(() ->
+        assertEquals(0x1p-1042, ReproducibleSum.readFrom(bins(64, 0x1p-1042)).get()), () ->
+        assertEquals(Double.POSITIVE_INFINITY, ReproducibleSum.readFrom(bins(0, Double.POSITIVE_INFINITY)).get()), () ->
+        assertThat(()->ReproducibleSum.readFrom(bins(65, -0x1p-1074))       , illegalArgument()), () ->
+        assertThat(()->ReproducibleSum.readFrom(bins(65, -0.0))             , illegalArgument()), () ->
+        assertThat(()->ReproducibleSum.readFrom(bins(65, 1.0))              , illegalArgument()), () ->
+        assertThat(()->ReproducibleSum.readFrom(bins(64, 0x1.8p-1042))      , illegalArgument()), () ->
+        assertThat(()->ReproducibleSum.readFrom(bins(64, Double.NaN))       , illegalArgument()), () ->
+        assertThat(()->ReproducibleSum.readFrom(bins(0, 1.0))               , illegalArgument()), () ->
+        assertThat(()->ReproducibleSum.readFrom(bins(0, Double.NaN, 0x1p-50)), illegalArgument()), () ->
+        assertThat(()->deserialize(negateLast(serialize(ReproducibleSum.of(-1)))), illegalArgument()));
+    }
+
+    @Test void testNegative() {
+        ReproducibleSum a = ReproducibleSum.of(-1, 0x1p-60, -F);
+        ReproducibleSum b = ReproducibleSum.of(-F).add(0x1p-60).add(-1);
+        assertEach(() ->
+        assertEquals(-F, a.get()), () ->
+        assertEquals(a , b), () ->
+        assertNotEquals(a, ReproducibleSum.of(-1, 0x1p-60)), () ->
+        assertEquals(-1 + 0x1p-60, a.add(F).get()));
+    }
+
+    @Test void testReadOnly() {
+        ReproducibleSum s = ReproducibleSum.of(-1, 0.5, -F); // negative lower bins
+        double[] bins = ((double[])getField(s, "bins")).clone();
+        s.hashCode(); s.writeTo(ByteBuffer.allocate(s.encodedSize())); serialize(s);
+        assertEach(() ->
+        assertEquals(ReproducibleSum.of(-F, 0.5, -1), s), () ->
+        assertArrayEquals(bins, (double[])getField(s, "bins")));
+    }
+
+    @Test void testNonFinite() {
+        ReproducibleSum s = ReproducibleSum.of(1, Double.POSITIVE_INFINITY, 1);
+        ReproducibleSum copy = (ReproducibleSum)deserialize(serialize(s));
+        assertEach(() ->
+        assertEquals(Double.POSITIVE_INFINITY, s.get()), () ->
+        assertEquals(Double.POSITIVE_INFINITY, copy.get()), () ->
+        assertEquals(Double.NaN, copy.add(Double.NEGATIVE_INFINITY).get()), () ->
+        assertEquals(Double.POSITIVE_INFINITY, ReproducibleSum.of(Double.MAX_VALUE, Double.MAX_VALUE).get()));
+    }
+
+    @Test void testOverflow() {
+        double max = Double.MAX_VALUE;
+        ReproducibleSum s = ReproducibleSum.of(max, max, -max);
+        ReproducibleSum merged = ReproducibleSum.of(max).merge(ReproducibleSum.of(max)).merge(ReproducibleSum.of(-max));
+        assertEach(() ->
+        assertEquals(max               , s.get()), () ->
+        assertEquals(max               , merged.get()), () ->
+        assertEquals(ReproducibleSum.of(max), merged), () ->
+        assertEquals(s                 , deserialize(serialize(s))), () ->
+        assertEquals(max               , s.toDoubleSum().fine()));
+    }
+
+    static ByteBuffer bins(int first, double... bins) {
+        ByteBuffer buf = ByteBuffer.allocate(4 + 8 * bins.length).putChar((char)first).putChar((char)bins.length);
+        for (double b : bins) buf.putDouble(b);
+        return (ByteBuffer)buf.flip();
+    }
+    // the sign of the lowest non-zero bin (the last double before the end of the block data)
+    static byte[] negateLast(byte[] bytes) { bytes[bytes.length - 9] ^= (byte)0x80; return bytes; }
+
+    static void shuffle(double[] xs, Random rnd) {
+        for (int i = xs.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            double x = xs[i]; xs[i] = xs[j]; xs[j] = x;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.Random;
+
+import static java.lang.Double.NEGATIVE_INFINITY;
+import static java.lang.Double.NaN;
+import static java.lang.Double.POSITIVE_INFINITY;
+import static java.lang.Math.scalb;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.serge2nd.DoubleAlgs.P_VECTORIZED;
+import static ru.serge2nd.DoubleAlgs.WIDE_LANES;
+
+/**
+ * Runs on the base classes and (see the {@code java21} profile) on the Java 21 overlay,
+ * the SIMD kernels must give the same bits as the scalar ones in both cases.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+class SimdSumsTest implements NoInstanceTest<SimdSums> {
+    static final int[] OFFSETS = {0, 1, 3, WIDE_LANES - 1};
+    static final int[] LENGTHS = {0, 1, WIDE_LANES - 1, WIDE_LANES, 4 * WIDE_LANES - 1, 4 * WIDE_LANES, 4 * WIDE_LANES + 5, 1000, 1023};
+
+    @Test void testEnabled() {
+        assertEquals("true".equals(System.getProperty(P_VECTORIZED)), SimdSums.enabled());
+    }
+
+    @Test void testSameBits() {
+        Random rnd = new Random(79);
+        for (int from : OFFSETS) for (int n : LENGTHS) {
+            double[] xs = new double[from + n + 2];
+            for (int i = 0; i < xs.length; i++) xs[i] = scalb(rnd.nextDouble() - 0.5, rnd.nextInt(120) - 60);
+            assertSameBits(xs, from, from + n);
+        }
+    }
+
+    @Test void testSameBitsNonFinite() {
+        double[] xs = new Random(79).doubles(200, -1, 1).toArray();
+        for (double x : new double[] {POSITIVE_INFINITY, NEGATIVE_INFINITY, NaN, Double.MAX_VALUE}) {
+            double[] ys = xs.clone();
+            ys[37] = x; ys[38] = x; ys[150] = x;
+            assertSameBits(ys, 1, 199);
+        }
+    }
+
+    static void assertSameBits(double[] xs, int from, int to) {
+        String msg = "[" + from + ", " + to + ")";
+        assertArrayEquals(DoubleAlgs.plainLanes(new double[1], xs, from, to), SimdSums.plainSum(new double[1], xs, from, to), msg);
+        assertArrayEquals(DoubleAlgs.kahanLanes(new double[2], xs, from, to), SimdSums.kahanSum(new double[2], xs, from, to), msg);
+        assertArrayEquals(DoubleAlgs.neumaierLanes(new double[2], xs, from, to), SimdSums.neumaierSum(new double[2], xs, from, to), msg);
+        assertArrayEquals(DoubleAlgs.neumaierLanes(new double[] {1e20, -3}, xs, from, to), SimdSums.neumaierSum(new double[] {1e20, -3}, xs, from, to), msg);
+    }
+}
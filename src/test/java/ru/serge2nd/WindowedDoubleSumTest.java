@@ -0,0 +1,119 @@
+package ru.serge2nd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static java.lang.Math.ulp;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+import static ru.serge2nd.test.match.CoreMatch.illegalState;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class WindowedDoubleSumTest {
+    static final double F = 1e101;
+
+    @Test void testPush() {
+        WindowedDoubleSum s = WindowedDoubleSum.ofSize(4).push(1).push(F).push(1).push(-F);
+        assertEach(() ->
+        assertEquals(2  , s.get()), () ->
+        assertEquals(4  , s.size()), () ->
+        assertEquals(0.5, s.mean()), () ->
+        assertEquals(6  , s.push(5).get()), () ->
+        assertEquals(4  , s.size()));
+    }
+
+    @Test void testDrift() {
+        Random rnd = new Random(11);
+        double[] xs = rnd.doubles(100_000, -1, 1).map(x -> x * Math.pow(10, rnd.nextInt(9))).toArray();
+        WindowedDoubleSum s = WindowedDoubleSum.ofSize(100);
+        for (int i = 0; i < xs.length; i++) {
+            s.push(xs[i]);
+            if (i % 997 == 0 && i >= 100) {
+                double expected = DoubleSum.exact(Arrays.copyOfRange(xs, i - 99, i + 1)).fine();
+                assertEquals(expected, s.get(), ulp(expected));
+            }
+        }
+    }
+
+    @Test void testNonFinite() {
+        WindowedDoubleSum s = WindowedDoubleSum.ofSize(2).push(Double.POSITIVE_INFINITY);
+        assertEach(() ->
+        assertEquals(Double.POSITIVE_INFINITY, s.get()), () ->
+        assertEquals(Double.POSITIVE_INFINITY, s.push(1).get()), () ->
+        assertEquals(3                       , s.push(2).get()));
+    }
+
+    @Test void testSpan() {
+        WindowedDoubleSum s = WindowedDoubleSum.ofSpan(10).push(0, 1).push(5, 2).push(10, 3);
+        assertEach(() ->
+        assertEquals(5, s.get()), () ->
+        assertEquals(3, s.advance(15).get()), () ->
+        assertEquals(1, s.size()));
+
+        for (int i = 0; i < 40; i++) s.push(20, i);
+        assertEach(() ->
+        assertEquals(780, s.get()), () ->
+        assertEquals(40 , s.size()), () ->
+        assertEquals(0  , s.advance(30).get()), () ->
+        assertEquals(0  , s.size()));
+    }
+
+    @Test void testReanchorAndClear() {
+        WindowedDoubleSum s = WindowedDoubleSum.ofSize(3).push(0.1).push(0.2).push(0.3);
+        assertEach(() ->
+        assertEquals(DoubleSum.exact(0.1, 0.2, 0.3).fine(), s.reanchor().get()), () ->
+        assertEquals(0, s.reanchor().size() - 3));
+        s.clear();
+        assertEach(() ->
+        assertEquals(0, s.get()), () ->
+        assertEquals(7, s.push(7).get()));
+    }
+
+    @Test void testSlab() {
+        Random rnd = new Random(5);
+        int series = 7, window = 13;
+        WindowedDoubleSum.Slab slab = new WindowedDoubleSum.Slab(series, window);
+        WindowedDoubleSum[] sums = new WindowedDoubleSum[series];
+        for (int s = 0; s < series; s++) sums[s] = WindowedDoubleSum.ofSize(window);
+
+        for (int t = 0; t < 1000; t++) {
+            double[] row = rnd.doubles(series, -1, 1).map(x -> x * Math.pow(10, rnd.nextInt(9))).toArray();
+            slab.pushRow(row);
+            for (int s = 0; s < series; s++) sums[s].push(row[s]);
+        }
+        for (int s = 0; s < series; s++) {
+            int n = s;
+            assertEach(() ->
+            assertEquals(sums[n].get() , slab.get(n)), () ->
+            assertEquals(sums[n].mean(), slab.mean(n)), () ->
+            assertEquals(window        , slab.size(n)));
+        }
+    }
+
+    @Test void testSlabPush() {
+        WindowedDoubleSum.Slab slab = new WindowedDoubleSum.Slab(2, 3).push(1, F).push(1, 1).push(1, -F).push(0, Double.NaN);
+        assertEach(() ->
+        assertEquals(1         , slab.get(1)), () ->
+        assertEquals(Double.NaN, slab.get(0)), () ->
+        assertEquals(9         , slab.push(0, 2).push(0, 3).push(0, 4).get(0)), () ->
+        assertEquals(1         , slab.reanchor(1).get(1)));
+        slab.clear(1);
+        assertEach(() ->
+        assertEquals(0         , slab.size(1)), () ->
+        assertEquals(Double.NaN, slab.mean(1)), () ->
+        assertEquals(9         , slab.get(0)));
+    }
+
+    @Test void testNonPositiveSize()  { assertThat(()->WindowedDoubleSum.ofSize(0)                        , illegalArgument()); }
+    @Test void testNonPositiveSpan()  { assertThat(()->WindowedDoubleSum.ofSpan(0)                        , illegalArgument()); }
+    @Test void testTimeGoesBack()     { assertThat(()->WindowedDoubleSum.ofSpan(5).push(3, 1).push(2, 1)  , illegalArgument()); }
+    @Test void testNoTime()           { assertThat(()->WindowedDoubleSum.ofSpan(5).push(1)                , illegalState()); }
+    @Test void testTooLargeSlab()     { assertThat(()->new WindowedDoubleSum.Slab(1 << 20, 1 << 12)       , illegalArgument()); }
+    @Test void testWrongRow()         { assertThat(()->new WindowedDoubleSum.Slab(2, 2).pushRow(new double[3]), illegalArgument()); }
+}
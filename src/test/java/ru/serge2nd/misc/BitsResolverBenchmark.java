@@ -0,0 +1,147 @@
+package ru.serge2nd.misc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+
+import static java.lang.Integer.SIZE;
+import static java.lang.Integer.bitCount;
+import static java.lang.Integer.numberOfTrailingZeros;
+import static java.lang.Integer.parseUnsignedInt;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+/**
+ * The time of {@link BitsResolver#resolve(int)} against the former loop over the set bits
+ * and a hand-written <code>switch</code> (for the masks of a few bits).
+ * Not a test, run the main method (or the JMH runner) with the test classpath, it prints nanoseconds per resolve.
+ */
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitsResolverBenchmark {
+    static final int $1ST = 1 << 5, $2ND = 1 << 10, $3RD = 1 << 20;
+    static final int N = 1 << 12;
+
+    @State(Scope.Benchmark)
+    public static class Masks {
+        @Param({"90", "100420", "5a5a", "ffff000"})
+        String mask;
+        int[] xs;
+        Loop<Integer> loop;
+        BitsResolver<Integer> compiled;
+
+        @Setup
+        public void setup() {
+            int mask = parseUnsignedInt(this.mask, 16);
+            Integer[] vals = values(mask);
+            xs = new Random(5).ints(N).toArray();
+            loop = new Loop<>(mask, vals);
+            compiled = new BitsResolver<>(mask, vals);
+        }
+    }
+    /** The masks of {@link Sw}. */
+    @State(Scope.Benchmark)
+    public static class Switches {
+        @Param({"TWO", "THREE"})
+        Sw sw;
+        int[] xs;
+
+        @Setup
+        public void setup() { xs = new Random(5).ints(N).toArray(); }
+    }
+
+    @Benchmark @OperationsPerInvocation(N)
+    public long loop(Masks m) {
+        long r = 0; for (int x : m.xs) r += valueOf(m.loop.resolve(x)); return r;
+    }
+    @Benchmark @OperationsPerInvocation(N)
+    public long compiled(Masks m) {
+        long r = 0; for (int x : m.xs) r += valueOf(m.compiled.resolve(x)); return r;
+    }
+    @Benchmark @OperationsPerInvocation(N)
+    public long switched(Switches s) {
+        long r = 0; for (int x : s.xs) r += valueOf(s.sw.resolve(x)); return r;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BitsResolverBenchmark.class.getName()).build()).run();
+    }
+
+    static Integer[] values(int mask) {
+        Integer[] vals = new Integer[Math.min(1 << bitCount(mask), 1 << 10)];
+        for (int i = 0; i < vals.length; i++) vals[i] = i;
+        return vals;
+    }
+
+    static long valueOf(Integer v) { return v != null ? v : -1; }
+
+    /** The former implementation of {@link BitsResolver#resolve(int)}. */
+    static final class Loop<T> {
+        private static final int H = SIZE - 1;
+        private final int all;
+        private final T[] vals;
+
+        Loop(int all, T[] vals) { this.all = all; this.vals = vals; }
+
+        T resolve(int bits) {
+            final int all = this.all, maxIdx = vals.length - 1;
+            bits &= all;
+
+            int idx, i;
+            for (idx = 0; bits != 0; bits = bits >>> i << i) {
+                i = numberOfTrailingZeros(bits);
+                int skipped = bitCount(all << (H - i++)) - 1;
+                if (maxIdx < (idx |= (1 << skipped))) return null;
+            }
+
+            return vals[idx];
+        }
+    }
+
+    /** The hand-written resolves of the masks {@code 90} and {@code 100420}. */
+    public enum Sw {
+        TWO {
+            Integer resolve(int bits) {
+                switch (bits & (1 << 4 | 1 << 7)) {
+                    case 0:                 return V0;
+                    case 1 << 4:            return V1;
+                    case 1 << 7:            return V2;
+                    default:                return V3;
+                }
+            }
+        },
+        THREE {
+            Integer resolve(int bits) {
+                switch (bits & ($1ST | $2ND | $3RD)) {
+                    case 0:                 return V0;
+                    case $1ST:              return V1;
+                    case $2ND:              return V2;
+                    case $1ST | $2ND:       return V3;
+                    case $3RD:              return V4;
+                    case $1ST | $3RD:       return V5;
+                    case $2ND | $3RD:       return V6;
+                    default:                return V7;
+                }
+            }
+        };
+        static final Integer V0 = 0, V1 = 1, V2 = 2, V3 = 3, V4 = 4, V5 = 5, V6 = 6, V7 = 7;
+
+        abstract Integer resolve(int bits);
+    }
+}
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 
+import java.util.Random;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.util.ReflectionTestUtils.getField;
 import static ru.serge2nd.test.Asserting.assertEach;
@@ -39,4 +42,28 @@ class BitsResolverTest {
         assertNull(r.resolve(opt3 | opt2)), () ->
         assertNull(r.resolve(opt3 | opt2 | opt1)));
     }
+
+    @Test void testIndex() {
+        Random rnd = new Random(11);
+        int[] masks = new int[200];
+        for (int i = 0; i < masks.length; i++) masks[i] = rnd.nextInt() & rnd.nextInt() & (i % 2 == 0 ? rnd.nextInt() : -1);
+        assertEach(IntStream.concat(IntStream.of(0, -1, 1, Integer.MIN_VALUE, 0xff00, 0x90, 0x80000001), IntStream.of(masks)).mapToObj(mask -> () -> {
+            BitsResolver<?> r = new BitsResolver<>(mask);
+            for (int j = 0; j < 1000; j++) {
+                int x = rnd.nextInt();
+                assertEquals(BitExtract.extractSlow(x, mask), r.index(x), () -> "mask " + Integer.toHexString(mask) + ", bits " + Integer.toHexString(x));
+            }
+            assertEquals(mask == 0 ? 0 : BitExtract.extractSlow(-1, mask), r.index(-1));
+        }));
+    }
+
+    @Test void testCompiledForm() {
+        assertAll(
+        () -> assertNull(getField(new BitExtract(0x90), "table")), () ->
+        assertNull(getField(new BitExtract(0xff00), "table")), () ->
+        assertNull(getField(new BitExtract(Integer.MIN_VALUE >>> 10 | Integer.MIN_VALUE >>> 1 | 128), "table")), () ->
+        assertNotNull(getField(new BitExtract(-1), "table")), () ->
+        assertEquals(-1, new BitExtract(-1).extract(-1)), () ->
+        assertNull(new BitsResolver<>(-1, "x", "y").resolve(-1)));
+    }
 }
\ No newline at end of file
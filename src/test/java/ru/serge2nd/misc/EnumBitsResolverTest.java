@@ -0,0 +1,57 @@
+package ru.serge2nd.misc;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+
+import static java.util.Arrays.asList;
+import static java.util.EnumSet.noneOf;
+import static java.util.EnumSet.of;
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.serge2nd.misc.EnumBitsResolver.ordinal;
+import static ru.serge2nd.misc.EnumBitsResolver.ordinals;
+import static ru.serge2nd.misc.EnumBitsResolverTest.Flag.*;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class EnumBitsResolverTest {
+    enum Flag { A, B, C, D, E }
+
+    @Test @SuppressWarnings({"ConstantConditions", "unchecked", "rawtypes"})
+    void testNewEnumBitsResolver() { assertThat(
+        ()->new EnumBitsResolver<>(Flag.class, 1L << 5, "x")          , illegalArgument(),
+        ()->new EnumBitsResolver<>((Class)String.class, 1L, "x")      , illegalArgument(),
+        ()->new EnumBitsResolver<>((EnumSet<Flag>)null, "x")          , illegalArgument(),
+        ()->new EnumBitsResolver<>(of(A), (Object[])null)             , illegalArgument());
+    }
+
+    @Test void testResolve() {
+        String[] vals = {"-", "b", "d", "bd", "e", "be", "de"};
+        EnumBitsResolver<Flag, String> r1 = new EnumBitsResolver<>(of(B, D, E), vals);
+        EnumBitsResolver<Flag, String> r2 = new EnumBitsResolver<>(Flag.class, ordinals(B, D, E), vals);
+        assertEach(asList(r1, r2).stream().map(r -> () -> assertEach(() ->
+        assertEquals("-", r.resolve(noneOf(Flag.class))), () ->
+        assertEquals("-", r.resolve(of(A, C))), () ->
+        assertEquals("b", r.resolve(of(A, B))), () ->
+        assertEquals("d", r.resolve(of(D))), () ->
+        assertEquals("bd", r.resolve(new HashSet<>(asList(B, C, D)))), () ->
+        assertEquals("be", r.resolve(ordinal(B) | ordinal(E))), () ->
+        assertEquals("de", r.resolve(ordinals(A, D, E))), () ->
+        assertNull(r.resolve(EnumSet.allOf(Flag.class))), () ->
+        assertEquals(6L, r.index(of(D, E))), () ->
+        assertEquals(ordinals(B, D, E), r.mask()))));
+    }
+
+    @Test void testEmpty() {
+        EnumBitsResolver<Flag, String> r = new EnumBitsResolver<>(noneOf(Flag.class), "x", "y");
+        assertEach(() ->
+        assertEquals("x", r.resolve(EnumSet.allOf(Flag.class))), () ->
+        assertEquals("x", r.resolve(-1L)), () ->
+        assertEquals(0L, r.mask()));
+    }
+}
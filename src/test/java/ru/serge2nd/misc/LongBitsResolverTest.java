@@ -0,0 +1,65 @@
+package ru.serge2nd.misc;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.ArrayMatch.items;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class LongBitsResolverTest {
+
+    @Test @SuppressWarnings("ConstantConditions")
+    void testNewLongBitsResolver() { assertThat(
+        getField(new LongBitsResolver<>(3L << 40, "x", "y", "z", "w", "v"), "vals"), items("x", "y", "z", "w"),
+        getField(new LongBitsResolver<>(0L, "x", "y"), "vals")                     , items("x"),
+        getField(new LongBitsResolver<>(-1L, "x", "y"), "vals")                    , items("x", "y"),
+        ()->new LongBitsResolver<>(0L, (Object[])null)                             , illegalArgument());
+    }
+
+    @Test void testResolve() {
+        long opt1 = 1L << 3, opt2 = 1L << 31, opt3 = 1L << 32, opt4 = Long.MIN_VALUE;
+        Integer[] vals = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14};
+        LongBitsResolver<Integer> r = new LongBitsResolver<>(opt1 | opt2 | opt3 | opt4, vals);
+        assertEach(() ->
+        assertEquals(vals[0], r.resolve(0L)), () ->
+        assertEquals(vals[0], r.resolve(~(opt1 | opt2 | opt3 | opt4))), () ->
+        assertEquals(vals[1], r.resolve(opt1 | 1L << 33)), () ->
+        assertEquals(vals[2], r.resolve(opt2)), () ->
+        assertEquals(vals[3], r.resolve(opt1 | opt2)), () ->
+        assertEquals(vals[4], r.resolve(opt3)), () ->
+        assertEquals(vals[7], r.resolve(opt1 | opt2 | opt3)), () ->
+        assertEquals(vals[8], r.resolve(opt4)), () ->
+        assertEquals(vals[14], r.resolve(opt2 | opt3 | opt4)), () ->
+        assertNull(r.resolve(-1L)), () ->
+        assertEquals(opt1 | opt2 | opt3 | opt4, r.mask()));
+    }
+
+    @Test void testIndex() {
+        Random rnd = new Random(13);
+        long[] masks = new long[200];
+        for (int i = 0; i < masks.length; i++) masks[i] = rnd.nextLong() & rnd.nextLong() & (i % 2 == 0 ? rnd.nextLong() : -1L);
+        assertEach(LongStream.concat(LongStream.of(0L, -1L, 1L, Long.MIN_VALUE, 0xffffffffL, ~0xffffffffL), LongStream.of(masks)).mapToObj(mask -> () -> {
+            LongBitsResolver<?> r = new LongBitsResolver<>(mask);
+            for (int j = 0; j < 1000; j++) {
+                long x = rnd.nextLong();
+                assertEquals(extractSlow(x, mask), r.index(x), () -> "mask " + Long.toHexString(mask) + ", bits " + Long.toHexString(x));
+            }
+        }));
+    }
+
+    static long extractSlow(long x, long mask) {
+        long r = 0;
+        for (int j = 0; mask != 0; mask &= mask - 1, j++)
+            if ((x & mask & -mask) != 0) r |= 1L << j;
+        return r;
+    }
+}
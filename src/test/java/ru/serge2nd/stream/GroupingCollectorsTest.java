@@ -0,0 +1,70 @@
+package ru.serge2nd.stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import ru.serge2nd.GroupedDoubleSum;
+import ru.serge2nd.NoInstanceTest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingDouble;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.serge2nd.stream.util.Collecting.collect;
+import static ru.serge2nd.stream.util.CollectingOptions.UNMODIFIABLE;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertForMany.assertForMany;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+import static ru.serge2nd.test.match.CoreMatch.unsupported;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class GroupingCollectorsTest implements NoInstanceTest<GroupingCollectors> {
+    static final Random RND = new Random(41);
+    static final List<int[]> ROWS = IntStream.range(0, 100_000).mapToObj(i -> new int[] {RND.nextInt(1000), RND.nextInt(100)}).collect(toList());
+    static final Map<Integer, Double> EXPECTED = ROWS.stream().collect(groupingBy(r -> r[0], summingDouble(r -> r[1] * 0.1)));
+
+    @Test void testSummingByLong() {
+        GroupedDoubleSum.OfLong s = ROWS.parallelStream().collect(GroupingCollectors.summingByLong(r -> r[0], r -> r[1] * 0.1));
+        assertEquals(EXPECTED.size(), s.size());
+        EXPECTED.forEach((k, v) -> assertEquals(v, s.get(k), 1e-9));
+    }
+
+    @Test void testSummingByInt() {
+        GroupedDoubleSum.OfInt s = ROWS.parallelStream().collect(GroupingCollectors.summingByInt(r -> r[0], r -> r[1] * 0.1));
+        GroupedDoubleSum.OfInt seq = collect(ROWS, GroupingCollectors.summingByInt(r -> r[0], r -> r[1] * 0.1));
+        assertEach(() ->
+        assertEquals(EXPECTED.size(), s.size()), () ->
+        assertEquals(seq.toMap(), new HashMap<>(s.toMap())));
+    }
+
+    @Test void testSummingBy() {
+        GroupedDoubleSum.OfObject<String> s = ROWS.parallelStream().collect(GroupingCollectors.summingBy(r -> "k" + r[0], r -> r[1] * 0.1));
+        assertEquals(EXPECTED.size(), s.size());
+        EXPECTED.forEach((k, v) -> assertEquals(v, s.get("k" + k), 1e-9));
+    }
+
+    @Test void testToSumMap() {
+        Map<Integer, Double> m = ROWS.parallelStream().collect(GroupingCollectors.toSumMap(r -> r[0], r -> r[1] * 0.1, 0));
+        Map<Integer, Double> u = collect(ROWS, GroupingCollectors.toSumMap(r -> r[0], r -> r[1] * 0.1, UNMODIFIABLE));
+        assertEach(() ->
+        assertEquals(EXPECTED.keySet(), m.keySet()), () ->
+        assertEquals(m, u), () ->
+        assertThat(()->u.put(1, 1.0), unsupported()));
+    }
+
+    @Test @SuppressWarnings("ConstantConditions")
+    void testIllegalArgs() {
+        assertForMany(illegalArgument(),
+        () -> GroupingCollectors.summingByLong(null, r -> 1),
+        () -> GroupingCollectors.summingByInt(r -> 1, null),
+        () -> GroupingCollectors.summingBy(null, r -> 1),
+        () -> GroupingCollectors.toSumMap(r -> 1, null, 0));
+    }
+}
@@ -0,0 +1,71 @@
+package ru.serge2nd.stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import ru.serge2nd.CompensatedStatistics;
+import ru.serge2nd.DoubleSum;
+import ru.serge2nd.DoubleSum.StdOp;
+import ru.serge2nd.NoInstanceTest;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.Math.scalb;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.serge2nd.stream.util.Collecting.collect;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertForMany.assertForMany;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class SummingCollectorsTest implements NoInstanceTest<SummingCollectors> {
+    static final Random RND = new Random(79);
+    static final List<Double> XS = RND.doubles(200_000).map(x -> scalb(x - 0.5, RND.nextInt(60))).boxed().collect(toList());
+    static final double EXACT = XS.stream().map(BigDecimal::new).reduce(BigDecimal.ZERO, BigDecimal::add).doubleValue();
+
+    @Test void testSummingCompensated() { assertEach(() ->
+        assertEquals(EXACT, XS.parallelStream().collect(SummingCollectors.summingCompensated(Double::doubleValue, 2))), () ->
+        assertEquals(EXACT, XS.parallelStream().collect(SummingCollectors.summingCompensated(Double::doubleValue, StdOp.NEUMAIER, 1))), () ->
+        assertEquals(EXACT, collect(XS, SummingCollectors.summingCompensated(Double::doubleValue, 2))));
+    }
+
+    @Test void testToDoubleSum() {
+        DoubleSum s = XS.parallelStream().collect(SummingCollectors.toDoubleSum(Double::doubleValue, StdOp.KLEIN, 2));
+        assertEquals(EXACT, s.fine());
+    }
+
+    @Test void testSummarizingCompensated() {
+        CompensatedStatistics st = XS.parallelStream().collect(SummingCollectors.summarizingCompensated(Double::doubleValue));
+        CompensatedStatistics expected = collect(XS, SummingCollectors.summarizingCompensated(Double::doubleValue));
+        assertEach(() ->
+        assertEquals(XS.size(), st.count()), () ->
+        assertEquals(EXACT, st.sum()), () ->
+        assertEquals(expected.mean(), st.mean(), 1e-12 * Math.abs(expected.mean())), () ->
+        assertEquals(expected.variance(), st.variance(), 1e-12 * expected.variance()));
+    }
+
+    @Test void testToLongSum() {
+        List<Long> ls = RND.longs(10_000).boxed().collect(toList());
+        BigInteger exact = ls.stream().map(BigInteger::valueOf).reduce(BigInteger.ZERO, BigInteger::add);
+        assertEach(() ->
+        assertEquals(exact, ls.parallelStream().collect(SummingCollectors.toLongSum(Long::longValue)).toBigInteger()), () ->
+        assertEquals(new BigDecimal(exact, 4), ls.parallelStream().collect(SummingCollectors.toDecimalSum(Long::longValue, 4)).toBigDecimal()));
+    }
+
+    @Test @SuppressWarnings("ConstantConditions")
+    void testIllegalArgs() {
+        assertForMany(illegalArgument(),
+        () -> SummingCollectors.summingCompensated(null, 1),
+        () -> SummingCollectors.summingCompensated(Double::doubleValue, -1),
+        () -> SummingCollectors.toDoubleSum(Double::doubleValue, null, 1),
+        () -> SummingCollectors.toDoubleSum(Double::doubleValue, StdOp.EXACT, 1),
+        () -> SummingCollectors.summingCompensated(Double::doubleValue, StdOp.KLEIN, 1),
+        () -> SummingCollectors.summarizingCompensated(null),
+        () -> SummingCollectors.toLongSum(null),
+        () -> SummingCollectors.toDecimalSum(null, 2));
+    }
+}
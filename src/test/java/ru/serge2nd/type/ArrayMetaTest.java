@@ -0,0 +1,44 @@
+package ru.serge2nd.type;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static ru.serge2nd.test.Asserting.assertEach;
+import static ru.serge2nd.test.match.AssertThat.assertThat;
+import static ru.serge2nd.test.match.CoreMatch.illegalArgument;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class ArrayMetaTest {
+
+    @Test void testMeta() {
+        ArrayMeta m = ArrayMeta.of(Map[][].class);
+        assertEach(() ->
+        assertSame(m                 , ArrayMeta.of(Map[][].class)), () ->
+        assertSame(Map[][].class     , m.type()), () ->
+        assertSame(Map.class         , m.leaf()), () ->
+        assertEquals(2               , m.dims()), () ->
+        assertEquals("[[Ljava.util.Map;", m.descriptor()), () ->
+        assertEquals("Ljava.util.Map;", ArrayMeta.of(Map.class).descriptor()), () ->
+        assertEquals("I"             , ArrayMeta.of(int.class).descriptor()), () ->
+        assertEquals(0               , ArrayMeta.of(int.class).dims()), () ->
+        assertSame(int.class         , ArrayMeta.of(int[][][].class).leaf()));
+    }
+
+    @Test void testArrayClass() {
+        ArrayMeta m = ArrayMeta.of(int[].class);
+        assertEach(() ->
+        assertSame(int[].class       , m.arrayClass(0)), () ->
+        assertSame(int[][][].class   , m.arrayClass(2)), () ->
+        assertSame(int[][].class     , m.arrayClass(1)), () ->
+        assertSame(int[][][][].class , m.arrayClass(3)), () ->
+        assertEquals(ArrayMeta.MAX_DIMS, ArrayMeta.of(String.class).arrayClass(ArrayMeta.MAX_DIMS).getName().lastIndexOf('[') + 1), () ->
+        assertThat(()->m.arrayClass(ArrayMeta.MAX_DIMS)        , illegalArgument()), () ->
+        assertThat(()->ArrayMeta.of(void.class).arrayClass(1)  , illegalArgument()), () ->
+        assertThat(()->ArrayMeta.of(null)                      , illegalArgument()));
+    }
+}
@@ -33,6 +33,9 @@ class ClassesTest implements NoInstanceTest<Classes> {
         assertNotSame(TypesTest.E[][][].class, result);
         assertEquals(TypesTest.E.class.getName(), result.getComponentType().getComponentType().getComponentType().getName());
     }
+    @Test void testArrayClassName()     { assertEquals("[[Ljava.util.Map;", Classes.arrayClassName(Map[].class, 1)); }
+    @Test void testVoidArrayClassName() { assertEquals("[[V", Classes.arrayClassName(void.class, 2)); }
+    @Test void testVoidArrayClass()     { assertThat(()->Classes.arrayClass(void.class, 1), illegalArgument()); }
     @Test void testNullArrayClassName() {
         assertThat(()-> Classes.arrayClassName(null, 0), illegalArgument());
     }